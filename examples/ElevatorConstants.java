@@ -15,6 +15,7 @@ import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Distance;
 import edu.wpi.first.units.measure.Mass;
 import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
 
 
 public final class ElevatorConstants {
@@ -26,6 +27,18 @@ public final class ElevatorConstants {
           EnvironmentHandler.getEnvironmentHandler().getEnvironmentPathProvider(),
           new JSONSyncConfigBuilder().setPrettyPrinting(true).build());
 
+  /**
+   * Load the Elevator's constants from their JSON files, including its sim constants in
+   * simulation. Pass this to ConstantsBootstrap.loadAll to load every mechanism in parallel.
+   */
+  public static void load() {
+    synced.loadData();
+
+    if (RobotBase.isSimulation()) {
+      Sim.synced.loadData();
+    }
+  }
+
   public final Integer leadMotorId = 1; // TODO: Replace placeholder CAN ID
   public final Integer followerMotorId = 2; // TODO: Replace placeholder CAN ID
   public final Boolean invertFollowerMotorFollowerRequest = false;
@@ -78,10 +91,143 @@ public final class ElevatorConstants {
   */
   public final Double elevatorMotionMagicExpo_kA = 0.0;
 
+  /** Acceleration of the trapezoidal profile used by MotionMagicTorqueCurrentFOC */
+  public final Double elevatorAngularAccelerationRotationsPerSecondSquared = 2.0;
+
+  /** The request used to reach the goal in ClosedLoop mode, see ElevatorControlModeBenchmark */
+  public final ElevatorIO.ElevatorClosedLoopRequest elevatorClosedLoopRequest =
+      ElevatorIO.ElevatorClosedLoopRequest.MotionMagicExpoTorqueCurrentFOC;
+
+  /**
+   * Gains used by the MotionMagicExpoVoltage request (slot 1). These are in volts, so they can't be
+   * shared with the torque current gains above.
+   */
+  public final Double elevatorVoltageKP = 0.0;
+  public final Double elevatorVoltageKI = 0.0;
+  public final Double elevatorVoltageKD = 0.0;
+
+  public final Double elevatorVoltageKS = 0.0;
+  public final Double elevatorVoltageKV = 0.0;
+  public final Double elevatorVoltageKA = 0.0;
+  public final Double elevatorVoltageKG = 0.0;
+
+  /**
+   * Extra feedforward, in amps, applied on top of kG as a function of elevatorEncoder position, in
+   * rotations. Use this when the load changes with position (e.g. elevator stages, springs or a
+   * carried mechanism). Positions must be increasing, and values between them are interpolated.
+   * Leave both empty to only use kG.
+   */
+  public final double[] elevatorFeedforwardTablePositionsRotations = {};
+
+  public final double[] elevatorFeedforwardTableAmps = {};
+
+  /**
+   * Named preset positions of the Elevator, e.g. {"Stow", "Score"}, and the elevatorEncoder
+   * position of each, in rotations. Moves between presets follow precomputed time-optimal
+   * profiles, see ElevatorMechanism.setGoalPreset.
+   */
+  public final String[] elevatorPresetNames = {};
+
+  public final double[] elevatorPresetPositionsRotations = {};
+
+  /**
+   * Fraction of the stator current limit preset profiles are computed for. The rest is left for
+   * feedback to correct errors with.
+   */
+  public final Double elevatorPresetProfileCurrentFraction = 0.8;
+
+  /** Most voltage preset profiles are computed for, leaving headroom for battery sag */
+  public final Double elevatorPresetProfileMaxVolts = 10.0;
+
   public final Current elevatorStatorCurrentLimit = Amps.of(80.0); // TODO: Replace placeholder current limit
 
+  /**
+   * Range the supply current limit of each Elevator motor is kept in. When the mechanism is part
+   * of a SupplyCurrentBudget, the budget moves the limit within this range.
+   */
+  public final Current elevatorMinSupplyCurrentLimit = Amps.of(10.0);
+
+  public final Current elevatorMaxSupplyCurrentLimit = Amps.of(60.0);
+
+  /** Priority of the Elevator in a SupplyCurrentBudget. Higher priorities get current first. */
+  public final Integer elevatorSupplyCurrentPriority = 0;
+
   public final Double elevatorReduction = 1.0; // TODO: Replace placeholder reduction
 
+  /**
+   * The longest any single phase of ElevatorMechanism.periodic() (e.g. updateInputs) may take, in
+   * microseconds, before it is flagged in the loop timing logs
+   */
+  public final Double elevatorLoopPhaseBudgetMicros = 1000.0;
+
+  /**
+   * Rate of every status signal while the robot is disabled, in Hz. Defaults to the config's
+   * `idle` signal frequency.
+   */
+  public final Double elevatorIdleSignalFrequencyHz = 4.0;
+
+  /**
+   * Rate that control-critical status signals (encoder position and velocity) are raised to while
+   * the mechanism is moving, in Hz. Defaults to the config's `encoder_moving` signal frequency,
+   * which is what generation budgets the bus for.
+   */
+  public final Double elevatorMovingSignalFrequencyHz = 100.0;
+
+  /** Rate that diagnostic status signals (currents) are lowered to while the bus is congested */
+  public final Double elevatorCongestedDiagnosticSignalFrequencyHz = 10.0;
+
+  /**
+   * Rate that control requests (including Follower requests) are resent at while the mechanism is
+   * holding still or disabled, in Hz. Requests are always sent immediately when they change.
+   */
+  public final Double elevatorHoldingControlFrequencyHz = 20.0;
+
+  /** CAN bus utilization (between 0 and 1) above which the bus is considered congested */
+  public final Double elevatorCongestedBusUtilization = 0.7;
+
+  /** The mechanism is considered moving while its encoder is faster than this */
+  public final Double elevatorMovingVelocityThresholdRotationsPerSecond = 0.05;
+
+  /** The mechanism is considered moving while its encoder is further than this from its goal */
+  public final Double elevatorMovingPositionThresholdRotations = 0.01;
+
+  /**
+   * A move is settled once the encoder stays within this of the goal for
+   * elevatorMoveSettleTimeSeconds. Goal changes smaller than this don't start a new move.
+   */
+  public final Double elevatorMoveSettleToleranceRotations = 0.01;
+
+  public final Double elevatorMoveSettleTimeSeconds = 0.1;
+
+  /** A move that hasn't settled after this long is logged as timed out */
+  public final Double elevatorMoveTimeoutSeconds = 3.0;
+
+  /**
+   * Temperature rise of each Elevator motor per second per amp squared of stator current, in
+   * degrees Celsius per A^2*s. Fit this from logs with MotorThermalModel.fit.
+   */
+  public final Double elevatorMotorHeatingCoefficient = 0.0001; // TODO: Replace placeholder thermal model
+
+  /** Fraction of each Elevator motor's temperature above ambient that it loses per second */
+  public final Double elevatorMotorCoolingCoefficient = 0.005;
+
+  /** Temperature the Elevator motors cool toward, in degrees Celsius */
+  public final Double elevatorAmbientTemperatureCelsius = 25.0;
+
+  /** How far ahead motor temperature is predicted when deciding whether to derate, in seconds */
+  public final Double elevatorThermalPredictionHorizonSeconds = 10.0;
+
+  /**
+   * Predicted motor temperatures, in degrees Celsius, between which the current limit and profile
+   * constraints are derated from full output down to elevatorMinThermalDerate
+   */
+  public final Double elevatorThermalDerateStartCelsius = 70.0;
+
+  public final Double elevatorThermalDerateEndCelsius = 95.0;
+
+  /** Fraction of full output the Elevator keeps when fully derated */
+  public final Double elevatorMinThermalDerate = 0.4;
+
   public final Double elevatorHeightPerElevatorEncoderRotationMeters = 0.1;
   public final Distance elevatorMinMinHeight = Meters.of(0.0); // TODO: Replace placeholder constraints
   public final Distance elevatorMaxMaxHeight = Meters.of(1.0);
@@ -102,6 +248,15 @@ public final class ElevatorConstants {
     /** Standard deviation passed to sim for the velocity measurement */
     public final Double velocityStdDev = 0.0;
 
+    /**
+     * Time from the elevatorEncoder sending a status frame to the motors and robot code receiving it.
+     * The frames are sent at the rates the real elevatorEncoder is configured with.
+     */
+    public final Double elevatorEncoderLatencySeconds = 0.002;
+
+    /** Fraction of the elevatorEncoder's status frames lost on the bus, from 0 to 1 */
+    public final Double elevatorEncoderFrameDropProbability = 0.0;
+
     public final Mass carriageMass = Kilograms.of(5.0);
     public final Distance drumRadius = Meters.of(0.05);
     public final Distance elevatorStartingHeight = Meters.of(0.0);
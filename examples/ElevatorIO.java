@@ -1,22 +1,27 @@
 package frc.robot.subsystems.scoring;
 
 import static edu.wpi.first.units.Units.Amps;
+import static edu.wpi.first.units.Units.Celsius;
 import static edu.wpi.first.units.Units.Rotations;
 import static edu.wpi.first.units.Units.RotationsPerSecond;
 import static edu.wpi.first.units.Units.Volts;
 
+import com.ctre.phoenix6.signals.SensorDirectionValue;
 import edu.wpi.first.units.AngularAccelerationUnit;
 import edu.wpi.first.units.AngularVelocityUnit;
 import edu.wpi.first.units.VoltageUnit;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.units.measure.MutAngularVelocity;
 import edu.wpi.first.units.measure.MutCurrent;
+import edu.wpi.first.units.measure.MutTemperature;
 import edu.wpi.first.units.measure.MutVoltage;
 import edu.wpi.first.units.measure.Per;
 import edu.wpi.first.units.measure.Voltage;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
 import org.littletonrobotics.junction.AutoLog;
 
 public interface ElevatorIO {
@@ -26,6 +31,14 @@ public interface ElevatorIO {
     Voltage // Overriding, manually applying a voltage
   }
 
+  /** The control request used to reach the goal in ClosedLoop mode */
+  enum ElevatorClosedLoopRequest {
+    MotionMagicExpoTorqueCurrentFOC, // Exponential profile, torque current gains (slot 0)
+    MotionMagicTorqueCurrentFOC, // Trapezoidal profile, torque current gains (slot 0)
+    MotionMagicExpoVoltage, // Exponential profile, voltage gains (slot 1)
+    PositionTorqueCurrentFOC // No profile, torque current gains and feedforward only (slot 0)
+  }
+
   @AutoLog
   public static class ElevatorInputs {
     public boolean leadMotorConnected = false;
@@ -35,6 +48,9 @@ public interface ElevatorIO {
 
     /** Supply current of the leadMotor */
     public MutCurrent leadMotorSupplyCurrent = Amps.mutable(0.0);
+
+    /** Temperature of the leadMotor. This is only updated a few times per second. */
+    public MutTemperature leadMotorTemperature = Celsius.mutable(0.0);
     
     public boolean followerMotorConnected = false;
 
@@ -43,6 +59,9 @@ public interface ElevatorIO {
 
     /** Supply current of the followerMotor */
     public MutCurrent followerMotorSupplyCurrent = Amps.mutable(0.0);
+
+    /** Temperature of the followerMotor. This is only updated a few times per second. */
+    public MutTemperature followerMotorTemperature = Celsius.mutable(0.0);
     
 
     public boolean elevatorEncoderConnected = false;
@@ -84,6 +103,12 @@ public interface ElevatorIO {
     /** The current closed-loop output from Motion Magic */
     public double elevatorClosedLoopOutput = 0.0;
 
+    /** Position-dependent feedforward from the feedforward table, in amps */
+    public double elevatorFeedforwardAmps = 0.0;
+
+    /** The setpoint streamed by setProfileSetpoint, in rotations, or NaN while none is followed */
+    public double elevatorProfileSetpointRotations = Double.NaN;
+
     /** Contribution of the p-term to motor output */
     public MutVoltage pContrib = Volts.mutable(0.0);
 
@@ -141,24 +166,72 @@ public interface ElevatorIO {
    */
   public void setOutputMode(ElevatorOutputMode mode);
 
+  /**
+   * Set which control request is used in ClosedLoop mode. This is called from the loop when
+   * constants are reloaded, so it must not block.
+   */
+  public void setClosedLoopRequest(ElevatorClosedLoopRequest request);
+
+  /**
+   * Follow a setpoint streamed from a precomputed profile in ClosedLoop mode, instead of the
+   * profile of the selected closed-loop request. This is called every loop while a preset profile
+   * is followed, so it must not block.
+   *
+   * @param positionRotations The setpoint's position, or NaN to go back to the selected request
+   * @param velocityRotationsPerSecond The setpoint's velocity
+   * @param accelerationRotationsPerSecondSquared The setpoint's acceleration
+   */
+  public void setProfileSetpoint(
+      double positionRotations,
+      double velocityRotationsPerSecond,
+      double accelerationRotationsPerSecondSquared);
+
   /** Update PID gains for the Elevator */
   public void setPID(double p, double i, double d);
 
   /** Set profile constraints to be sent to Motion Magic Expo */
   public void setMaxProfile(
       AngularVelocity maxVelocity,
+      AngularAcceleration maxAcceleration,
       Per<VoltageUnit, AngularAccelerationUnit> expo_kA,
       Per<VoltageUnit, AngularVelocityUnit> expo_kV);
 
   /** Set feedforward gains for closed-loop control */
   public void setFF(double kS, double kV, double kA, double kG);
 
+  /**
+   * Set the PID and feedforward gains of voltage-based closed-loop requests, like
+   * MotionMagicExpoVoltage. This is called from the loop when constants are reloaded, so it must not
+   * block.
+   */
+  public void setVoltageGains(
+      double kP, double kI, double kD, double kS, double kV, double kA, double kG);
+
+  /**
+   * Replace the table the position-dependent feedforward is looked up in. This is called from the
+   * loop when constants are reloaded, so it must not block.
+   */
+  public void setFeedforwardTable(InterpolationTable feedforwardTable);
+
   /** Set whether or not the motors should brake while idle */
   public void setBrakeMode(boolean brakeMode);
 
   /** Set the stator current limit for the Elevator motors */
   public void setStatorCurrentLimit(Current currentLimit);
 
+  /**
+   * Set the supply current limit of each Elevator motor. This may be called every loop, so it must
+   * not block.
+   */
+  public void setSupplyCurrentLimit(Current currentLimit);
+
+  /**
+   * Set the magnet sensor config of the elevatorEncoder. This is called from the loop when constants
+   * are reloaded, so it must not block.
+   */
+  public void setElevatorEncoderMagnetSensor(
+      Angle magnetOffset, double discontinuityPoint, SensorDirectionValue direction);
+
   /** Set whether or not the motors on the Elevator should be disabled. */
   public void setMotorsDisabled(boolean disabled);
 }
\ No newline at end of file
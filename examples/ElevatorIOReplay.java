@@ -0,0 +1,88 @@
+package frc.robot.subsystems.scoring;
+
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+import edu.wpi.first.units.AngularAccelerationUnit;
+import edu.wpi.first.units.AngularVelocityUnit;
+import edu.wpi.first.units.VoltageUnit;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Per;
+import edu.wpi.first.units.measure.Voltage;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
+
+/**
+ * A ElevatorIO that does nothing, for use when replaying logs.
+ *
+ * <p>During AdvantageKit replay, Logger.processInputs overwrites ElevatorInputs with the values
+ * from the log, so the IO must not touch hardware or sim. It can also be subclassed wherever a
+ * hardware-free ElevatorIO is needed, e.g. in benchmarks.
+ */
+public class ElevatorIOReplay implements ElevatorIO {
+  @Override
+  public void updateInputs(ElevatorInputs inputs) {}
+
+  @Override
+  public void applyOutputs(ElevatorOutputs outputs) {}
+
+  @Override
+  public void setElevatorEncoderGoalPos(Angle goalPos) {}
+
+  @Override
+  public void setElevatorEncoderPosition(Angle newAngle) {}
+
+  @Override
+  public void setOverrideVoltage(Voltage volts) {}
+
+  @Override
+  public void setOverrideCurrent(Current current) {}
+
+  @Override
+  public void setOutputMode(ElevatorOutputMode mode) {}
+
+  @Override
+  public void setClosedLoopRequest(ElevatorClosedLoopRequest request) {}
+
+  @Override
+  public void setProfileSetpoint(
+      double positionRotations,
+      double velocityRotationsPerSecond,
+      double accelerationRotationsPerSecondSquared) {}
+
+  @Override
+  public void setPID(double p, double i, double d) {}
+
+  @Override
+  public void setMaxProfile(
+      AngularVelocity maxVelocity,
+      AngularAcceleration maxAcceleration,
+      Per<VoltageUnit, AngularAccelerationUnit> expo_kA,
+      Per<VoltageUnit, AngularVelocityUnit> expo_kV) {}
+
+  @Override
+  public void setFF(double kS, double kV, double kA, double kG) {}
+
+  @Override
+  public void setVoltageGains(
+      double kP, double kI, double kD, double kS, double kV, double kA, double kG) {}
+
+  @Override
+  public void setFeedforwardTable(InterpolationTable feedforwardTable) {}
+
+  @Override
+  public void setBrakeMode(boolean brakeMode) {}
+
+  @Override
+  public void setStatorCurrentLimit(Current currentLimit) {}
+
+  @Override
+  public void setSupplyCurrentLimit(Current currentLimit) {}
+
+  @Override
+  public void setElevatorEncoderMagnetSensor(
+      Angle magnetOffset, double discontinuityPoint, SensorDirectionValue direction) {}
+
+  @Override
+  public void setMotorsDisabled(boolean disabled) {}
+}
\ No newline at end of file
@@ -21,6 +21,7 @@ import edu.wpi.first.units.measure.LinearVelocity;
 import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import frc.robot.constants.JsonConstants;
 import frc.robot.constants.SimConstants;
+import frc.robot.lib.robotvibecoder.SimulatedStatusSignal;
 import org.littletonrobotics.junction.Logger;
 
 public class ElevatorIOSim extends ElevatorIOTalonFX {
@@ -42,6 +43,13 @@ public class ElevatorIOSim extends ElevatorIOTalonFX {
           ElevatorConstants.Sim.synced.getObject().positionStdDev,
           ElevatorConstants.Sim.synced.getObject().velocityStdDev);
 
+  // The elevatorEncoder's frames reach the motors' fused closed loop and robot code over CAN, so what
+  // they see of it lags the physics. The motors read their own rotors directly.
+  SimulatedStatusSignal elevatorEncoderPositionSignal =
+      new SimulatedStatusSignal("Elevator/elevatorEncoderPosition".hashCode());
+  SimulatedStatusSignal elevatorEncoderVelocitySignal =
+      new SimulatedStatusSignal("Elevator/elevatorEncoderVelocity".hashCode());
+
   public ElevatorIOSim() {
     super();
 
@@ -81,8 +89,7 @@ public class ElevatorIOSim extends ElevatorIOTalonFX {
         elevatorEncoderVelocity.times(ElevatorConstants.synced.getObject().elevatorReduction);
     // TODO: Find out if/why sim breaks when multiplying motor velocity by motor reduction
 
-    elevatorEncoderSimState.setRawPosition(elevatorEncoderAngle);
-    elevatorEncoderSimState.setVelocity(elevatorEncoderVelocity);
+    setElevatorEncoderSimState(elevatorEncoderAngle, elevatorEncoderVelocity);
 
     leadMotorSimState.setRawRotorPosition(motorAngle);
     leadMotorSimState.setRotorVelocity(motorVelocity);
@@ -97,6 +104,37 @@ public class ElevatorIOSim extends ElevatorIOTalonFX {
     elevatorSim.update(SimConstants.simDeltaTime.in(Seconds));
   }
 
+  /**
+   * Send the elevatorEncoder's true position and velocity over the simulated CAN bus, setting its sim
+   * state to what the rest of the robot would have received by now
+   */
+  private void setElevatorEncoderSimState(Angle position, AngularVelocity velocity) {
+    final double dtSeconds = SimConstants.simDeltaTime.in(Seconds);
+    final double latencySeconds = ElevatorConstants.Sim.synced.getObject().elevatorEncoderLatencySeconds;
+    final double dropProbability = ElevatorConstants.Sim.synced.getObject().elevatorEncoderFrameDropProbability;
+
+    elevatorEncoderSimState.setRawPosition(
+        elevatorEncoderPositionSignal.update(
+            position.in(Rotations),
+            elevatorEncoderPosition.getAppliedUpdateFrequency(),
+            latencySeconds,
+            dropProbability,
+            dtSeconds));
+    elevatorEncoderSimState.setVelocity(
+        elevatorEncoderVelocitySignal.update(
+            velocity.in(RotationsPerSecond),
+            elevatorEncoderVelocity.getAppliedUpdateFrequency(),
+            latencySeconds,
+            dropProbability,
+            dtSeconds));
+
+    Logger.recordOutput(
+        "elevatorSim/elevatorEncoderPositionAgeSeconds", elevatorEncoderPositionSignal.getAgeSeconds());
+    Logger.recordOutput(
+        "elevatorSim/elevatorEncoderDroppedFrames",
+        elevatorEncoderPositionSignal.getDroppedFrames() + elevatorEncoderVelocitySignal.getDroppedFrames());
+  }
+
   @Override
   public void updateInputs(ElevatorInputs inputs) {
     updateSimState();
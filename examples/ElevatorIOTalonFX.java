@@ -1,6 +1,8 @@
 package frc.robot.subsystems.scoring;
 
+import static edu.wpi.first.units.Units.Amps;
 import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
 import static edu.wpi.first.units.Units.Volts;
 
 import com.ctre.phoenix6.BaseStatusSignal;
@@ -12,9 +14,14 @@ import com.ctre.phoenix6.configs.FeedbackConfigs;
 import com.ctre.phoenix6.configs.MotionMagicConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.Slot1Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.ControlRequest;
 import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.controls.MotionMagicExpoTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.MotionMagicExpoVoltage;
+import com.ctre.phoenix6.controls.MotionMagicTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.PositionTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.TorqueCurrentFOC;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.CANcoder;
@@ -22,19 +29,51 @@ import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
 import edu.wpi.first.units.AngularAccelerationUnit;
 import edu.wpi.first.units.AngularVelocityUnit;
 import edu.wpi.first.units.VoltageUnit;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.units.measure.Per;
+import edu.wpi.first.units.measure.Temperature;
 import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.lib.robotvibecoder.AdaptiveSignalRates;
+import frc.robot.lib.robotvibecoder.CANBusUtilization;
+import frc.robot.lib.robotvibecoder.DeviceHealth;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
 import frc.robot.subsystems.scoring.ElevatorConstants;
 import org.littletonrobotics.junction.Logger;
 
 public class ElevatorIOTalonFX implements ElevatorIO {
+  /** How often control requests (including Follower requests) are resent on the CAN bus */
+  private static final double CONTROL_FREQUENCY_HZ = 100.0;
+
+  // Nominal status signal rates, used while enabled and holding position on an uncongested bus
+  private static final double ENCODER_POSITION_FREQUENCY_HZ = 50.0;
+  private static final double ENCODER_VELOCITY_FREQUENCY_HZ = 50.0;
+  private static final double SUPPLY_CURRENT_FREQUENCY_HZ = 50.0;
+  private static final double STATOR_CURRENT_FREQUENCY_HZ = 50.0;
+
+  /**
+   * How often motor temperatures are refreshed. Temperature changes slowly and is only reported at
+   * a few Hz, so it's read on this slow path instead of every loop.
+   */
+  private static final double TEMPERATURE_PERIOD_SECONDS = 0.25;
+
+  /** Supply current limit changes smaller than this aren't sent to the motors */
+  private static final double SUPPLY_CURRENT_LIMIT_DEADBAND_AMPS = 1.0;
+
+  /**
+   * Feedforward changes smaller than this don't cause the closed-loop request to be resent, so
+   * that encoder noise while holding position doesn't defeat deduplication
+   */
+  private static final double FEEDFORWARD_DEADBAND_AMPS = 0.05;
+
   MutAngle elevatorEncoderGoalAngle = Rotations.mutable(0.0);
   MutAngle elevatorEncoderSetpointPosition = Rotations.mutable(0.0);
 
@@ -49,27 +88,80 @@ public class ElevatorIOTalonFX implements ElevatorIO {
 
   CANcoder elevatorEncoder;
 
-  // Reuse the same talonFXConfiguration instead of making a new one each time.
+  // Reuse the same talonFXConfiguration instead of making a new one each time. Every config change
+  // is made to these, so that a device that resets can be given its full, current configuration.
   TalonFXConfiguration talonFXConfigs;
+  CANcoderConfiguration cancoderConfigs;
+
+  // Calls that would block on a disconnected device are skipped until it's back and reconfigured
+  DeviceHealth elevatorEncoderHealth;
+  DeviceHealth leadMotorHealth;
+  DeviceHealth followerMotorHealth;
 
   boolean motorDisabled = false;
 
-  private StatusSignal<Angle> elevatorEncoderPosition;
-  private StatusSignal<AngularVelocity> elevatorEncoderVelocity;
+  /** Whether the mechanism was moving as of the last updateInputs, see updateSignalRates */
+  boolean moving = true;
+
+  // The last request sent to the lead motor. The motor resends it on its own at its update
+  // frequency, so setControl is only called again when the request or its values change.
+  ControlRequest sentRequest = null;
+  double sentOutput = Double.NaN;
+  double sentFeedforwardAmps = Double.NaN;
+  double sentUpdateFrequencyHz = Double.NaN;
+
+  // Built from the constants, and rebuilt off the main thread when they're reloaded
+  InterpolationTable feedforwardTable;
+
+  double lastTemperatureTimestamp = Double.NEGATIVE_INFINITY;
+
+  // Encoder position and velocity are raised while moving, currents are lowered while the bus is
+  // congested
+  AdaptiveSignalRates signalRates =
+      new AdaptiveSignalRates("Elevator", CANBusUtilization.of("canivore"));
+
+  // Not private so that the sim can send its values at the rate these are actually updated at
+  StatusSignal<Angle> elevatorEncoderPosition;
+  StatusSignal<AngularVelocity> elevatorEncoderVelocity;
   private StatusSignal<Current> leadMotorSupplyCurrent;
   private StatusSignal<Current> leadMotorStatorCurrent;
+  private StatusSignal<Temperature> leadMotorTemperature;
 
   
   private StatusSignal<Current> followerMotorSupplyCurrent;
   private StatusSignal<Current> followerMotorStatorCurrent;
+  private StatusSignal<Temperature> followerMotorTemperature;
 
   
 
   // Reuse the same motion magic request to avoid garbage collector having to clean them up.
   MotionMagicExpoTorqueCurrentFOC motionMagicExpoTorqueCurrentFOC =
-      new MotionMagicExpoTorqueCurrentFOC(0.0);
-  VoltageOut voltageOut = new VoltageOut(0.0);
-  TorqueCurrentFOC currentOut = new TorqueCurrentFOC(0.0);
+      new MotionMagicExpoTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  MotionMagicTorqueCurrentFOC motionMagicTorqueCurrentFOC =
+      new MotionMagicTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  // Voltage gains are kept in slot 1, since slot 0's are in amps
+  MotionMagicExpoVoltage motionMagicExpoVoltage =
+      new MotionMagicExpoVoltage(0.0).withSlot(1).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  PositionTorqueCurrentFOC positionTorqueCurrentFOC =
+      new PositionTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  // Kept separate from positionTorqueCurrentFOC, since only streamed setpoints have a velocity
+  PositionTorqueCurrentFOC profileSetpointRequest =
+      new PositionTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  VoltageOut voltageOut = new VoltageOut(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  TorqueCurrentFOC currentOut = new TorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+
+  /** The request used in ClosedLoop mode, see ElevatorClosedLoopRequest */
+  ElevatorClosedLoopRequest closedLoopRequest =
+      ElevatorConstants.synced.getObject().elevatorClosedLoopRequest;
+
+  // The setpoint streamed by setProfileSetpoint, followed instead of closedLoopRequest unless NaN
+  double profileSetpointRotations = Double.NaN;
+  double profileSetpointRotationsPerSecond = 0.0;
+  double profileSetpointRotationsPerSecondSquared = 0.0;
+
+  Follower followerMotorFollowerRequest;
+  /** The update frequency followerMotorFollowerRequest was last sent with, or NaN to resend it */
+  double followerMotorSentFollowerFrequencyHz = Double.NaN;
 
   public ElevatorIOTalonFX() {
     // Initialize TalonFXs  and CANcoders with their correct IDs
@@ -79,15 +171,15 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     elevatorEncoder =
         new CANcoder(ElevatorConstants.synced.getObject().elevatorEncoderID, "canivore");
 
-    CANcoderConfiguration cancoderConfiguration = new CANcoderConfiguration();
-    cancoderConfiguration.MagnetSensor.AbsoluteSensorDiscontinuityPoint =
+    cancoderConfigs = new CANcoderConfiguration();
+    cancoderConfigs.MagnetSensor.AbsoluteSensorDiscontinuityPoint =
         ElevatorConstants.synced.getObject().elevatorEncoderDiscontinuityPoint;
 
     // Update with large CANcoder direction and apply
-    cancoderConfiguration.MagnetSensor.SensorDirection =
+    cancoderConfigs.MagnetSensor.SensorDirection =
         ElevatorConstants.synced.getObject().elevatorEncoderDirection;
-    cancoderConfiguration.MagnetSensor.MagnetOffset = ElevatorConstants.synced.getObject().elevatorEncoderMagnetOffset.in(Rotations);
-    elevatorEncoder.getConfigurator().apply(cancoderConfiguration);
+    cancoderConfigs.MagnetSensor.MagnetOffset = ElevatorConstants.synced.getObject().elevatorEncoderMagnetOffset.in(Rotations);
+    elevatorEncoder.getConfigurator().apply(cancoderConfigs);
 
     // Cache status signals and refresh them when used
     elevatorEncoderPosition = elevatorEncoder.getPosition();
@@ -95,18 +187,24 @@ public class ElevatorIOTalonFX implements ElevatorIO {
 
     leadMotorSupplyCurrent = leadMotor.getSupplyCurrent();
     leadMotorStatorCurrent = leadMotor.getStatorCurrent();
+    leadMotorTemperature = leadMotor.getDeviceTemp();
 
     followerMotorSupplyCurrent = followerMotor.getSupplyCurrent();
     followerMotorStatorCurrent = followerMotor.getStatorCurrent();
+    followerMotorTemperature = followerMotor.getDeviceTemp();
 
-    BaseStatusSignal.setUpdateFrequencyForAll(50.0,
-        leadMotorSupplyCurrent,
-        leadMotorStatorCurrent,
-        followerMotorSupplyCurrent,
-        followerMotorStatorCurrent,
-        elevatorEncoderPosition,
-        elevatorEncoderVelocity
-    );
+    signalRates.addCriticalSignal(elevatorEncoderPosition, ENCODER_POSITION_FREQUENCY_HZ);
+    signalRates.addCriticalSignal(elevatorEncoderVelocity, ENCODER_VELOCITY_FREQUENCY_HZ);
+    signalRates.addDiagnosticSignal(leadMotorSupplyCurrent, SUPPLY_CURRENT_FREQUENCY_HZ);
+    signalRates.addDiagnosticSignal(leadMotorStatorCurrent, STATOR_CURRENT_FREQUENCY_HZ);
+    signalRates.addDiagnosticSignal(followerMotorSupplyCurrent, SUPPLY_CURRENT_FREQUENCY_HZ);
+    signalRates.addDiagnosticSignal(followerMotorStatorCurrent, STATOR_CURRENT_FREQUENCY_HZ);
+    signalRates.applyNominalRates();
+
+    feedforwardTable =
+        new InterpolationTable(
+            ElevatorConstants.synced.getObject().elevatorFeedforwardTablePositionsRotations,
+            ElevatorConstants.synced.getObject().elevatorFeedforwardTableAmps);
 
     // Initialize talonFXConfigs to use FusedCANCoder and Motion Magic Expo and have correct PID
     // gains and current limits.
@@ -125,7 +223,10 @@ public class ElevatorIOTalonFX implements ElevatorIO {
                 new CurrentLimitsConfigs()
                     .withStatorCurrentLimitEnable(true)
                     .withStatorCurrentLimit(
-                        ElevatorConstants.synced.getObject().elevatorStatorCurrentLimit))
+                        ElevatorConstants.synced.getObject().elevatorStatorCurrentLimit)
+                    .withSupplyCurrentLimitEnable(true)
+                    .withSupplyCurrentLimit(
+                        ElevatorConstants.synced.getObject().elevatorMaxSupplyCurrentLimit))
             .withSlot0(
                 new Slot0Configs()
                     .withGravityType(GravityTypeValue.Elevator_Static)
@@ -136,10 +237,22 @@ public class ElevatorIOTalonFX implements ElevatorIO {
                     .withKP(ElevatorConstants.synced.getObject().elevatorKP)
                     .withKI(ElevatorConstants.synced.getObject().elevatorKI)
                     .withKD(ElevatorConstants.synced.getObject().elevatorKD))
+            .withSlot1(
+                new Slot1Configs()
+                    .withGravityType(GravityTypeValue.Elevator_Static)
+                    .withKS(ElevatorConstants.synced.getObject().elevatorVoltageKS)
+                    .withKV(ElevatorConstants.synced.getObject().elevatorVoltageKV)
+                    .withKA(ElevatorConstants.synced.getObject().elevatorVoltageKA)
+                    .withKG(ElevatorConstants.synced.getObject().elevatorVoltageKG)
+                    .withKP(ElevatorConstants.synced.getObject().elevatorVoltageKP)
+                    .withKI(ElevatorConstants.synced.getObject().elevatorVoltageKI)
+                    .withKD(ElevatorConstants.synced.getObject().elevatorVoltageKD))
             .withMotionMagic(
                 new MotionMagicConfigs()
                     .withMotionMagicCruiseVelocity(
                         ElevatorConstants.synced.getObject().elevatorAngularCruiseVelocityRotationsPerSecond)
+                    .withMotionMagicAcceleration(
+                        ElevatorConstants.synced.getObject().elevatorAngularAccelerationRotationsPerSecondSquared)
                     .withMotionMagicExpo_kA(
                         ElevatorConstants.synced.getObject().elevatorMotionMagicExpo_kA)
                     .withMotionMagicExpo_kV(
@@ -150,10 +263,34 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     followerMotor.getConfigurator().apply(talonFXConfigs);
 
     // Make follower motors permanently follow lead motor.
-    followerMotor.setControl(
+    followerMotorFollowerRequest =
         new Follower(
             leadMotor.getDeviceID(),
-            ElevatorConstants.synced.getObject().invertFollowerMotorFollowerRequest));
+            ElevatorConstants.synced.getObject().invertFollowerMotorFollowerRequest);
+    followerMotor.setControl(followerMotorFollowerRequest.withUpdateFreqHz(CONTROL_FREQUENCY_HZ));
+    followerMotorSentFollowerFrequencyHz = CONTROL_FREQUENCY_HZ;
+
+    elevatorEncoderHealth =
+        new DeviceHealth(
+            "Elevator/elevatorEncoder",
+            elevatorEncoder,
+            elevatorEncoderPosition,
+            () -> elevatorEncoder.getConfigurator().apply(cancoderConfigs),
+            signalRates::resendRates);
+    leadMotorHealth =
+        new DeviceHealth(
+            "Elevator/leadMotor",
+            leadMotor,
+            leadMotorSupplyCurrent,
+            () -> leadMotor.getConfigurator().apply(talonFXConfigs),
+            signalRates::resendRates);
+    followerMotorHealth =
+        new DeviceHealth(
+            "Elevator/followerMotor",
+            followerMotor,
+            followerMotorSupplyCurrent,
+            () -> followerMotor.getConfigurator().apply(talonFXConfigs),
+            signalRates::resendRates);
   }
 
   @Override
@@ -179,28 +316,101 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     inputs.followerMotorStatorCurrent.mut_replace(followerMotorStatorCurrent.getValue());
     inputs.followerMotorConnected = followerMotor.isConnected();
 
+    double now = Timer.getFPGATimestamp();
+    if (now - lastTemperatureTimestamp >= TEMPERATURE_PERIOD_SECONDS) {
+      lastTemperatureTimestamp = now;
+
+      BaseStatusSignal.refreshAll(
+          leadMotorTemperature,
+          followerMotorTemperature);
+      inputs.leadMotorTemperature.mut_replace(leadMotorTemperature.getValue());
+      inputs.followerMotorTemperature.mut_replace(followerMotorTemperature.getValue());
+    }
+
     inputs.elevatorEncoderGoalPos.mut_replace(elevatorEncoderGoalAngle);
     inputs.elevatorEncoderSetpointPos.mut_replace(elevatorEncoderSetpointPosition);
 
     inputs.motionMagicError = leadMotor.getClosedLoopError().getValueAsDouble();
 
     inputs.elevatorVelocity.mut_replace(elevatorEncoder.getVelocity().getValue());
+
+    elevatorEncoderHealth.update();
+    leadMotorHealth.update();
+    followerMotorHealth.update();
+
+    updateSignalRates(inputs);
+  }
+
+  /** Raise or lower status signal rates depending on whether the mechanism is moving */
+  private void updateSignalRates(ElevatorInputs inputs) {
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+
+    moving =
+        Math.abs(inputs.elevatorEncoderVel.in(RotationsPerSecond))
+                > constants.elevatorMovingVelocityThresholdRotationsPerSecond
+            || Math.abs(elevatorEncoderGoalAngle.in(Rotations) - inputs.elevatorEncoderPos.in(Rotations))
+                > constants.elevatorMovingPositionThresholdRotations;
+
+    signalRates.update(
+        moving,
+        constants.elevatorIdleSignalFrequencyHz,
+        constants.elevatorMovingSignalFrequencyHz,
+        constants.elevatorCongestedDiagnosticSignalFrequencyHz,
+        constants.elevatorCongestedBusUtilization);
   }
 
   @Override
   public void applyOutputs(ElevatorOutputs outputs) {
     outputs.motorsDisabled = motorDisabled;
     outputs.outputMode = outputMode;
-
-    motionMagicExpoTorqueCurrentFOC.withPosition(elevatorEncoderGoalAngle);
-
-    if (motorDisabled) {
-      leadMotor.setControl(voltageOut.withOutput(0.0));
+    outputs.elevatorProfileSetpointRotations = profileSetpointRotations;
+
+    // Control frames are only needed at the full rate while the mechanism is moving
+    double controlFrequencyHz =
+        moving
+            ? CONTROL_FREQUENCY_HZ
+            : Math.min(
+                CONTROL_FREQUENCY_HZ, ElevatorConstants.synced.getObject().elevatorHoldingControlFrequencyHz);
+    updateFollowerFrequencies(controlFrequencyHz);
+
+    if (!leadMotorHealth.isHealthy()) {
+      // Don't send requests to a lead motor that's missing or hasn't been reconfigured yet, and
+      // resend the current request once it's back
+      sentRequest = null;
+      outputs.elevatorAppliedVolts.mut_replace(Volts.of(0.0));
+    } else if (motorDisabled) {
+      if (controlChanged(voltageOut, 0.0, 0.0, controlFrequencyHz)) {
+        leadMotor.setControl(
+            voltageOut.withOutput(0.0).withUpdateFreqHz(controlFrequencyHz));
+      }
       outputs.elevatorAppliedVolts.mut_replace(Volts.of(0.0));
     } else {
       switch (outputMode) {
         case ClosedLoop:
-          leadMotor.setControl(motionMagicExpoTorqueCurrentFOC);
+          // Streamed setpoints are followed with torque current, whatever request is selected
+          boolean followingProfileSetpoint = !Double.isNaN(profileSetpointRotations);
+
+          // Add the load at the current position on top of the gravity feedforward. The table is
+          // in amps, so it's only applied by torque current requests.
+          double feedforwardAmps =
+              closedLoopRequest == ElevatorClosedLoopRequest.MotionMagicExpoVoltage
+                      && !followingProfileSetpoint
+                  ? 0.0
+                  : feedforwardTable.get(elevatorEncoderPosition.getValueAsDouble());
+          outputs.elevatorFeedforwardAmps = feedforwardAmps;
+
+          ControlRequest request =
+              followingProfileSetpoint
+                  ? profileSetpointRequest(feedforwardAmps, controlFrequencyHz)
+                  : selectedClosedLoopRequest(feedforwardAmps, controlFrequencyHz);
+          double requestedPositionRotations =
+              followingProfileSetpoint
+                  ? profileSetpointRotations
+                  : elevatorEncoderGoalAngle.in(Rotations);
+          if (controlChanged(
+              request, requestedPositionRotations, feedforwardAmps, controlFrequencyHz)) {
+            leadMotor.setControl(request);
+          }
 
           elevatorEncoderSetpointPosition.mut_setMagnitude(
               (leadMotor.getClosedLoopReference().getValue()));
@@ -219,17 +429,105 @@ public class ElevatorIOTalonFX implements ElevatorIO {
               Volts.of(leadMotor.getClosedLoopDerivativeOutput().getValueAsDouble()));
           break;
         case Voltage:
-          leadMotor.setControl(new VoltageOut(overrideVoltage));
+          // Overrides are only used while tuning, so they're always sent at the full rate
+          if (controlChanged(voltageOut, overrideVoltage.in(Volts), 0.0, CONTROL_FREQUENCY_HZ)) {
+            leadMotor.setControl(
+                voltageOut.withOutput(overrideVoltage).withUpdateFreqHz(CONTROL_FREQUENCY_HZ));
+          }
           outputs.elevatorAppliedVolts.mut_replace(overrideVoltage);
           break;
         case Current:
-          leadMotor.setControl(currentOut.withOutput(overrideCurrent));
+          if (controlChanged(currentOut, overrideCurrent.in(Amps), 0.0, CONTROL_FREQUENCY_HZ)) {
+            leadMotor.setControl(
+                currentOut.withOutput(overrideCurrent).withUpdateFreqHz(CONTROL_FREQUENCY_HZ));
+          }
           outputs.elevatorAppliedVolts.mut_replace(leadMotor.getMotorVoltage().getValue());
           break;
       }
     }
   }
 
+  /**
+   * Get the request selected by setClosedLoopRequest, updated with the current goal. Requests are
+   * reused, so this doesn't allocate.
+   */
+  private ControlRequest selectedClosedLoopRequest(
+      double feedforwardAmps, double controlFrequencyHz) {
+    switch (closedLoopRequest) {
+      case MotionMagicTorqueCurrentFOC:
+        return motionMagicTorqueCurrentFOC
+            .withPosition(elevatorEncoderGoalAngle)
+            .withFeedForward(feedforwardAmps)
+            .withUpdateFreqHz(controlFrequencyHz);
+      case MotionMagicExpoVoltage:
+        return motionMagicExpoVoltage
+            .withPosition(elevatorEncoderGoalAngle)
+            .withUpdateFreqHz(controlFrequencyHz);
+      case PositionTorqueCurrentFOC:
+        return positionTorqueCurrentFOC
+            .withPosition(elevatorEncoderGoalAngle)
+            .withFeedForward(feedforwardAmps)
+            .withUpdateFreqHz(controlFrequencyHz);
+      case MotionMagicExpoTorqueCurrentFOC:
+      default:
+        return motionMagicExpoTorqueCurrentFOC
+            .withPosition(elevatorEncoderGoalAngle)
+            .withFeedForward(feedforwardAmps)
+            .withUpdateFreqHz(controlFrequencyHz);
+    }
+  }
+
+  /**
+   * Get the request that follows the setpoint streamed by setProfileSetpoint. Like the selected
+   * requests, it's reused, so this doesn't allocate.
+   */
+  private ControlRequest profileSetpointRequest(double feedforwardAmps, double controlFrequencyHz) {
+    // Slot 0 applies kV to the setpoint's velocity, but only applies kA in Motion Magic, so the
+    // acceleration's share is added to the feedforward here
+    return profileSetpointRequest
+        .withPosition(profileSetpointRotations)
+        .withVelocity(profileSetpointRotationsPerSecond)
+        .withFeedForward(
+            feedforwardAmps + talonFXConfigs.Slot0.kA * profileSetpointRotationsPerSecondSquared)
+        .withUpdateFreqHz(controlFrequencyHz);
+  }
+
+  /**
+   * Check whether a request differs from the last one sent to the lead motor, and if it does,
+   * record it as the last one sent
+   *
+   * @return True if the request should be sent
+   */
+  private boolean controlChanged(
+      ControlRequest request, double output, double feedforwardAmps, double updateFrequencyHz) {
+    if (request == sentRequest
+        && output == sentOutput
+        && Math.abs(feedforwardAmps - sentFeedforwardAmps) < FEEDFORWARD_DEADBAND_AMPS
+        && updateFrequencyHz == sentUpdateFrequencyHz) {
+      return false;
+    }
+
+    sentRequest = request;
+    sentOutput = output;
+    sentFeedforwardAmps = feedforwardAmps;
+    sentUpdateFrequencyHz = updateFrequencyHz;
+    return true;
+  }
+
+  /**
+   * Resend Follower requests when the control frequency changes. Followers keep following either
+   * way, this only changes how often their control frames are sent.
+   */
+  private void updateFollowerFrequencies(double controlFrequencyHz) {
+    if (!followerMotorHealth.isHealthy()) {
+      // Resend the request once the follower is back, since it may have rebooted
+      followerMotorSentFollowerFrequencyHz = Double.NaN;
+    } else if (controlFrequencyHz != followerMotorSentFollowerFrequencyHz) {
+      followerMotor.setControl(followerMotorFollowerRequest.withUpdateFreqHz(controlFrequencyHz));
+      followerMotorSentFollowerFrequencyHz = controlFrequencyHz;
+    }
+  }
+
   @Override
   public void setElevatorEncoderGoalPos(Angle goalPos) {
     elevatorEncoderGoalAngle.mut_replace(goalPos);
@@ -237,7 +535,10 @@ public class ElevatorIOTalonFX implements ElevatorIO {
 
   @Override
   public void setElevatorEncoderPosition(Angle newAngle) {
-    elevatorEncoder.setPosition(newAngle);
+    // setPosition blocks until it's acknowledged, so it's skipped while the elevatorEncoder is missing
+    if (elevatorEncoderHealth.isHealthy()) {
+      elevatorEncoder.setPosition(newAngle);
+    }
   }
 
   @Override
@@ -255,6 +556,22 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     overrideCurrent = current;
   }
 
+  @Override
+  public void setClosedLoopRequest(ElevatorClosedLoopRequest request) {
+    // The next applyOutputs sends the new request, since it differs from the last one sent
+    closedLoopRequest = request;
+  }
+
+  @Override
+  public void setProfileSetpoint(
+      double positionRotations,
+      double velocityRotationsPerSecond,
+      double accelerationRotationsPerSecondSquared) {
+    profileSetpointRotations = positionRotations;
+    profileSetpointRotationsPerSecond = velocityRotationsPerSecond;
+    profileSetpointRotationsPerSecondSquared = accelerationRotationsPerSecondSquared;
+  }
+
   @Override
   public void setPID(double p, double i, double d) {
     Slot0Configs configs = talonFXConfigs.Slot0;
@@ -262,23 +579,31 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     configs.kP = p;
     configs.kI = i;
     configs.kD = d;
-    leadMotor.getConfigurator().apply(configs);
-    followerMotor.getConfigurator().apply(configs);
+
+    // A timeout of 0 doesn't wait for the configs to be acknowledged, since this is also called from
+    // the loop when constants are reloaded
+    leadMotorHealth.applyIfHealthy(() -> leadMotor.getConfigurator().apply(configs, 0.0));
+    followerMotorHealth.applyIfHealthy(() -> followerMotor.getConfigurator().apply(configs, 0.0));
   }
 
   @Override
   public void setMaxProfile(
       AngularVelocity maxVelocity,
+      AngularAcceleration maxAcceleration,
       Per<VoltageUnit, AngularAccelerationUnit> expo_kA,
       Per<VoltageUnit, AngularVelocityUnit> expo_kV) {
     MotionMagicConfigs configs =
         talonFXConfigs
             .MotionMagic
-            // .withMotionMagicCruiseVelocity(maxVelocity)
+            .withMotionMagicCruiseVelocity(maxVelocity)
+            .withMotionMagicAcceleration(maxAcceleration)
             .withMotionMagicExpo_kA(expo_kA)
             .withMotionMagicExpo_kV(expo_kV);
-    leadMotor.getConfigurator().apply(configs);
-    followerMotor.getConfigurator().apply(configs);
+
+    // A timeout of 0 sends the configs without waiting for them to be acknowledged, since this is
+    // also called from the loop when the mechanism derates for temperature
+    leadMotorHealth.applyIfHealthy(() -> leadMotor.getConfigurator().apply(configs, 0.0));
+    followerMotorHealth.applyIfHealthy(() -> followerMotor.getConfigurator().apply(configs, 0.0));
   }
 
   @Override
@@ -289,23 +614,83 @@ public class ElevatorIOTalonFX implements ElevatorIO {
     configs.kV = kV;
     configs.kA = kA;
     configs.kG = kG;
-    leadMotor.getConfigurator().apply(configs);
-    followerMotor.getConfigurator().apply(configs);
+
+    // A timeout of 0 doesn't wait for the configs to be acknowledged, since this is also called from
+    // the loop when constants are reloaded
+    leadMotorHealth.applyIfHealthy(() -> leadMotor.getConfigurator().apply(configs, 0.0));
+    followerMotorHealth.applyIfHealthy(() -> followerMotor.getConfigurator().apply(configs, 0.0));
+  }
+
+  @Override
+  public void setVoltageGains(
+      double kP, double kI, double kD, double kS, double kV, double kA, double kG) {
+    Slot1Configs configs = talonFXConfigs.Slot1;
+
+    configs.kP = kP;
+    configs.kI = kI;
+    configs.kD = kD;
+    configs.kS = kS;
+    configs.kV = kV;
+    configs.kA = kA;
+    configs.kG = kG;
+
+    // A timeout of 0 doesn't wait for the configs to be acknowledged, since this is called from the
+    // loop when constants are reloaded
+    leadMotorHealth.applyIfHealthy(() -> leadMotor.getConfigurator().apply(configs, 0.0));
+    followerMotorHealth.applyIfHealthy(() -> followerMotor.getConfigurator().apply(configs, 0.0));
+  }
+
+  @Override
+  public void setFeedforwardTable(InterpolationTable feedforwardTable) {
+    this.feedforwardTable = feedforwardTable;
   }
 
   @Override
   public void setBrakeMode(boolean brakeMode) {
-    leadMotor.setNeutralMode(brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast);
-    followerMotor.setNeutralMode(brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast);
+    NeutralModeValue neutralMode = brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+    talonFXConfigs.MotorOutput.withNeutralMode(neutralMode);
+    leadMotorHealth.applyIfHealthy(() -> leadMotor.setNeutralMode(neutralMode));
+    followerMotorHealth.applyIfHealthy(() -> followerMotor.setNeutralMode(neutralMode));
   }
 
   @Override
   public void setStatorCurrentLimit(Current currentLimit) {
     talonFXConfigs.CurrentLimits.withStatorCurrentLimit(currentLimit);
 
-    // Only apply current limit configs to avoid overwriting PID and FF values from tuning
-    leadMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits);
-    followerMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits);
+    // Only apply current limit configs to avoid overwriting PID and FF values from tuning. A timeout
+    // of 0 doesn't wait for them to be acknowledged, since this is also called from the loop.
+    leadMotorHealth.applyIfHealthy(
+        () -> leadMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits, 0.0));
+    followerMotorHealth.applyIfHealthy(
+        () -> followerMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits, 0.0));
+  }
+
+  @Override
+  public void setSupplyCurrentLimit(Current currentLimit) {
+    double currentLimitAmps = currentLimit.in(Amps);
+    if (Math.abs(currentLimitAmps - talonFXConfigs.CurrentLimits.SupplyCurrentLimit)
+        < SUPPLY_CURRENT_LIMIT_DEADBAND_AMPS) {
+      return;
+    }
+    talonFXConfigs.CurrentLimits.SupplyCurrentLimit = currentLimitAmps;
+
+    // A timeout of 0 sends the limit without waiting for it to be acknowledged
+    leadMotorHealth.applyIfHealthy(
+        () -> leadMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits, 0.0));
+    followerMotorHealth.applyIfHealthy(
+        () -> followerMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits, 0.0));
+  }
+
+  @Override
+  public void setElevatorEncoderMagnetSensor(
+      Angle magnetOffset, double discontinuityPoint, SensorDirectionValue direction) {
+    cancoderConfigs.MagnetSensor.MagnetOffset = magnetOffset.in(Rotations);
+    cancoderConfigs.MagnetSensor.AbsoluteSensorDiscontinuityPoint = discontinuityPoint;
+    cancoderConfigs.MagnetSensor.SensorDirection = direction;
+
+    // Only apply the magnet sensor configs, without waiting for them to be acknowledged
+    elevatorEncoderHealth.applyIfHealthy(
+        () -> elevatorEncoder.getConfigurator().apply(cancoderConfigs.MagnetSensor, 0.0));
   }
 
   @Override
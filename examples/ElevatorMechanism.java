@@ -1,7 +1,9 @@
 package frc.robot.subsystems.scoring;
 
-import static edu.wpi.first.units.Units.RadiansPerSecond;
+import static edu.wpi.first.units.Units.Amps;
+import static edu.wpi.first.units.Units.Celsius;
 import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.RotationsPerSecondPerSecond;
 import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.Meters;
 import static edu.wpi.first.units.Units.Rotations;
@@ -9,13 +11,31 @@ import static edu.wpi.first.units.Units.Volts;
 import static edu.wpi.first.units.Units.VoltsPerRadianPerSecond;
 import static edu.wpi.first.units.Units.VoltsPerRadianPerSecondSquared;
 
-import coppercore.parameter_tools.LoggedTunableNumber;
 import coppercore.wpilib_interface.UnitUtils;
 import edu.wpi.first.units.measure.Distance;
 import edu.wpi.first.units.measure.MutDistance;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.units.measure.LinearVelocity;
+import edu.wpi.first.units.measure.MutCurrent;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.lib.robotvibecoder.ConstantsHotReload;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
+import frc.robot.lib.robotvibecoder.MechanismLoopTiming;
+import frc.robot.lib.robotvibecoder.MotorThermalModel;
+import frc.robot.lib.robotvibecoder.MoveMetrics;
+import frc.robot.lib.robotvibecoder.PresetProfileCache;
+import frc.robot.lib.robotvibecoder.SupplyCurrentBudget;
 import frc.robot.subsystems.scoring.ElevatorIO.ElevatorOutputMode;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.littletonrobotics.junction.Logger;
 
 /**
@@ -24,67 +44,296 @@ import org.littletonrobotics.junction.Logger;
  * <ul>
  *   <li>Uses closed-loop TorqueCurrentFOC control
  */
-public class ElevatorMechanism {
+public class ElevatorMechanism implements SupplyCurrentBudget.BudgetedMechanism {
   ElevatorIO io;
   ElevatorInputsAutoLogged inputs = new ElevatorInputsAutoLogged();
   ElevatorOutputsAutoLogged outputs = new ElevatorOutputsAutoLogged();
 
+  MechanismLoopTiming loopTiming;
+  MoveMetrics moveMetrics;
+
+  // Log keys are built once so that logging doesn't concatenate strings every loop
+  private final String inputsKey;
+  private final String outputsKey;
+  private final String clampedGoalHeightKey;
+  private final String minHeightKey;
+  private final String maxHeightKey;
+  private final String goalHeightKey;
+  private final String thermalDerateKey;
+  private final String estimatedMotorTemperatureKey;
+  private final String followingPresetProfileKey;
+  private final String goalPresetKey;
+
   MutDistance goalHeight = Meters.mutable(0.0);
   MutDistance clampedGoalHeight = Meters.mutable(0.0);
+  private final MutAngle elevatorEncoderGoalAngle = Rotations.mutable(0.0);
+
+  private static final int MOTOR_COUNT = 2;
+
+  /** The supply current limit of each motor, reused so setting the budget doesn't allocate */
+  MutCurrent supplyCurrentLimit = Amps.mutable(0.0);
+
+  /** The thermal derate is applied in steps of 1 / THERMAL_DERATE_STEPS */
+  private static final int THERMAL_DERATE_STEPS = 20;
+  MotorThermalModel leadMotorThermalModel;
+  MotorThermalModel followerMotorThermalModel;
+
+  /** The fraction of full output the current limit and profile are derated to for temperature */
+  double appliedThermalDerate = 1.0;
+
+  MutCurrent deratedStatorCurrentLimit = Amps.mutable(0.0);
 
   MutDistance minHeight = ElevatorConstants.synced.getObject().elevatorMinMinHeight.mutableCopy();
   MutDistance maxHeight = ElevatorConstants.synced.getObject().elevatorMaxMaxHeight.mutableCopy();
 
-  LoggedTunableNumber elevatorkP;
-  LoggedTunableNumber elevatorkI;
-  LoggedTunableNumber elevatorkD;
+  // Whether a caller narrowed each limit inside the range of motion, so that reloads keep it
+  boolean minHeightNarrowed = false;
+  boolean maxHeightNarrowed = false;
+
+  /*
+   * Tunables are grouped by the config they update. NetworkTables listeners mark a group as pending
+   * when one of its values changes, and testPeriodic applies each pending group once.
+   */
+  private static final int PID_TUNABLES = 1 << 0;
+  private static final int FF_TUNABLES = 1 << 1;
+  private static final int PROFILE_TUNABLES = 1 << 2;
+  private static final int SETPOINT_TUNABLES = 1 << 3;
+  private static final int OVERRIDE_VOLTS_TUNABLES = 1 << 4;
+
+  /** Every group applied while closed-loop tuning */
+  private static final int CLOSED_LOOP_TUNABLES =
+      PID_TUNABLES | FF_TUNABLES | PROFILE_TUNABLES | SETPOINT_TUNABLES;
+
+  /**
+   * Whether tunables are published to NetworkTables. While this is false, no tunable entries or
+   * listeners are created, so competition builds pay nothing for them.
+   */
+  private static final boolean TUNING_MODE = false; // TODO: Replace placeholder with tuning mode
 
-  LoggedTunableNumber elevatorkS;
-  LoggedTunableNumber elevatorkV;
-  LoggedTunableNumber elevatorkA;
-  LoggedTunableNumber elevatorkG;
+  private final NetworkTable tunablesTable =
+      NetworkTableInstance.getDefault().getTable("ElevatorTunables");
 
-  LoggedTunableNumber elevatorCruiseVelocity;
-  LoggedTunableNumber elevatorExpokV;
-  LoggedTunableNumber elevatorExpokA;
+  /** Bitmask of tunable groups changed since the last time they were applied */
+  private final AtomicInteger pendingTunableGroups = new AtomicInteger(0);
 
-  LoggedTunableNumber elevatorTuningSetpointRotations;
-  LoggedTunableNumber elevatorTuningOverrideVolts;
+  DoubleEntry elevatorkP;
+  DoubleEntry elevatorkI;
+  DoubleEntry elevatorkD;
+
+  DoubleEntry elevatorkS;
+  DoubleEntry elevatorkV;
+  DoubleEntry elevatorkA;
+  DoubleEntry elevatorkG;
+
+  DoubleEntry elevatorCruiseVelocity;
+  DoubleEntry elevatorAcceleration;
+  DoubleEntry elevatorExpokV;
+  DoubleEntry elevatorExpokA;
+
+  DoubleEntry elevatorTuningSetpointRotations;
+  DoubleEntry elevatorTuningOverrideVolts;
+
+  /*
+   * Config groups that can change when ElevatorConstants.json is reloaded. The reload runs on the
+   * ConstantsHotReload thread and only marks the groups whose constants changed as pending, and
+   * periodic applies each pending group once.
+   */
+  private static final int SLOT0_CONSTANTS = 1 << 0;
+  private static final int MOTION_MAGIC_CONSTANTS = 1 << 1;
+  private static final int CURRENT_LIMIT_CONSTANTS = 1 << 2;
+  private static final int MAGNET_SENSOR_CONSTANTS = 1 << 3;
+  private static final int RANGE_OF_MOTION_CONSTANTS = 1 << 4;
+  private static final int CLOSED_LOOP_REQUEST_CONSTANTS = 1 << 5;
+  private static final int PRESET_CONSTANTS = 1 << 6;
+  private static final int SLOT1_CONSTANTS = 1 << 7;
+  private static final int FEEDFORWARD_TABLE_CONSTANTS = 1 << 8;
+  private static final int THERMAL_MODEL_CONSTANTS = 1 << 9;
+
+  /** Bitmask of config groups changed by reloading constants since they were last applied */
+  private final AtomicInteger pendingReloadedConstants = new AtomicInteger(0);
+
+  /**
+   * The feedforward table rebuilt from reloaded constants on the ConstantsHotReload thread, which is
+   * sent to the IO when FEEDFORWARD_TABLE_CONSTANTS is applied
+   */
+  private volatile InterpolationTable reloadedFeedforwardTable;
+
+  /** Profiles between every pair of presets, see setGoalPreset */
+  PresetProfileCache presetProfiles;
+
+  /**
+   * Profiles recomputed from reloaded constants on the ConstantsHotReload thread, which replace
+   * presetProfiles when PRESET_CONSTANTS is applied
+   */
+  private volatile PresetProfileCache reloadedPresetProfiles;
+
+  /** The preset the goal was last set to with setGoalPreset, or -1 if it was set some other way */
+  int goalPreset = -1;
+
+  /** The presets the profile being followed goes between, or -1 while no profile is followed */
+  int presetProfileFrom = -1;
+
+  int presetProfileTo = -1;
+  double presetProfileStartSeconds = 0.0;
+
+  /** How far the goal may be from a preset's position for that preset's profile to be followed */
+  private static final double PRESET_GOAL_TOLERANCE_ROTATIONS = 1e-6;
+
+  /**
+   * Number of loops run by warmUp(). This is enough for the JIT to compile the per-loop paths with
+   * C1 and the hottest of them with C2.
+   */
+  private static final int WARM_UP_ITERATIONS = 10_000;
 
   public ElevatorMechanism(ElevatorIO io) {
+    this(io, "Elevator");
+
+    if (TUNING_MODE) {
+      publishTunables();
+    }
+    ConstantsHotReload.register("ElevatorConstants.json", this::reloadConstants);
+  }
+
+  /**
+   * Create an ElevatorMechanism that logs under a different prefix and doesn't publish tunables
+   *
+   * @param io The IO to control
+   * @param logPrefix The prefix to log under, e.g. "Elevator"
+   */
+  private ElevatorMechanism(ElevatorIO io, String logPrefix) {
+    this.io = io;
+
+    loopTiming =
+        new MechanismLoopTiming(
+            "Elevator",
+            logPrefix + "/LoopTiming",
+            ElevatorConstants.synced.getObject().elevatorLoopPhaseBudgetMicros);
+    moveMetrics = new MoveMetrics(logPrefix + "/MoveMetrics");
+
+    inputsKey = logPrefix + "/inputs";
+    outputsKey = logPrefix + "/outputs";
+    clampedGoalHeightKey = logPrefix + "/clampedGoalHeight";
+    minHeightKey = logPrefix + "/minHeight";
+    maxHeightKey = logPrefix + "/maxHeight";
+    goalHeightKey = logPrefix + "/goalHeight";
+    thermalDerateKey = logPrefix + "/thermalDerate";
+    estimatedMotorTemperatureKey = logPrefix + "/estimatedMotorTemperatureCelsius";
+    followingPresetProfileKey = logPrefix + "/followingPresetProfile";
+    goalPresetKey = logPrefix + "/goalPreset";
+
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+    presetProfiles = computePresetProfiles(constants);
+    leadMotorThermalModel =
+        new MotorThermalModel(
+            constants.elevatorMotorHeatingCoefficient,
+            constants.elevatorMotorCoolingCoefficient,
+            constants.elevatorAmbientTemperatureCelsius);
+    followerMotorThermalModel =
+        new MotorThermalModel(
+            constants.elevatorMotorHeatingCoefficient,
+            constants.elevatorMotorCoolingCoefficient,
+            constants.elevatorAmbientTemperatureCelsius);
+  }
+
+  /** Publish every tunable to NetworkTables, see addTunable */
+  private void publishTunables() {
     elevatorkP =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkP", ElevatorConstants.synced.getObject().elevatorKP);
+        addTunable("elevatorkP", ElevatorConstants.synced.getObject().elevatorKP, PID_TUNABLES);
     elevatorkI =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkI", ElevatorConstants.synced.getObject().elevatorKI);
+        addTunable("elevatorkI", ElevatorConstants.synced.getObject().elevatorKI, PID_TUNABLES);
     elevatorkD =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkD", ElevatorConstants.synced.getObject().elevatorKD);
+        addTunable("elevatorkD", ElevatorConstants.synced.getObject().elevatorKD, PID_TUNABLES);
 
     elevatorkS =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkS", ElevatorConstants.synced.getObject().elevatorKS);
+        addTunable("elevatorkS", ElevatorConstants.synced.getObject().elevatorKS, FF_TUNABLES);
     elevatorkV =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkV", ElevatorConstants.synced.getObject().elevatorKV);
+        addTunable("elevatorkV", ElevatorConstants.synced.getObject().elevatorKV, FF_TUNABLES);
     elevatorkA =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkA", ElevatorConstants.synced.getObject().elevatorKA);
+        addTunable("elevatorkA", ElevatorConstants.synced.getObject().elevatorKA, FF_TUNABLES);
     elevatorkG =
-        new LoggedTunableNumber("ElevatorTunables/elevatorkG", ElevatorConstants.synced.getObject().elevatorKG);
+        addTunable("elevatorkG", ElevatorConstants.synced.getObject().elevatorKG, FF_TUNABLES);
 
     elevatorCruiseVelocity =
-        new LoggedTunableNumber(
-            "ElevatorTunables/elevatorCruiseVelocity",
-            ElevatorConstants.synced.getObject().elevatorAngularCruiseVelocityRotationsPerSecond);
+        addTunable(
+            "elevatorCruiseVelocity",
+            ElevatorConstants.synced.getObject().elevatorAngularCruiseVelocityRotationsPerSecond,
+            PROFILE_TUNABLES);
+    elevatorAcceleration =
+        addTunable(
+            "elevatorAcceleration",
+            ElevatorConstants.synced.getObject().elevatorAngularAccelerationRotationsPerSecondSquared,
+            PROFILE_TUNABLES);
     elevatorExpokV =
-        new LoggedTunableNumber(
-            "ElevatorTunables/elevatorExpokV", ElevatorConstants.synced.getObject().elevatorMotionMagicExpo_kV);
+        addTunable(
+            "elevatorExpokV", ElevatorConstants.synced.getObject().elevatorMotionMagicExpo_kV, PROFILE_TUNABLES);
     elevatorExpokA =
-        new LoggedTunableNumber(
-            "ElevatorTunables/elevatorExpokA", ElevatorConstants.synced.getObject().elevatorMotionMagicExpo_kA);
+        addTunable(
+            "elevatorExpokA", ElevatorConstants.synced.getObject().elevatorMotionMagicExpo_kA, PROFILE_TUNABLES);
 
     elevatorTuningSetpointRotations =
-        new LoggedTunableNumber("ElevatorTunables/elevatorTuningSetpointRotations", 0.0);
+        addTunable("elevatorTuningSetpointRotations", 0.0, SETPOINT_TUNABLES);
     elevatorTuningOverrideVolts =
-        new LoggedTunableNumber("ElevatorTunables/elevatorTuningOverrideVolts", 0.0);
+        addTunable("elevatorTuningOverrideVolts", 0.0, OVERRIDE_VOLTS_TUNABLES);
+  }
 
-    this.io = io;
+  /**
+   * Run the per-loop paths of a ElevatorMechanism many times against an IO that never touches
+   * hardware, so that the classes they use are loaded and the JIT compiles them before the first
+   * enable instead of during it.
+   *
+   * <p>This should be called once from robotInit, after Logger.start() so that logging paths are
+   * warmed up too. It doesn't affect any real mechanism. Everything it logs goes under
+   * WarmUp/Elevator.
+   */
+  public static void warmUp() {
+    ElevatorMechanism mechanism = new ElevatorMechanism(new WarmUpIO(), "WarmUp/Elevator");
+    // The first loops are expected to be slow, that's what this is for
+    mechanism.loopTiming.setWarningsEnabled(false);
+
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+    Distance minGoal = constants.elevatorMinMinHeight;
+    Distance maxGoal = constants.elevatorMaxMaxHeight;
+    // Goals inside and outside the range of motion, so that clamping takes every branch
+    Distance[] goals = {minGoal, maxGoal, minGoal.minus(maxGoal), maxGoal.times(2.0)};
+    ElevatorOutputMode[] outputModes = ElevatorOutputMode.values();
+
+    for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+      mechanism.setGoalHeight(goals[i % goals.length]);
+      if (i % 100 == 0) {
+        mechanism.setAllowedRangeOfMotion(minGoal, maxGoal);
+      }
+      mechanism.getIO().setOutputMode(outputModes[i % outputModes.length]);
+
+      mechanism.periodic();
+
+      mechanism.getElevatorHeight();
+      mechanism.getElevatorVelocity();
+      mechanism.getGoalHeight();
+    }
+  }
+
+  /**
+   * Publish a tunable number to NetworkTables and subscribe to changes made to it from a dashboard.
+   *
+   * <p>The listener runs on the NetworkTables listener thread and only marks its group as pending,
+   * so the main loop does no per-tunable work while nothing is being tuned.
+   *
+   * @param key The key of the tunable in the ElevatorTunables table
+   * @param defaultValue The value to publish initially
+   * @param group The tunable group to mark as pending when this value changes
+   * @return The entry to read the latest value of the tunable from
+   */
+  private DoubleEntry addTunable(String key, double defaultValue, int group) {
+    DoubleEntry entry = tunablesTable.getDoubleTopic(key).getEntry(defaultValue);
+    entry.set(defaultValue);
+
+    NetworkTableInstance.getDefault()
+        .addListener(
+            entry,
+            EnumSet.of(NetworkTableEvent.Kind.kValueRemote),
+            (event) -> pendingTunableGroups.getAndUpdate((groups) -> groups | group));
+
+    return entry;
   }
 
   /**
@@ -93,13 +342,321 @@ public class ElevatorMechanism {
    * <p>Does NOT run automatically! Must be called by the subsystem
    */
   public void periodic() {
+    loopTiming.start();
+
+    applyReloadedConstants();
     sendGoalHeightToIO();
+    loopTiming.lap(MechanismLoopTiming.SEND_GOAL);
 
     io.updateInputs(inputs);
+    loopTiming.lap(MechanismLoopTiming.UPDATE_INPUTS);
     io.applyOutputs(outputs);
+    loopTiming.lap(MechanismLoopTiming.APPLY_OUTPUTS);
+
+    Logger.processInputs(inputsKey, inputs);
+    Logger.processInputs(outputsKey, outputs);
+    loopTiming.lap(MechanismLoopTiming.PROCESS_INPUTS);
+
+    // Runs after processInputs so that replay uses the logged currents and temperatures
+    updateThermalDerate();
+    loopTiming.lap(MechanismLoopTiming.THERMAL);
+    updateMoveMetrics();
+    loopTiming.lap(MechanismLoopTiming.MOVE_METRICS);
+
+    loopTiming.reportIfDue();
+  }
+
+  /**
+   * Predict how hot each motor will get if it keeps drawing its current stator current, and derate
+   * the stator current limit and profile constraints gradually as that prediction approaches the
+   * limit, instead of letting the motor cut its output suddenly once it's too hot.
+   */
+  private void updateThermalDerate() {
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+
+    double derate = 1.0;
+    double estimatedCelsius = Double.NEGATIVE_INFINITY;
+
+    double leadMotorStatorCurrentAmps = inputs.leadMotorStatorCurrent.in(Amps);
+    leadMotorThermalModel.update(
+        leadMotorStatorCurrentAmps, inputs.leadMotorTemperature.in(Celsius));
+    estimatedCelsius = Math.max(estimatedCelsius, leadMotorThermalModel.getEstimatedCelsius());
+    derate =
+        Math.min(
+            derate,
+            leadMotorThermalModel.getDerateFactor(
+                constants.elevatorThermalPredictionHorizonSeconds,
+                leadMotorStatorCurrentAmps,
+                constants.elevatorThermalDerateStartCelsius,
+                constants.elevatorThermalDerateEndCelsius,
+                constants.elevatorMinThermalDerate));
+
+    double followerMotorStatorCurrentAmps = inputs.followerMotorStatorCurrent.in(Amps);
+    followerMotorThermalModel.update(
+        followerMotorStatorCurrentAmps, inputs.followerMotorTemperature.in(Celsius));
+    estimatedCelsius = Math.max(estimatedCelsius, followerMotorThermalModel.getEstimatedCelsius());
+    derate =
+        Math.min(
+            derate,
+            followerMotorThermalModel.getDerateFactor(
+                constants.elevatorThermalPredictionHorizonSeconds,
+                followerMotorStatorCurrentAmps,
+                constants.elevatorThermalDerateStartCelsius,
+                constants.elevatorThermalDerateEndCelsius,
+                constants.elevatorMinThermalDerate));
+
+    Logger.recordOutput(estimatedMotorTemperatureKey, estimatedCelsius);
+
+    // Round up to a step so that configs are only sent when the derate changes meaningfully
+    derate = Math.ceil(derate * THERMAL_DERATE_STEPS - 1e-9) / THERMAL_DERATE_STEPS;
+    Logger.recordOutput(thermalDerateKey, derate);
+    if (derate == appliedThermalDerate) {
+      return;
+    }
+    appliedThermalDerate = derate;
+
+    deratedStatorCurrentLimit.mut_replace(
+        constants.elevatorStatorCurrentLimit.in(Amps) * derate, Amps);
+    io.setStatorCurrentLimit(deratedStatorCurrentLimit);
+
+    // Lowering the cruise velocity and acceleration and raising Expo kV and kA all slow the profile
+    io.setMaxProfile(
+        RotationsPerSecond.of(
+            constants.elevatorAngularCruiseVelocityRotationsPerSecond * derate),
+        RotationsPerSecondPerSecond.of(
+            constants.elevatorAngularAccelerationRotationsPerSecondSquared * derate),
+        Volts.per(RotationsPerSecondPerSecond)
+            .of(constants.elevatorMotionMagicExpo_kA / derate),
+        Volts.per(RotationsPerSecond).of(constants.elevatorMotionMagicExpo_kV / derate));
+  }
+
+  /** Measure the move in progress from this loop's inputs, see MoveMetrics */
+  private void updateMoveMetrics() {
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+
+    moveMetrics.update(
+        inputs.elevatorEncoderGoalPos.in(Rotations),
+        inputs.elevatorEncoderPos.in(Rotations),
+        inputs.motionMagicError,
+        Math.abs(inputs.leadMotorStatorCurrent.in(Amps))
+            + Math.abs(inputs.followerMotorStatorCurrent.in(Amps)),
+        constants.elevatorMoveSettleToleranceRotations,
+        constants.elevatorMoveSettleTimeSeconds,
+        constants.elevatorMoveTimeoutSeconds);
+  }
+
+  /**
+   * Reload ElevatorConstants.json and mark every config group whose constants changed as pending.
+   * This runs on the ConstantsHotReload thread, so it doesn't touch the IO or the mechanism's state.
+   */
+  private void reloadConstants() {
+    ElevatorConstants before = ElevatorConstants.synced.getObject();
+    ElevatorConstants.synced.loadData();
+    ElevatorConstants after = ElevatorConstants.synced.getObject();
+
+    int changedGroups = 0;
+    if (!Objects.equals(before.elevatorKP, after.elevatorKP)
+        || !Objects.equals(before.elevatorKI, after.elevatorKI)
+        || !Objects.equals(before.elevatorKD, after.elevatorKD)
+        || !Objects.equals(before.elevatorKS, after.elevatorKS)
+        || !Objects.equals(before.elevatorKV, after.elevatorKV)
+        || !Objects.equals(before.elevatorKA, after.elevatorKA)
+        || !Objects.equals(before.elevatorKG, after.elevatorKG)) {
+      changedGroups |= SLOT0_CONSTANTS;
+    }
+    if (!Objects.equals(before.elevatorVoltageKP, after.elevatorVoltageKP)
+        || !Objects.equals(before.elevatorVoltageKI, after.elevatorVoltageKI)
+        || !Objects.equals(before.elevatorVoltageKD, after.elevatorVoltageKD)
+        || !Objects.equals(before.elevatorVoltageKS, after.elevatorVoltageKS)
+        || !Objects.equals(before.elevatorVoltageKV, after.elevatorVoltageKV)
+        || !Objects.equals(before.elevatorVoltageKA, after.elevatorVoltageKA)
+        || !Objects.equals(before.elevatorVoltageKG, after.elevatorVoltageKG)) {
+      changedGroups |= SLOT1_CONSTANTS;
+    }
+    if (!Objects.equals(
+            before.elevatorAngularCruiseVelocityRotationsPerSecond,
+            after.elevatorAngularCruiseVelocityRotationsPerSecond)
+        || !Objects.equals(
+            before.elevatorAngularAccelerationRotationsPerSecondSquared,
+            after.elevatorAngularAccelerationRotationsPerSecondSquared)
+        || !Objects.equals(before.elevatorMotionMagicExpo_kV, after.elevatorMotionMagicExpo_kV)
+        || !Objects.equals(before.elevatorMotionMagicExpo_kA, after.elevatorMotionMagicExpo_kA)) {
+      changedGroups |= MOTION_MAGIC_CONSTANTS;
+    }
+    if (!Objects.equals(before.elevatorStatorCurrentLimit, after.elevatorStatorCurrentLimit)) {
+      changedGroups |= CURRENT_LIMIT_CONSTANTS;
+    }
+    if (!Objects.equals(before.elevatorEncoderMagnetOffset, after.elevatorEncoderMagnetOffset)
+        || !Objects.equals(before.elevatorEncoderDiscontinuityPoint, after.elevatorEncoderDiscontinuityPoint)
+        || !Objects.equals(before.elevatorEncoderDirection, after.elevatorEncoderDirection)) {
+      changedGroups |= MAGNET_SENSOR_CONSTANTS;
+    }
+    if (!Objects.equals(before.elevatorMinMinHeight, after.elevatorMinMinHeight)
+        || !Objects.equals(before.elevatorMaxMaxHeight, after.elevatorMaxMaxHeight)) {
+      changedGroups |= RANGE_OF_MOTION_CONSTANTS;
+    }
+    if (before.elevatorClosedLoopRequest != after.elevatorClosedLoopRequest) {
+      changedGroups |= CLOSED_LOOP_REQUEST_CONSTANTS;
+    }
+    if (!Arrays.equals(
+            before.elevatorFeedforwardTablePositionsRotations,
+            after.elevatorFeedforwardTablePositionsRotations)
+        || !Arrays.equals(
+            before.elevatorFeedforwardTableAmps, after.elevatorFeedforwardTableAmps)) {
+      reloadedFeedforwardTable =
+          new InterpolationTable(
+              after.elevatorFeedforwardTablePositionsRotations,
+              after.elevatorFeedforwardTableAmps);
+      changedGroups |= FEEDFORWARD_TABLE_CONSTANTS;
+    }
+    if (!Objects.equals(
+            before.elevatorMotorHeatingCoefficient, after.elevatorMotorHeatingCoefficient)
+        || !Objects.equals(
+            before.elevatorMotorCoolingCoefficient, after.elevatorMotorCoolingCoefficient)
+        || !Objects.equals(
+            before.elevatorAmbientTemperatureCelsius,
+            after.elevatorAmbientTemperatureCelsius)) {
+      changedGroups |= THERMAL_MODEL_CONSTANTS;
+    }
+    if (!Objects.equals(
+        before.elevatorLoopPhaseBudgetMicros, after.elevatorLoopPhaseBudgetMicros)) {
+      // Only read when timing is reported, so it's replaced right away instead of from the loop
+      loopTiming.setBudgetMicros(after.elevatorLoopPhaseBudgetMicros);
+    }
+    if (presetProfileConstantsChanged(before, after)) {
+      // Profiles take a while to compute, so they're computed here instead of in the loop
+      reloadedPresetProfiles = computePresetProfiles(after);
+      changedGroups |= PRESET_CONSTANTS;
+    }
+
+    int reloadedGroups = changedGroups;
+    pendingReloadedConstants.getAndUpdate((groups) -> groups | reloadedGroups);
+  }
 
-    Logger.processInputs("Elevator/inputs", inputs);
-    Logger.processInputs("Elevator/outputs", outputs);
+  /**
+   * Push every config group changed by reloading constants to the IO. Nothing here waits for the
+   * devices to acknowledge the new configs.
+   */
+  private void applyReloadedConstants() {
+    // A plain read first, so that loops where nothing was reloaded don't write to the atomic
+    if (pendingReloadedConstants.get() == 0) {
+      return;
+    }
+    int reloadedGroups = pendingReloadedConstants.getAndSet(0);
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+
+    if ((reloadedGroups & SLOT0_CONSTANTS) != 0) {
+      io.setPID(constants.elevatorKP, constants.elevatorKI, constants.elevatorKD);
+      io.setFF(constants.elevatorKS, constants.elevatorKV, constants.elevatorKA, constants.elevatorKG);
+    }
+
+    if ((reloadedGroups & SLOT1_CONSTANTS) != 0) {
+      io.setVoltageGains(
+          constants.elevatorVoltageKP,
+          constants.elevatorVoltageKI,
+          constants.elevatorVoltageKD,
+          constants.elevatorVoltageKS,
+          constants.elevatorVoltageKV,
+          constants.elevatorVoltageKA,
+          constants.elevatorVoltageKG);
+    }
+
+    if ((reloadedGroups & (MOTION_MAGIC_CONSTANTS | CURRENT_LIMIT_CONSTANTS)) != 0) {
+      // The thermal derate scales both of these, so let it reapply them from the new constants
+      appliedThermalDerate = Double.NaN;
+    }
+
+    if ((reloadedGroups & MAGNET_SENSOR_CONSTANTS) != 0) {
+      io.setElevatorEncoderMagnetSensor(
+          constants.elevatorEncoderMagnetOffset,
+          constants.elevatorEncoderDiscontinuityPoint,
+          constants.elevatorEncoderDirection);
+    }
+
+    if ((reloadedGroups & RANGE_OF_MOTION_CONSTANTS) != 0) {
+      // Limits a caller narrowed are clamped to the new range, and the rest follow it. Either way,
+      // this happens before the goal is clamped to them.
+      setAllowedRangeOfMotion(
+          minHeightNarrowed ? minHeight : constants.elevatorMinMinHeight,
+          maxHeightNarrowed ? maxHeight : constants.elevatorMaxMaxHeight);
+    }
+
+    if ((reloadedGroups & CLOSED_LOOP_REQUEST_CONSTANTS) != 0) {
+      io.setClosedLoopRequest(constants.elevatorClosedLoopRequest);
+    }
+
+    if ((reloadedGroups & FEEDFORWARD_TABLE_CONSTANTS) != 0) {
+      io.setFeedforwardTable(reloadedFeedforwardTable);
+    }
+
+    if ((reloadedGroups & THERMAL_MODEL_CONSTANTS) != 0) {
+      leadMotorThermalModel.setCoefficients(
+          constants.elevatorMotorHeatingCoefficient,
+          constants.elevatorMotorCoolingCoefficient,
+          constants.elevatorAmbientTemperatureCelsius);
+      followerMotorThermalModel.setCoefficients(
+          constants.elevatorMotorHeatingCoefficient,
+          constants.elevatorMotorCoolingCoefficient,
+          constants.elevatorAmbientTemperatureCelsius);
+    }
+
+    if ((reloadedGroups & PRESET_CONSTANTS) != 0) {
+      // Indices into the old profiles don't mean anything in the new ones
+      stopPresetProfile();
+      goalPreset = -1;
+      presetProfiles = reloadedPresetProfiles;
+    }
+  }
+
+  /** Check whether any constant that preset profiles are computed from has changed */
+  private static boolean presetProfileConstantsChanged(ElevatorConstants before, ElevatorConstants after) {
+    return !Arrays.equals(before.elevatorPresetNames, after.elevatorPresetNames)
+        || !Arrays.equals(
+            before.elevatorPresetPositionsRotations, after.elevatorPresetPositionsRotations)
+        || !Objects.equals(
+            before.elevatorPresetProfileCurrentFraction, after.elevatorPresetProfileCurrentFraction)
+        || !Objects.equals(before.elevatorPresetProfileMaxVolts, after.elevatorPresetProfileMaxVolts)
+        || !Objects.equals(before.elevatorStatorCurrentLimit, after.elevatorStatorCurrentLimit)
+        || !Objects.equals(before.elevatorKS, after.elevatorKS)
+        || !Objects.equals(before.elevatorKV, after.elevatorKV)
+        || !Objects.equals(before.elevatorKA, after.elevatorKA)
+        || !Objects.equals(before.elevatorKG, after.elevatorKG)
+        || !Objects.equals(before.elevatorVoltageKS, after.elevatorVoltageKS)
+        || !Objects.equals(before.elevatorVoltageKV, after.elevatorVoltageKV)
+        || !Objects.equals(before.elevatorVoltageKA, after.elevatorVoltageKA)
+        || !Objects.equals(before.elevatorVoltageKG, after.elevatorVoltageKG);
+  }
+
+  /**
+   * Compute the profiles between every pair of the elevator's presets from its
+   * constants, see PresetProfileCache
+   */
+  private static PresetProfileCache computePresetProfiles(ElevatorConstants constants) {
+    if (constants.elevatorPresetNames.length != constants.elevatorPresetPositionsRotations.length) {
+      throw new IllegalArgumentException(
+          "Elevator has "
+              + constants.elevatorPresetNames.length
+              + " preset names but "
+              + constants.elevatorPresetPositionsRotations.length
+              + " preset positions, they must match");
+    }
+
+    return new PresetProfileCache(
+        constants.elevatorPresetPositionsRotations,
+        new PresetProfileCache.Limits(
+            constants.elevatorStatorCurrentLimit.in(Amps)
+                * constants.elevatorPresetProfileCurrentFraction,
+            constants.elevatorKS,
+            constants.elevatorKV,
+            constants.elevatorKA,
+            constants.elevatorKG,
+            constants.elevatorPresetProfileMaxVolts,
+            constants.elevatorVoltageKS,
+            constants.elevatorVoltageKV,
+            constants.elevatorVoltageKA,
+            constants.elevatorVoltageKG,
+            false,
+            1.0));
   }
 
   public void setBrakeMode(boolean brake) {
@@ -108,53 +665,50 @@ public class ElevatorMechanism {
 
   /** This method must be called from the subsystem's test periodic! */
   public void testPeriodic() {
+    if (!TUNING_MODE) {
+      // No tunables were published
+      return;
+    }
+
     if (false) { // TODO: Replace placeholder test if ElevatorTuning mode is active
+      int pendingGroups;
+
       // switch (TestModeManager.getTestMode()) {
       // case ElevatorClosedLoopTuning:
+        // Only claim the groups this mode applies, so the others stay pending for their own mode
+        pendingGroups = claimTunableGroups(CLOSED_LOOP_TUNABLES);
         io.setOutputMode(ElevatorOutputMode.ClosedLoop);
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (pid) -> {
-              io.setPID(pid[0], pid[1], pid[2]);
-            },
-            elevatorkP,
-            elevatorkI,
-            elevatorkD);
-
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (ff) -> {
-              io.setFF(ff[0], ff[1], ff[2], ff[3]);
-            },
-            elevatorkS,
-            elevatorkV,
-            elevatorkA,
-            elevatorkG);
-
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (maxProfile) -> {
-              io.setMaxProfile(
-                  RadiansPerSecond.of(0.0),
-                  VoltsPerRadianPerSecondSquared.ofNative(maxProfile[0]),
-                  VoltsPerRadianPerSecond.ofNative(maxProfile[1]));
-            },
-            elevatorExpokA,
-            elevatorExpokV);
-
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (setpoint) -> {
-              setGoalHeight(Meters.of(setpoint[0]));
-            },
-            elevatorTuningSetpointRotations);
+        if ((pendingGroups & PID_TUNABLES) != 0) {
+          io.setPID(
+              elevatorkP.get(),
+              elevatorkI.get(),
+              elevatorkD.get());
+        }
+
+        if ((pendingGroups & FF_TUNABLES) != 0) {
+          io.setFF(
+              elevatorkS.get(),
+              elevatorkV.get(),
+              elevatorkA.get(),
+              elevatorkG.get());
+        }
+
+        if ((pendingGroups & PROFILE_TUNABLES) != 0) {
+          io.setMaxProfile(
+              RotationsPerSecond.of(elevatorCruiseVelocity.get()),
+              RotationsPerSecondPerSecond.of(elevatorAcceleration.get()),
+              VoltsPerRadianPerSecondSquared.ofNative(elevatorExpokA.get()),
+              VoltsPerRadianPerSecond.ofNative(elevatorExpokV.get()));
+        }
+
+        if ((pendingGroups & SETPOINT_TUNABLES) != 0) {
+          setGoalHeight(Meters.of(elevatorTuningSetpointRotations.get()));
+        }
       /*  case ElevatorVoltageTuning:
-          LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (setpoint) -> {
-              io.setOverrideVoltage(Volts.of(setpoint[0]));
-            },
-            elevatorTuningOverrideVolts);
+          pendingGroups = claimTunableGroups(OVERRIDE_VOLTS_TUNABLES);
+          if ((pendingGroups & OVERRIDE_VOLTS_TUNABLES) != 0) {
+            io.setOverrideVoltage(Volts.of(elevatorTuningOverrideVolts.get()));
+          }
           io.setOverrideMode(true);
           break;
         }
@@ -162,12 +716,25 @@ public class ElevatorMechanism {
     }
   }
 
+  /**
+   * Clear the given tunable groups' pending bits in a single atomic operation
+   *
+   * @param groups The tunable groups to claim
+   * @return Which of the given groups were pending
+   */
+  private int claimTunableGroups(int groups) {
+    return pendingTunableGroups.getAndAccumulate(groups, (pending, claimed) -> pending & ~claimed)
+        & groups;
+  }
+
   public void sendGoalHeightToIO() {
     updateClampedGoalHeight();
-    // Convert goal height to encoder rotations
-    Angle elevatorEncoderGoalAngle = elevatorHeightToElevatorEncoderAngle(clampedGoalHeight);
+    // Convert goal height to encoder rotations, in place so that sending the goal doesn't allocate
+    elevatorEncoderGoalAngle.mut_setMagnitude(
+        clampedGoalHeight.in(Meters) / ElevatorConstants.synced.getObject().elevatorHeightPerElevatorEncoderRotationMeters);
 
     io.setElevatorEncoderGoalPos(elevatorEncoderGoalAngle);
+    streamPresetProfile(elevatorEncoderGoalAngle.in(Rotations));
   }
 
   /**
@@ -180,7 +747,44 @@ public class ElevatorMechanism {
   private void updateClampedGoalHeight() {
     clampedGoalHeight.mut_replace(UnitUtils.clampMeasure(goalHeight, minHeight, maxHeight));
 
-    Logger.recordOutput("Elevator/clampedGoalHeight", clampedGoalHeight);
+    Logger.recordOutput(clampedGoalHeightKey, clampedGoalHeight);
+  }
+
+  /**
+   * Stream this loop's setpoint of the preset profile being followed, if any, to the IO.
+   *
+   * <p>The motor's own profile takes over again once the preset profile ends, if the goal no
+   * longer matches it (e.g. because it's clamped), or if the elevator is thermally
+   * derated, since profiles are computed for the full current limit.
+   *
+   * @param goalRotations The clamped goal sent to the IO this loop, in elevatorEncoder rotations
+   */
+  private void streamPresetProfile(double goalRotations) {
+    if (presetProfileTo != -1) {
+      double elapsedSeconds = Timer.getFPGATimestamp() - presetProfileStartSeconds;
+
+      if (elapsedSeconds > presetProfiles.getDurationSeconds(presetProfileFrom, presetProfileTo)
+          || Math.abs(goalRotations - presetProfiles.getPresetRotations(presetProfileTo))
+              > PRESET_GOAL_TOLERANCE_ROTATIONS
+          || appliedThermalDerate < 1.0) {
+        stopPresetProfile();
+      } else {
+        presetProfiles.sample(presetProfileFrom, presetProfileTo, elapsedSeconds);
+        io.setProfileSetpoint(
+            presetProfiles.getSampledPositionRotations(),
+            presetProfiles.getSampledVelocityRotationsPerSecond(),
+            presetProfiles.getSampledAccelerationRotationsPerSecondSquared());
+      }
+    }
+
+    Logger.recordOutput(followingPresetProfileKey, presetProfileTo != -1);
+  }
+
+  /** Stop following a preset profile, handing control back to the motor's own profile */
+  private void stopPresetProfile() {
+    presetProfileFrom = -1;
+    presetProfileTo = -1;
+    io.setProfileSetpoint(Double.NaN, 0.0, 0.0);
   }
 
   /**
@@ -193,7 +797,60 @@ public class ElevatorMechanism {
   public void setGoalHeight(Distance goalHeight) {
     this.goalHeight.mut_replace(goalHeight);
 
-    Logger.recordOutput("Elevator/goalHeight", goalHeight);
+    if (presetProfileTo != -1) {
+      stopPresetProfile();
+    }
+    goalPreset = -1;
+    Logger.recordOutput(goalPresetKey, "");
+
+    Logger.recordOutput(goalHeightKey, goalHeight);
+  }
+
+  /**
+   * Set the goal height to one of the presets in ElevatorConstants.
+   *
+   * <p>If the elevator is at another preset, it follows the precomputed time-optimal
+   * profile between the two instead of the motor's own profile, so the move runs at the
+   * elevator's actual limits. Otherwise, this is the same as setting the goal
+   * height to the preset's position.
+   *
+   * <p>Setting the preset the goal is already set to does nothing, so this can be called every loop
+   * without restarting the profile. The preset is logged by name, so the replay harness can replay
+   * it through this method.
+   *
+   * @param presetName The name of the preset, from elevatorPresetNames
+   */
+  public void setGoalPreset(String presetName) {
+    String[] presetNames = ElevatorConstants.synced.getObject().elevatorPresetNames;
+    int preset = -1;
+    for (int i = 0; i < presetNames.length && i < presetProfiles.getPresetCount(); i++) {
+      if (presetNames[i].equals(presetName)) {
+        preset = i;
+        break;
+      }
+    }
+    if (preset == -1) {
+      DriverStation.reportWarning("Elevator has no preset named " + presetName, false);
+      return;
+    }
+    if (preset == goalPreset) {
+      return;
+    }
+
+    double presetRotations = presetProfiles.getPresetRotations(preset);
+    setGoalHeight(elevatorEncoderAngleToElevatorHeight(Rotations.of(presetRotations)));
+    goalPreset = preset;
+    Logger.recordOutput(goalPresetKey, presetName);
+
+    int from =
+        presetProfiles.presetNear(
+            inputs.elevatorEncoderPos.in(Rotations),
+            ElevatorConstants.synced.getObject().elevatorMoveSettleToleranceRotations);
+    if (from != -1 && presetProfiles.hasProfile(from, preset) && appliedThermalDerate >= 1.0) {
+      presetProfileFrom = from;
+      presetProfileTo = preset;
+      presetProfileStartSeconds = Timer.getFPGATimestamp();
+    }
   }
   /**
    * Sets the minimum and maximum allowed heights that the elevator may target.
@@ -228,8 +885,10 @@ public class ElevatorMechanism {
             minHeight,
             ElevatorConstants.synced.getObject().elevatorMinMinHeight,
             ElevatorConstants.synced.getObject().elevatorMaxMaxHeight));
+    minHeightNarrowed =
+        this.minHeight.gt(ElevatorConstants.synced.getObject().elevatorMinMinHeight);
 
-    Logger.recordOutput("Elevator/minHeight", minHeight);
+    Logger.recordOutput(minHeightKey, minHeight);
   }
 
   /**
@@ -246,10 +905,12 @@ public class ElevatorMechanism {
     this.maxHeight.mut_replace(
         UnitUtils.clampMeasure(
             maxHeight,
-            ElevatorConstants.synced.getObject().elevatorMaxMaxHeight,
+            ElevatorConstants.synced.getObject().elevatorMinMinHeight,
             ElevatorConstants.synced.getObject().elevatorMaxMaxHeight));
+    maxHeightNarrowed =
+        this.maxHeight.lt(ElevatorConstants.synced.getObject().elevatorMaxMaxHeight);
 
-    Logger.recordOutput("Elevator/maxHeight", maxHeight);
+    Logger.recordOutput(maxHeightKey, maxHeight);
   }
 
   /**
@@ -304,6 +965,50 @@ public class ElevatorMechanism {
     return goalHeight;
   }
 
+  @Override
+  public String getName() {
+    return "Elevator";
+  }
+
+  @Override
+  public int getSupplyCurrentPriority() {
+    return ElevatorConstants.synced.getObject().elevatorSupplyCurrentPriority;
+  }
+
+  @Override
+  public double getSupplyCurrentAmps() {
+    return inputs.leadMotorSupplyCurrent.in(Amps) + inputs.followerMotorSupplyCurrent.in(Amps);
+  }
+
+  @Override
+  public boolean isMoving() {
+    ElevatorConstants constants = ElevatorConstants.synced.getObject();
+
+    return Math.abs(inputs.elevatorEncoderVel.in(RotationsPerSecond))
+            > constants.elevatorMovingVelocityThresholdRotationsPerSecond
+        || Math.abs(inputs.elevatorEncoderGoalPos.in(Rotations) - inputs.elevatorEncoderPos.in(Rotations))
+            > constants.elevatorMovingPositionThresholdRotations;
+  }
+
+  @Override
+  public double getMinSupplyCurrentAmps() {
+    return ElevatorConstants.synced.getObject().elevatorMinSupplyCurrentLimit.in(Amps)
+        * MOTOR_COUNT;
+  }
+
+  @Override
+  public double getMaxSupplyCurrentAmps() {
+    return ElevatorConstants.synced.getObject().elevatorMaxSupplyCurrentLimit.in(Amps)
+        * MOTOR_COUNT;
+  }
+
+  /** Split a total supply current budget evenly between the elevator's motors */
+  @Override
+  public void setSupplyCurrentBudget(double amps) {
+    supplyCurrentLimit.mut_setMagnitude(amps / MOTOR_COUNT);
+    io.setSupplyCurrentLimit(supplyCurrentLimit);
+  }
+
   /**
    * Convert an angle of the elevatorEncoder into Elevator height
    *
@@ -323,4 +1028,21 @@ public class ElevatorMechanism {
    public Angle elevatorHeightToElevatorEncoderAngle(Distance elevatorHeight) {
     return Rotations.of(elevatorHeight.in(Meters) / ElevatorConstants.synced.getObject().elevatorHeightPerElevatorEncoderRotationMeters);
    }
+
+  /**
+   * A ElevatorIO that reports a slowly moving elevatorEncoder and otherwise does nothing, used by
+   * warmUp() so that unit conversions see realistic values.
+   */
+  private static class WarmUpIO extends ElevatorIOReplay {
+    double elevatorEncoderRotations = 0.0;
+
+    @Override
+    public void updateInputs(ElevatorInputs inputs) {
+      elevatorEncoderRotations = (elevatorEncoderRotations + 0.001) % 1.0;
+
+      inputs.elevatorEncoderConnected = true;
+      inputs.elevatorEncoderPos.mut_setMagnitude(elevatorEncoderRotations);
+      inputs.elevatorEncoderVel.mut_setMagnitude(0.05);
+    }
+  }
 }
\ No newline at end of file
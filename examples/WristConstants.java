@@ -16,6 +16,7 @@ import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Distance;
 import edu.wpi.first.units.measure.MomentOfInertia;
 import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
 
 
 public final class WristConstants {
@@ -27,6 +28,18 @@ public final class WristConstants {
           EnvironmentHandler.getEnvironmentHandler().getEnvironmentPathProvider(),
           new JSONSyncConfigBuilder().setPrettyPrinting(true).build());
 
+  /**
+   * Load the Wrist's constants from their JSON files, including its sim constants in
+   * simulation. Pass this to ConstantsBootstrap.loadAll to load every mechanism in parallel.
+   */
+  public static void load() {
+    synced.loadData();
+
+    if (RobotBase.isSimulation()) {
+      Sim.synced.loadData();
+    }
+  }
+
   public final Integer wristMotorId = 1; // TODO: Replace placeholder CAN ID
 
   /**
@@ -77,10 +90,143 @@ public final class WristConstants {
   */
   public final Double wristMotionMagicExpo_kA = 0.0;
 
+  /** Acceleration of the trapezoidal profile used by MotionMagicTorqueCurrentFOC */
+  public final Double wristAngularAccelerationRotationsPerSecondSquared = 2.0;
+
+  /** The request used to reach the goal in ClosedLoop mode, see WristControlModeBenchmark */
+  public final WristIO.WristClosedLoopRequest wristClosedLoopRequest =
+      WristIO.WristClosedLoopRequest.MotionMagicExpoTorqueCurrentFOC;
+
+  /**
+   * Gains used by the MotionMagicExpoVoltage request (slot 1). These are in volts, so they can't be
+   * shared with the torque current gains above.
+   */
+  public final Double wristVoltageKP = 0.0;
+  public final Double wristVoltageKI = 0.0;
+  public final Double wristVoltageKD = 0.0;
+
+  public final Double wristVoltageKS = 0.0;
+  public final Double wristVoltageKV = 0.0;
+  public final Double wristVoltageKA = 0.0;
+  public final Double wristVoltageKG = 0.0;
+
+  /**
+   * Extra feedforward, in amps, applied on top of kG as a function of wristEncoder position, in
+   * rotations. Use this when the load changes with position (e.g. elevator stages, springs or a
+   * carried mechanism). Positions must be increasing, and values between them are interpolated.
+   * Leave both empty to only use kG.
+   */
+  public final double[] wristFeedforwardTablePositionsRotations = {};
+
+  public final double[] wristFeedforwardTableAmps = {};
+
+  /**
+   * Named preset positions of the Wrist, e.g. {"Stow", "Score"}, and the wristEncoder
+   * position of each, in rotations. Moves between presets follow precomputed time-optimal
+   * profiles, see WristMechanism.setGoalPreset.
+   */
+  public final String[] wristPresetNames = {};
+
+  public final double[] wristPresetPositionsRotations = {};
+
+  /**
+   * Fraction of the stator current limit preset profiles are computed for. The rest is left for
+   * feedback to correct errors with.
+   */
+  public final Double wristPresetProfileCurrentFraction = 0.8;
+
+  /** Most voltage preset profiles are computed for, leaving headroom for battery sag */
+  public final Double wristPresetProfileMaxVolts = 10.0;
+
   public final Current wristStatorCurrentLimit = Amps.of(80.0); // TODO: Replace placeholder current limit
 
+  /**
+   * Range the supply current limit of each Wrist motor is kept in. When the mechanism is part
+   * of a SupplyCurrentBudget, the budget moves the limit within this range.
+   */
+  public final Current wristMinSupplyCurrentLimit = Amps.of(10.0);
+
+  public final Current wristMaxSupplyCurrentLimit = Amps.of(60.0);
+
+  /** Priority of the Wrist in a SupplyCurrentBudget. Higher priorities get current first. */
+  public final Integer wristSupplyCurrentPriority = 0;
+
   public final Double wristReduction = 1.0; // TODO: Replace placeholder reduction
 
+  /**
+   * The longest any single phase of WristMechanism.periodic() (e.g. updateInputs) may take, in
+   * microseconds, before it is flagged in the loop timing logs
+   */
+  public final Double wristLoopPhaseBudgetMicros = 1000.0;
+
+  /**
+   * Rate of every status signal while the robot is disabled, in Hz. Defaults to the config's
+   * `idle` signal frequency.
+   */
+  public final Double wristIdleSignalFrequencyHz = 4.0;
+
+  /**
+   * Rate that control-critical status signals (encoder position and velocity) are raised to while
+   * the mechanism is moving, in Hz. Defaults to the config's `encoder_moving` signal frequency,
+   * which is what generation budgets the bus for.
+   */
+  public final Double wristMovingSignalFrequencyHz = 100.0;
+
+  /** Rate that diagnostic status signals (currents) are lowered to while the bus is congested */
+  public final Double wristCongestedDiagnosticSignalFrequencyHz = 10.0;
+
+  /**
+   * Rate that control requests (including Follower requests) are resent at while the mechanism is
+   * holding still or disabled, in Hz. Requests are always sent immediately when they change.
+   */
+  public final Double wristHoldingControlFrequencyHz = 20.0;
+
+  /** CAN bus utilization (between 0 and 1) above which the bus is considered congested */
+  public final Double wristCongestedBusUtilization = 0.7;
+
+  /** The mechanism is considered moving while its encoder is faster than this */
+  public final Double wristMovingVelocityThresholdRotationsPerSecond = 0.05;
+
+  /** The mechanism is considered moving while its encoder is further than this from its goal */
+  public final Double wristMovingPositionThresholdRotations = 0.01;
+
+  /**
+   * A move is settled once the encoder stays within this of the goal for
+   * wristMoveSettleTimeSeconds. Goal changes smaller than this don't start a new move.
+   */
+  public final Double wristMoveSettleToleranceRotations = 0.01;
+
+  public final Double wristMoveSettleTimeSeconds = 0.1;
+
+  /** A move that hasn't settled after this long is logged as timed out */
+  public final Double wristMoveTimeoutSeconds = 3.0;
+
+  /**
+   * Temperature rise of each Wrist motor per second per amp squared of stator current, in
+   * degrees Celsius per A^2*s. Fit this from logs with MotorThermalModel.fit.
+   */
+  public final Double wristMotorHeatingCoefficient = 0.0001; // TODO: Replace placeholder thermal model
+
+  /** Fraction of each Wrist motor's temperature above ambient that it loses per second */
+  public final Double wristMotorCoolingCoefficient = 0.005;
+
+  /** Temperature the Wrist motors cool toward, in degrees Celsius */
+  public final Double wristAmbientTemperatureCelsius = 25.0;
+
+  /** How far ahead motor temperature is predicted when deciding whether to derate, in seconds */
+  public final Double wristThermalPredictionHorizonSeconds = 10.0;
+
+  /**
+   * Predicted motor temperatures, in degrees Celsius, between which the current limit and profile
+   * constraints are derated from full output down to wristMinThermalDerate
+   */
+  public final Double wristThermalDerateStartCelsius = 70.0;
+
+  public final Double wristThermalDerateEndCelsius = 95.0;
+
+  /** Fraction of full output the Wrist keeps when fully derated */
+  public final Double wristMinThermalDerate = 0.4;
+
   public final Angle wristMinMinAngle = Rotations.of(0.0); // TODO: Replace placeholder constraints
   public final Angle wristMaxMaxAngle = Rotations.of(1.0);
   public static final class Sim {
@@ -100,6 +246,15 @@ public final class WristConstants {
     /** Standard deviation passed to sim for the velocity measurement */
     public final Double velocityStdDev = 0.0;
 
+    /**
+     * Time from the wristEncoder sending a status frame to the motors and robot code receiving it.
+     * The frames are sent at the rates the real wristEncoder is configured with.
+     */
+    public final Double wristEncoderLatencySeconds = 0.002;
+
+    /** Fraction of the wristEncoder's status frames lost on the bus, from 0 to 1 */
+    public final Double wristEncoderFrameDropProbability = 0.0;
+
     @JSONExclude
     public final MomentOfInertia wristMomentOfInertia = KilogramSquareMeters.of(0.05); // TODO: Replace placeholder moment of inertia
     public final Distance wristArmLength = Meters.of(1.0); // TODO: Replace placeholder arm length
@@ -1,22 +1,27 @@
 package frc.robot.subsystems.scoring;
 
 import static edu.wpi.first.units.Units.Amps;
+import static edu.wpi.first.units.Units.Celsius;
 import static edu.wpi.first.units.Units.Rotations;
 import static edu.wpi.first.units.Units.RotationsPerSecond;
 import static edu.wpi.first.units.Units.Volts;
 
+import com.ctre.phoenix6.signals.SensorDirectionValue;
 import edu.wpi.first.units.AngularAccelerationUnit;
 import edu.wpi.first.units.AngularVelocityUnit;
 import edu.wpi.first.units.VoltageUnit;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.units.measure.MutAngularVelocity;
 import edu.wpi.first.units.measure.MutCurrent;
+import edu.wpi.first.units.measure.MutTemperature;
 import edu.wpi.first.units.measure.MutVoltage;
 import edu.wpi.first.units.measure.Per;
 import edu.wpi.first.units.measure.Voltage;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
 import org.littletonrobotics.junction.AutoLog;
 
 public interface WristIO {
@@ -26,6 +31,14 @@ public interface WristIO {
     Voltage // Overriding, manually applying a voltage
   }
 
+  /** The control request used to reach the goal in ClosedLoop mode */
+  enum WristClosedLoopRequest {
+    MotionMagicExpoTorqueCurrentFOC, // Exponential profile, torque current gains (slot 0)
+    MotionMagicTorqueCurrentFOC, // Trapezoidal profile, torque current gains (slot 0)
+    MotionMagicExpoVoltage, // Exponential profile, voltage gains (slot 1)
+    PositionTorqueCurrentFOC // No profile, torque current gains and feedforward only (slot 0)
+  }
+
   @AutoLog
   public static class WristInputs {
     public boolean wristMotorConnected = false;
@@ -35,6 +48,9 @@ public interface WristIO {
 
     /** Supply current of the wristMotor */
     public MutCurrent wristMotorSupplyCurrent = Amps.mutable(0.0);
+
+    /** Temperature of the wristMotor. This is only updated a few times per second. */
+    public MutTemperature wristMotorTemperature = Celsius.mutable(0.0);
     
 
     public boolean wristEncoderConnected = false;
@@ -76,6 +92,12 @@ public interface WristIO {
     /** The current closed-loop output from Motion Magic */
     public double wristClosedLoopOutput = 0.0;
 
+    /** Position-dependent feedforward from the feedforward table, in amps */
+    public double wristFeedforwardAmps = 0.0;
+
+    /** The setpoint streamed by setProfileSetpoint, in rotations, or NaN while none is followed */
+    public double wristProfileSetpointRotations = Double.NaN;
+
     /** Contribution of the p-term to motor output */
     public MutVoltage pContrib = Volts.mutable(0.0);
 
@@ -133,24 +155,72 @@ public interface WristIO {
    */
   public void setOutputMode(WristOutputMode mode);
 
+  /**
+   * Set which control request is used in ClosedLoop mode. This is called from the loop when
+   * constants are reloaded, so it must not block.
+   */
+  public void setClosedLoopRequest(WristClosedLoopRequest request);
+
+  /**
+   * Follow a setpoint streamed from a precomputed profile in ClosedLoop mode, instead of the
+   * profile of the selected closed-loop request. This is called every loop while a preset profile
+   * is followed, so it must not block.
+   *
+   * @param positionRotations The setpoint's position, or NaN to go back to the selected request
+   * @param velocityRotationsPerSecond The setpoint's velocity
+   * @param accelerationRotationsPerSecondSquared The setpoint's acceleration
+   */
+  public void setProfileSetpoint(
+      double positionRotations,
+      double velocityRotationsPerSecond,
+      double accelerationRotationsPerSecondSquared);
+
   /** Update PID gains for the Wrist */
   public void setPID(double p, double i, double d);
 
   /** Set profile constraints to be sent to Motion Magic Expo */
   public void setMaxProfile(
       AngularVelocity maxVelocity,
+      AngularAcceleration maxAcceleration,
       Per<VoltageUnit, AngularAccelerationUnit> expo_kA,
       Per<VoltageUnit, AngularVelocityUnit> expo_kV);
 
   /** Set feedforward gains for closed-loop control */
   public void setFF(double kS, double kV, double kA, double kG);
 
+  /**
+   * Set the PID and feedforward gains of voltage-based closed-loop requests, like
+   * MotionMagicExpoVoltage. This is called from the loop when constants are reloaded, so it must not
+   * block.
+   */
+  public void setVoltageGains(
+      double kP, double kI, double kD, double kS, double kV, double kA, double kG);
+
+  /**
+   * Replace the table the position-dependent feedforward is looked up in. This is called from the
+   * loop when constants are reloaded, so it must not block.
+   */
+  public void setFeedforwardTable(InterpolationTable feedforwardTable);
+
   /** Set whether or not the motors should brake while idle */
   public void setBrakeMode(boolean brakeMode);
 
   /** Set the stator current limit for the Wrist motor */
   public void setStatorCurrentLimit(Current currentLimit);
 
+  /**
+   * Set the supply current limit of each Wrist motor. This may be called every loop, so it must
+   * not block.
+   */
+  public void setSupplyCurrentLimit(Current currentLimit);
+
+  /**
+   * Set the magnet sensor config of the wristEncoder. This is called from the loop when constants
+   * are reloaded, so it must not block.
+   */
+  public void setWristEncoderMagnetSensor(
+      Angle magnetOffset, double discontinuityPoint, SensorDirectionValue direction);
+
   /** Set whether or not the motor on the Wrist should be disabled. */
   public void setMotorsDisabled(boolean disabled);
 }
\ No newline at end of file
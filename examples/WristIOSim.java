@@ -4,6 +4,8 @@ import static edu.wpi.first.units.Units.KilogramSquareMeters;
 import static edu.wpi.first.units.Units.Meters;
 import static edu.wpi.first.units.Units.Radians;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
+import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
 import static edu.wpi.first.units.Units.Seconds;
 
 import com.ctre.phoenix6.sim.CANcoderSimState;
@@ -17,6 +19,7 @@ import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import frc.robot.constants.JsonConstants;
 import frc.robot.constants.SimConstants;
+import frc.robot.lib.robotvibecoder.SimulatedStatusSignal;
 import org.littletonrobotics.junction.Logger;
 
 public class WristIOSim extends WristIOTalonFX {
@@ -37,6 +40,13 @@ public class WristIOSim extends WristIOTalonFX {
 
   MutAngle lastWristAngle = Radians.mutable(0.0);
 
+  // The wristEncoder's frames reach the motors' fused closed loop and robot code over CAN, so what
+  // they see of it lags the physics. The motors read their own rotors directly.
+  SimulatedStatusSignal wristEncoderPositionSignal =
+      new SimulatedStatusSignal("Wrist/wristEncoderPosition".hashCode());
+  SimulatedStatusSignal wristEncoderVelocitySignal =
+      new SimulatedStatusSignal("Wrist/wristEncoderVelocity".hashCode());
+
   public WristIOSim() {
     super();
 
@@ -54,11 +64,11 @@ public class WristIOSim extends WristIOTalonFX {
     lastWristAngle.mut_replace(wristAngle);
 
     // 1:1 ratio of Wrist to CANcoder makes this math very easy
-    wristEncoderSimState.setRawPosition(
+    setWristEncoderSimState(
         wristAngle.minus(
             WristConstants.synced.getObject()
-                .wristEncoderMagnetOffset)); // Subtract the magnet offset since it's 0 in sim
-    wristEncoderSimState.setVelocity(wristVelocity);
+                .wristEncoderMagnetOffset), // Subtract the magnet offset since it's 0 in sim
+        wristVelocity);
 
     Angle rotorDiffAngle = diffAngle.times(WristConstants.synced.getObject().wristReduction);
     AngularVelocity rotorVelocity =
@@ -74,6 +84,37 @@ public class WristIOSim extends WristIOTalonFX {
     wristSim.update(SimConstants.simDeltaTime.in(Seconds));
   }
 
+  /**
+   * Send the wristEncoder's true position and velocity over the simulated CAN bus, setting its sim
+   * state to what the rest of the robot would have received by now
+   */
+  private void setWristEncoderSimState(Angle position, AngularVelocity velocity) {
+    final double dtSeconds = SimConstants.simDeltaTime.in(Seconds);
+    final double latencySeconds = WristConstants.Sim.synced.getObject().wristEncoderLatencySeconds;
+    final double dropProbability = WristConstants.Sim.synced.getObject().wristEncoderFrameDropProbability;
+
+    wristEncoderSimState.setRawPosition(
+        wristEncoderPositionSignal.update(
+            position.in(Rotations),
+            wristEncoderPosition.getAppliedUpdateFrequency(),
+            latencySeconds,
+            dropProbability,
+            dtSeconds));
+    wristEncoderSimState.setVelocity(
+        wristEncoderVelocitySignal.update(
+            velocity.in(RotationsPerSecond),
+            wristEncoderVelocity.getAppliedUpdateFrequency(),
+            latencySeconds,
+            dropProbability,
+            dtSeconds));
+
+    Logger.recordOutput(
+        "wristSim/wristEncoderPositionAgeSeconds", wristEncoderPositionSignal.getAgeSeconds());
+    Logger.recordOutput(
+        "wristSim/wristEncoderDroppedFrames",
+        wristEncoderPositionSignal.getDroppedFrames() + wristEncoderVelocitySignal.getDroppedFrames());
+  }
+
   @Override
   public void updateInputs(WristInputs inputs) {
     updateSimState();
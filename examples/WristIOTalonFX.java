@@ -1,6 +1,8 @@
 package frc.robot.subsystems.scoring;
 
+import static edu.wpi.first.units.Units.Amps;
 import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
 import static edu.wpi.first.units.Units.Volts;
 
 import com.ctre.phoenix6.BaseStatusSignal;
@@ -12,9 +14,14 @@ import com.ctre.phoenix6.configs.FeedbackConfigs;
 import com.ctre.phoenix6.configs.MotionMagicConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
+import com.ctre.phoenix6.configs.Slot1Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.ControlRequest;
 import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.controls.MotionMagicExpoTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.MotionMagicExpoVoltage;
+import com.ctre.phoenix6.controls.MotionMagicTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.PositionTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.TorqueCurrentFOC;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.CANcoder;
@@ -22,19 +29,51 @@ import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
 import edu.wpi.first.units.AngularAccelerationUnit;
 import edu.wpi.first.units.AngularVelocityUnit;
 import edu.wpi.first.units.VoltageUnit;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.units.measure.Per;
+import edu.wpi.first.units.measure.Temperature;
 import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.lib.robotvibecoder.AdaptiveSignalRates;
+import frc.robot.lib.robotvibecoder.CANBusUtilization;
+import frc.robot.lib.robotvibecoder.DeviceHealth;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
 import frc.robot.subsystems.scoring.WristConstants;
 import org.littletonrobotics.junction.Logger;
 
 public class WristIOTalonFX implements WristIO {
+  /** How often control requests (including Follower requests) are resent on the CAN bus */
+  private static final double CONTROL_FREQUENCY_HZ = 100.0;
+
+  // Nominal status signal rates, used while enabled and holding position on an uncongested bus
+  private static final double ENCODER_POSITION_FREQUENCY_HZ = 50.0;
+  private static final double ENCODER_VELOCITY_FREQUENCY_HZ = 50.0;
+  private static final double SUPPLY_CURRENT_FREQUENCY_HZ = 50.0;
+  private static final double STATOR_CURRENT_FREQUENCY_HZ = 50.0;
+
+  /**
+   * How often motor temperatures are refreshed. Temperature changes slowly and is only reported at
+   * a few Hz, so it's read on this slow path instead of every loop.
+   */
+  private static final double TEMPERATURE_PERIOD_SECONDS = 0.25;
+
+  /** Supply current limit changes smaller than this aren't sent to the motors */
+  private static final double SUPPLY_CURRENT_LIMIT_DEADBAND_AMPS = 1.0;
+
+  /**
+   * Feedforward changes smaller than this don't cause the closed-loop request to be resent, so
+   * that encoder noise while holding position doesn't defeat deduplication
+   */
+  private static final double FEEDFORWARD_DEADBAND_AMPS = 0.05;
+
   MutAngle wristEncoderGoalAngle = Rotations.mutable(0.0);
   MutAngle wristEncoderSetpointPosition = Rotations.mutable(0.0);
 
@@ -47,23 +86,70 @@ public class WristIOTalonFX implements WristIO {
 
   CANcoder wristEncoder;
 
-  // Reuse the same talonFXConfiguration instead of making a new one each time.
+  // Reuse the same talonFXConfiguration instead of making a new one each time. Every config change
+  // is made to these, so that a device that resets can be given its full, current configuration.
   TalonFXConfiguration talonFXConfigs;
+  CANcoderConfiguration cancoderConfigs;
+
+  // Calls that would block on a disconnected device are skipped until it's back and reconfigured
+  DeviceHealth wristEncoderHealth;
+  DeviceHealth wristMotorHealth;
 
   boolean motorDisabled = false;
 
-  private StatusSignal<Angle> wristEncoderPosition;
-  private StatusSignal<AngularVelocity> wristEncoderVelocity;
+  /** Whether the mechanism was moving as of the last updateInputs, see updateSignalRates */
+  boolean moving = true;
+
+  // The last request sent to the lead motor. The motor resends it on its own at its update
+  // frequency, so setControl is only called again when the request or its values change.
+  ControlRequest sentRequest = null;
+  double sentOutput = Double.NaN;
+  double sentFeedforwardAmps = Double.NaN;
+  double sentUpdateFrequencyHz = Double.NaN;
+
+  // Built from the constants, and rebuilt off the main thread when they're reloaded
+  InterpolationTable feedforwardTable;
+
+  double lastTemperatureTimestamp = Double.NEGATIVE_INFINITY;
+
+  // Encoder position and velocity are raised while moving, currents are lowered while the bus is
+  // congested
+  AdaptiveSignalRates signalRates =
+      new AdaptiveSignalRates("Wrist", CANBusUtilization.of("canivore"));
+
+  // Not private so that the sim can send its values at the rate these are actually updated at
+  StatusSignal<Angle> wristEncoderPosition;
+  StatusSignal<AngularVelocity> wristEncoderVelocity;
   private StatusSignal<Current> wristMotorSupplyCurrent;
   private StatusSignal<Current> wristMotorStatorCurrent;
+  private StatusSignal<Temperature> wristMotorTemperature;
 
   
 
   // Reuse the same motion magic request to avoid garbage collector having to clean them up.
   MotionMagicExpoTorqueCurrentFOC motionMagicExpoTorqueCurrentFOC =
-      new MotionMagicExpoTorqueCurrentFOC(0.0);
-  VoltageOut voltageOut = new VoltageOut(0.0);
-  TorqueCurrentFOC currentOut = new TorqueCurrentFOC(0.0);
+      new MotionMagicExpoTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  MotionMagicTorqueCurrentFOC motionMagicTorqueCurrentFOC =
+      new MotionMagicTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  // Voltage gains are kept in slot 1, since slot 0's are in amps
+  MotionMagicExpoVoltage motionMagicExpoVoltage =
+      new MotionMagicExpoVoltage(0.0).withSlot(1).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  PositionTorqueCurrentFOC positionTorqueCurrentFOC =
+      new PositionTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  // Kept separate from positionTorqueCurrentFOC, since only streamed setpoints have a velocity
+  PositionTorqueCurrentFOC profileSetpointRequest =
+      new PositionTorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  VoltageOut voltageOut = new VoltageOut(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+  TorqueCurrentFOC currentOut = new TorqueCurrentFOC(0.0).withUpdateFreqHz(CONTROL_FREQUENCY_HZ);
+
+  /** The request used in ClosedLoop mode, see WristClosedLoopRequest */
+  WristClosedLoopRequest closedLoopRequest =
+      WristConstants.synced.getObject().wristClosedLoopRequest;
+
+  // The setpoint streamed by setProfileSetpoint, followed instead of closedLoopRequest unless NaN
+  double profileSetpointRotations = Double.NaN;
+  double profileSetpointRotationsPerSecond = 0.0;
+  double profileSetpointRotationsPerSecondSquared = 0.0;
 
   public WristIOTalonFX() {
     // Initialize TalonFXs  and CANcoders with their correct IDs
@@ -72,15 +158,15 @@ public class WristIOTalonFX implements WristIO {
     wristEncoder =
         new CANcoder(WristConstants.synced.getObject().wristEncoderID, "canivore");
 
-    CANcoderConfiguration cancoderConfiguration = new CANcoderConfiguration();
-    cancoderConfiguration.MagnetSensor.AbsoluteSensorDiscontinuityPoint =
+    cancoderConfigs = new CANcoderConfiguration();
+    cancoderConfigs.MagnetSensor.AbsoluteSensorDiscontinuityPoint =
         WristConstants.synced.getObject().wristEncoderDiscontinuityPoint;
 
     // Update with large CANcoder direction and apply
-    cancoderConfiguration.MagnetSensor.SensorDirection =
+    cancoderConfigs.MagnetSensor.SensorDirection =
         WristConstants.synced.getObject().wristEncoderDirection;
-    cancoderConfiguration.MagnetSensor.MagnetOffset = WristConstants.synced.getObject().wristEncoderMagnetOffset.in(Rotations);
-    wristEncoder.getConfigurator().apply(cancoderConfiguration);
+    cancoderConfigs.MagnetSensor.MagnetOffset = WristConstants.synced.getObject().wristEncoderMagnetOffset.in(Rotations);
+    wristEncoder.getConfigurator().apply(cancoderConfigs);
 
     // Cache status signals and refresh them when used
     wristEncoderPosition = wristEncoder.getPosition();
@@ -88,13 +174,18 @@ public class WristIOTalonFX implements WristIO {
 
     wristMotorSupplyCurrent = wristMotor.getSupplyCurrent();
     wristMotorStatorCurrent = wristMotor.getStatorCurrent();
+    wristMotorTemperature = wristMotor.getDeviceTemp();
 
-    BaseStatusSignal.setUpdateFrequencyForAll(50.0,
-        wristMotorSupplyCurrent,
-        wristMotorStatorCurrent,
-        wristEncoderPosition,
-        wristEncoderVelocity
-    );
+    signalRates.addCriticalSignal(wristEncoderPosition, ENCODER_POSITION_FREQUENCY_HZ);
+    signalRates.addCriticalSignal(wristEncoderVelocity, ENCODER_VELOCITY_FREQUENCY_HZ);
+    signalRates.addDiagnosticSignal(wristMotorSupplyCurrent, SUPPLY_CURRENT_FREQUENCY_HZ);
+    signalRates.addDiagnosticSignal(wristMotorStatorCurrent, STATOR_CURRENT_FREQUENCY_HZ);
+    signalRates.applyNominalRates();
+
+    feedforwardTable =
+        new InterpolationTable(
+            WristConstants.synced.getObject().wristFeedforwardTablePositionsRotations,
+            WristConstants.synced.getObject().wristFeedforwardTableAmps);
 
     // Initialize talonFXConfigs to use FusedCANCoder and Motion Magic Expo and have correct PID
     // gains and current limits.
@@ -113,7 +204,10 @@ public class WristIOTalonFX implements WristIO {
                 new CurrentLimitsConfigs()
                     .withStatorCurrentLimitEnable(true)
                     .withStatorCurrentLimit(
-                        WristConstants.synced.getObject().wristStatorCurrentLimit))
+                        WristConstants.synced.getObject().wristStatorCurrentLimit)
+                    .withSupplyCurrentLimitEnable(true)
+                    .withSupplyCurrentLimit(
+                        WristConstants.synced.getObject().wristMaxSupplyCurrentLimit))
             .withSlot0(
                 new Slot0Configs()
                     .withGravityType(GravityTypeValue.Arm_Cosine)
@@ -124,10 +218,22 @@ public class WristIOTalonFX implements WristIO {
                     .withKP(WristConstants.synced.getObject().wristKP)
                     .withKI(WristConstants.synced.getObject().wristKI)
                     .withKD(WristConstants.synced.getObject().wristKD))
+            .withSlot1(
+                new Slot1Configs()
+                    .withGravityType(GravityTypeValue.Arm_Cosine)
+                    .withKS(WristConstants.synced.getObject().wristVoltageKS)
+                    .withKV(WristConstants.synced.getObject().wristVoltageKV)
+                    .withKA(WristConstants.synced.getObject().wristVoltageKA)
+                    .withKG(WristConstants.synced.getObject().wristVoltageKG)
+                    .withKP(WristConstants.synced.getObject().wristVoltageKP)
+                    .withKI(WristConstants.synced.getObject().wristVoltageKI)
+                    .withKD(WristConstants.synced.getObject().wristVoltageKD))
             .withMotionMagic(
                 new MotionMagicConfigs()
                     .withMotionMagicCruiseVelocity(
                         WristConstants.synced.getObject().wristAngularCruiseVelocityRotationsPerSecond)
+                    .withMotionMagicAcceleration(
+                        WristConstants.synced.getObject().wristAngularAccelerationRotationsPerSecondSquared)
                     .withMotionMagicExpo_kA(
                         WristConstants.synced.getObject().wristMotionMagicExpo_kA)
                     .withMotionMagicExpo_kV(
@@ -137,6 +243,21 @@ public class WristIOTalonFX implements WristIO {
     wristMotor.getConfigurator().apply(talonFXConfigs);
 
     // Make follower motor permanently follow lead motor.
+
+    wristEncoderHealth =
+        new DeviceHealth(
+            "Wrist/wristEncoder",
+            wristEncoder,
+            wristEncoderPosition,
+            () -> wristEncoder.getConfigurator().apply(cancoderConfigs),
+            signalRates::resendRates);
+    wristMotorHealth =
+        new DeviceHealth(
+            "Wrist/wristMotor",
+            wristMotor,
+            wristMotorSupplyCurrent,
+            () -> wristMotor.getConfigurator().apply(talonFXConfigs),
+            signalRates::resendRates);
   }
 
   @Override
@@ -156,28 +277,98 @@ public class WristIOTalonFX implements WristIO {
     inputs.wristMotorStatorCurrent.mut_replace(wristMotorStatorCurrent.getValue());
     inputs.wristMotorConnected = wristMotor.isConnected();
 
+    double now = Timer.getFPGATimestamp();
+    if (now - lastTemperatureTimestamp >= TEMPERATURE_PERIOD_SECONDS) {
+      lastTemperatureTimestamp = now;
+
+      BaseStatusSignal.refreshAll(
+          wristMotorTemperature);
+      inputs.wristMotorTemperature.mut_replace(wristMotorTemperature.getValue());
+    }
+
     inputs.wristEncoderGoalPos.mut_replace(wristEncoderGoalAngle);
     inputs.wristEncoderSetpointPos.mut_replace(wristEncoderSetpointPosition);
 
     inputs.motionMagicError = wristMotor.getClosedLoopError().getValueAsDouble();
 
     inputs.wristVelocity.mut_replace(wristEncoder.getVelocity().getValue());
+
+    wristEncoderHealth.update();
+    wristMotorHealth.update();
+
+    updateSignalRates(inputs);
+  }
+
+  /** Raise or lower status signal rates depending on whether the mechanism is moving */
+  private void updateSignalRates(WristInputs inputs) {
+    WristConstants constants = WristConstants.synced.getObject();
+
+    moving =
+        Math.abs(inputs.wristEncoderVel.in(RotationsPerSecond))
+                > constants.wristMovingVelocityThresholdRotationsPerSecond
+            || Math.abs(wristEncoderGoalAngle.in(Rotations) - inputs.wristEncoderPos.in(Rotations))
+                > constants.wristMovingPositionThresholdRotations;
+
+    signalRates.update(
+        moving,
+        constants.wristIdleSignalFrequencyHz,
+        constants.wristMovingSignalFrequencyHz,
+        constants.wristCongestedDiagnosticSignalFrequencyHz,
+        constants.wristCongestedBusUtilization);
   }
 
   @Override
   public void applyOutputs(WristOutputs outputs) {
     outputs.motorsDisabled = motorDisabled;
     outputs.outputMode = outputMode;
-
-    motionMagicExpoTorqueCurrentFOC.withPosition(wristEncoderGoalAngle);
-
-    if (motorDisabled) {
-      wristMotor.setControl(voltageOut.withOutput(0.0));
+    outputs.wristProfileSetpointRotations = profileSetpointRotations;
+
+    // Control frames are only needed at the full rate while the mechanism is moving
+    double controlFrequencyHz =
+        moving
+            ? CONTROL_FREQUENCY_HZ
+            : Math.min(
+                CONTROL_FREQUENCY_HZ, WristConstants.synced.getObject().wristHoldingControlFrequencyHz);
+    updateFollowerFrequencies(controlFrequencyHz);
+
+    if (!wristMotorHealth.isHealthy()) {
+      // Don't send requests to a lead motor that's missing or hasn't been reconfigured yet, and
+      // resend the current request once it's back
+      sentRequest = null;
+      outputs.wristAppliedVolts.mut_replace(Volts.of(0.0));
+    } else if (motorDisabled) {
+      if (controlChanged(voltageOut, 0.0, 0.0, controlFrequencyHz)) {
+        wristMotor.setControl(
+            voltageOut.withOutput(0.0).withUpdateFreqHz(controlFrequencyHz));
+      }
       outputs.wristAppliedVolts.mut_replace(Volts.of(0.0));
     } else {
       switch (outputMode) {
         case ClosedLoop:
-          wristMotor.setControl(motionMagicExpoTorqueCurrentFOC);
+          // Streamed setpoints are followed with torque current, whatever request is selected
+          boolean followingProfileSetpoint = !Double.isNaN(profileSetpointRotations);
+
+          // Add the load at the current position on top of the gravity feedforward. The table is
+          // in amps, so it's only applied by torque current requests.
+          double feedforwardAmps =
+              closedLoopRequest == WristClosedLoopRequest.MotionMagicExpoVoltage
+                      && !followingProfileSetpoint
+                  ? 0.0
+                  : feedforwardTable.get(wristEncoderPosition.getValueAsDouble());
+          outputs.wristFeedforwardAmps = feedforwardAmps;
+
+          ControlRequest request =
+              followingProfileSetpoint
+                  ? profileSetpointRequest(feedforwardAmps, controlFrequencyHz)
+                  : selectedClosedLoopRequest(feedforwardAmps, controlFrequencyHz);
+          double requestedPositionRotations =
+              followingProfileSetpoint
+                  ? profileSetpointRotations
+                  : wristEncoderGoalAngle.in(Rotations);
+          if (controlChanged(
+              request, requestedPositionRotations, feedforwardAmps, controlFrequencyHz)) {
+            wristMotor.setControl(request);
+          }
 
           wristEncoderSetpointPosition.mut_setMagnitude(
               (wristMotor.getClosedLoopReference().getValue()));
@@ -196,17 +387,98 @@ public class WristIOTalonFX implements WristIO {
               Volts.of(wristMotor.getClosedLoopDerivativeOutput().getValueAsDouble()));
           break;
         case Voltage:
-          wristMotor.setControl(new VoltageOut(overrideVoltage));
+          // Overrides are only used while tuning, so they're always sent at the full rate
+          if (controlChanged(voltageOut, overrideVoltage.in(Volts), 0.0, CONTROL_FREQUENCY_HZ)) {
+            wristMotor.setControl(
+                voltageOut.withOutput(overrideVoltage).withUpdateFreqHz(CONTROL_FREQUENCY_HZ));
+          }
           outputs.wristAppliedVolts.mut_replace(overrideVoltage);
           break;
         case Current:
-          wristMotor.setControl(currentOut.withOutput(overrideCurrent));
+          if (controlChanged(currentOut, overrideCurrent.in(Amps), 0.0, CONTROL_FREQUENCY_HZ)) {
+            wristMotor.setControl(
+                currentOut.withOutput(overrideCurrent).withUpdateFreqHz(CONTROL_FREQUENCY_HZ));
+          }
           outputs.wristAppliedVolts.mut_replace(wristMotor.getMotorVoltage().getValue());
           break;
       }
     }
   }
 
+  /**
+   * Get the request selected by setClosedLoopRequest, updated with the current goal. Requests are
+   * reused, so this doesn't allocate.
+   */
+  private ControlRequest selectedClosedLoopRequest(
+      double feedforwardAmps, double controlFrequencyHz) {
+    switch (closedLoopRequest) {
+      case MotionMagicTorqueCurrentFOC:
+        return motionMagicTorqueCurrentFOC
+            .withPosition(wristEncoderGoalAngle)
+            .withFeedForward(feedforwardAmps)
+            .withUpdateFreqHz(controlFrequencyHz);
+      case MotionMagicExpoVoltage:
+        return motionMagicExpoVoltage
+            .withPosition(wristEncoderGoalAngle)
+            .withUpdateFreqHz(controlFrequencyHz);
+      case PositionTorqueCurrentFOC:
+        return positionTorqueCurrentFOC
+            .withPosition(wristEncoderGoalAngle)
+            .withFeedForward(feedforwardAmps)
+            .withUpdateFreqHz(controlFrequencyHz);
+      case MotionMagicExpoTorqueCurrentFOC:
+      default:
+        return motionMagicExpoTorqueCurrentFOC
+            .withPosition(wristEncoderGoalAngle)
+            .withFeedForward(feedforwardAmps)
+            .withUpdateFreqHz(controlFrequencyHz);
+    }
+  }
+
+  /**
+   * Get the request that follows the setpoint streamed by setProfileSetpoint. Like the selected
+   * requests, it's reused, so this doesn't allocate.
+   */
+  private ControlRequest profileSetpointRequest(double feedforwardAmps, double controlFrequencyHz) {
+    // Slot 0 applies kV to the setpoint's velocity, but only applies kA in Motion Magic, so the
+    // acceleration's share is added to the feedforward here
+    return profileSetpointRequest
+        .withPosition(profileSetpointRotations)
+        .withVelocity(profileSetpointRotationsPerSecond)
+        .withFeedForward(
+            feedforwardAmps + talonFXConfigs.Slot0.kA * profileSetpointRotationsPerSecondSquared)
+        .withUpdateFreqHz(controlFrequencyHz);
+  }
+
+  /**
+   * Check whether a request differs from the last one sent to the lead motor, and if it does,
+   * record it as the last one sent
+   *
+   * @return True if the request should be sent
+   */
+  private boolean controlChanged(
+      ControlRequest request, double output, double feedforwardAmps, double updateFrequencyHz) {
+    if (request == sentRequest
+        && output == sentOutput
+        && Math.abs(feedforwardAmps - sentFeedforwardAmps) < FEEDFORWARD_DEADBAND_AMPS
+        && updateFrequencyHz == sentUpdateFrequencyHz) {
+      return false;
+    }
+
+    sentRequest = request;
+    sentOutput = output;
+    sentFeedforwardAmps = feedforwardAmps;
+    sentUpdateFrequencyHz = updateFrequencyHz;
+    return true;
+  }
+
+  /**
+   * Resend Follower requests when the control frequency changes. Followers keep following either
+   * way, this only changes how often their control frames are sent.
+   */
+  private void updateFollowerFrequencies(double controlFrequencyHz) {
+  }
+
   @Override
   public void setWristEncoderGoalPos(Angle goalPos) {
     wristEncoderGoalAngle.mut_replace(goalPos);
@@ -214,7 +486,10 @@ public class WristIOTalonFX implements WristIO {
 
   @Override
   public void setWristEncoderPosition(Angle newAngle) {
-    wristEncoder.setPosition(newAngle);
+    // setPosition blocks until it's acknowledged, so it's skipped while the wristEncoder is missing
+    if (wristEncoderHealth.isHealthy()) {
+      wristEncoder.setPosition(newAngle);
+    }
   }
 
   @Override
@@ -232,6 +507,22 @@ public class WristIOTalonFX implements WristIO {
     overrideCurrent = current;
   }
 
+  @Override
+  public void setClosedLoopRequest(WristClosedLoopRequest request) {
+    // The next applyOutputs sends the new request, since it differs from the last one sent
+    closedLoopRequest = request;
+  }
+
+  @Override
+  public void setProfileSetpoint(
+      double positionRotations,
+      double velocityRotationsPerSecond,
+      double accelerationRotationsPerSecondSquared) {
+    profileSetpointRotations = positionRotations;
+    profileSetpointRotationsPerSecond = velocityRotationsPerSecond;
+    profileSetpointRotationsPerSecondSquared = accelerationRotationsPerSecondSquared;
+  }
+
   @Override
   public void setPID(double p, double i, double d) {
     Slot0Configs configs = talonFXConfigs.Slot0;
@@ -239,21 +530,29 @@ public class WristIOTalonFX implements WristIO {
     configs.kP = p;
     configs.kI = i;
     configs.kD = d;
-    wristMotor.getConfigurator().apply(configs);
+
+    // A timeout of 0 doesn't wait for the configs to be acknowledged, since this is also called from
+    // the loop when constants are reloaded
+    wristMotorHealth.applyIfHealthy(() -> wristMotor.getConfigurator().apply(configs, 0.0));
   }
 
   @Override
   public void setMaxProfile(
       AngularVelocity maxVelocity,
+      AngularAcceleration maxAcceleration,
       Per<VoltageUnit, AngularAccelerationUnit> expo_kA,
       Per<VoltageUnit, AngularVelocityUnit> expo_kV) {
     MotionMagicConfigs configs =
         talonFXConfigs
             .MotionMagic
-            // .withMotionMagicCruiseVelocity(maxVelocity)
+            .withMotionMagicCruiseVelocity(maxVelocity)
+            .withMotionMagicAcceleration(maxAcceleration)
             .withMotionMagicExpo_kA(expo_kA)
             .withMotionMagicExpo_kV(expo_kV);
-    wristMotor.getConfigurator().apply(configs);
+
+    // A timeout of 0 sends the configs without waiting for them to be acknowledged, since this is
+    // also called from the loop when the mechanism derates for temperature
+    wristMotorHealth.applyIfHealthy(() -> wristMotor.getConfigurator().apply(configs, 0.0));
   }
 
   @Override
@@ -264,20 +563,76 @@ public class WristIOTalonFX implements WristIO {
     configs.kV = kV;
     configs.kA = kA;
     configs.kG = kG;
-    wristMotor.getConfigurator().apply(configs);
+
+    // A timeout of 0 doesn't wait for the configs to be acknowledged, since this is also called from
+    // the loop when constants are reloaded
+    wristMotorHealth.applyIfHealthy(() -> wristMotor.getConfigurator().apply(configs, 0.0));
+  }
+
+  @Override
+  public void setVoltageGains(
+      double kP, double kI, double kD, double kS, double kV, double kA, double kG) {
+    Slot1Configs configs = talonFXConfigs.Slot1;
+
+    configs.kP = kP;
+    configs.kI = kI;
+    configs.kD = kD;
+    configs.kS = kS;
+    configs.kV = kV;
+    configs.kA = kA;
+    configs.kG = kG;
+
+    // A timeout of 0 doesn't wait for the configs to be acknowledged, since this is called from the
+    // loop when constants are reloaded
+    wristMotorHealth.applyIfHealthy(() -> wristMotor.getConfigurator().apply(configs, 0.0));
+  }
+
+  @Override
+  public void setFeedforwardTable(InterpolationTable feedforwardTable) {
+    this.feedforwardTable = feedforwardTable;
   }
 
   @Override
   public void setBrakeMode(boolean brakeMode) {
-    wristMotor.setNeutralMode(brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast);
+    NeutralModeValue neutralMode = brakeMode ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+    talonFXConfigs.MotorOutput.withNeutralMode(neutralMode);
+    wristMotorHealth.applyIfHealthy(() -> wristMotor.setNeutralMode(neutralMode));
   }
 
   @Override
   public void setStatorCurrentLimit(Current currentLimit) {
     talonFXConfigs.CurrentLimits.withStatorCurrentLimit(currentLimit);
 
-    // Only apply current limit configs to avoid overwriting PID and FF values from tuning
-    wristMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits);
+    // Only apply current limit configs to avoid overwriting PID and FF values from tuning. A timeout
+    // of 0 doesn't wait for them to be acknowledged, since this is also called from the loop.
+    wristMotorHealth.applyIfHealthy(
+        () -> wristMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits, 0.0));
+  }
+
+  @Override
+  public void setSupplyCurrentLimit(Current currentLimit) {
+    double currentLimitAmps = currentLimit.in(Amps);
+    if (Math.abs(currentLimitAmps - talonFXConfigs.CurrentLimits.SupplyCurrentLimit)
+        < SUPPLY_CURRENT_LIMIT_DEADBAND_AMPS) {
+      return;
+    }
+    talonFXConfigs.CurrentLimits.SupplyCurrentLimit = currentLimitAmps;
+
+    // A timeout of 0 sends the limit without waiting for it to be acknowledged
+    wristMotorHealth.applyIfHealthy(
+        () -> wristMotor.getConfigurator().apply(talonFXConfigs.CurrentLimits, 0.0));
+  }
+
+  @Override
+  public void setWristEncoderMagnetSensor(
+      Angle magnetOffset, double discontinuityPoint, SensorDirectionValue direction) {
+    cancoderConfigs.MagnetSensor.MagnetOffset = magnetOffset.in(Rotations);
+    cancoderConfigs.MagnetSensor.AbsoluteSensorDiscontinuityPoint = discontinuityPoint;
+    cancoderConfigs.MagnetSensor.SensorDirection = direction;
+
+    // Only apply the magnet sensor configs, without waiting for them to be acknowledged
+    wristEncoderHealth.applyIfHealthy(
+        () -> wristEncoder.getConfigurator().apply(cancoderConfigs.MagnetSensor, 0.0));
   }
 
   @Override
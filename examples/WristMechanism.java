@@ -1,7 +1,9 @@
 package frc.robot.subsystems.scoring;
 
-import static edu.wpi.first.units.Units.RadiansPerSecond;
+import static edu.wpi.first.units.Units.Amps;
+import static edu.wpi.first.units.Units.Celsius;
 import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.RotationsPerSecondPerSecond;
 import static edu.wpi.first.units.Units.MetersPerSecond;
 import static edu.wpi.first.units.Units.Rotations;
 import static edu.wpi.first.units.Units.Rotations;
@@ -9,12 +11,29 @@ import static edu.wpi.first.units.Units.Volts;
 import static edu.wpi.first.units.Units.VoltsPerRadianPerSecond;
 import static edu.wpi.first.units.Units.VoltsPerRadianPerSecondSquared;
 
-import coppercore.parameter_tools.LoggedTunableNumber;
 import coppercore.wpilib_interface.UnitUtils;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.MutCurrent;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.lib.robotvibecoder.ConstantsHotReload;
+import frc.robot.lib.robotvibecoder.InterpolationTable;
+import frc.robot.lib.robotvibecoder.MechanismLoopTiming;
+import frc.robot.lib.robotvibecoder.MotorThermalModel;
+import frc.robot.lib.robotvibecoder.MoveMetrics;
+import frc.robot.lib.robotvibecoder.PresetProfileCache;
+import frc.robot.lib.robotvibecoder.SupplyCurrentBudget;
 import frc.robot.subsystems.scoring.WristIO.WristOutputMode;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.littletonrobotics.junction.Logger;
 
 /**
@@ -23,67 +42,289 @@ import org.littletonrobotics.junction.Logger;
  * <ul>
  *   <li>Uses closed-loop TorqueCurrentFOC control
  */
-public class WristMechanism {
+public class WristMechanism implements SupplyCurrentBudget.BudgetedMechanism {
   WristIO io;
   WristInputsAutoLogged inputs = new WristInputsAutoLogged();
   WristOutputsAutoLogged outputs = new WristOutputsAutoLogged();
 
+  MechanismLoopTiming loopTiming;
+  MoveMetrics moveMetrics;
+
+  // Log keys are built once so that logging doesn't concatenate strings every loop
+  private final String inputsKey;
+  private final String outputsKey;
+  private final String clampedGoalAngleKey;
+  private final String minAngleKey;
+  private final String maxAngleKey;
+  private final String goalAngleKey;
+  private final String thermalDerateKey;
+  private final String estimatedMotorTemperatureKey;
+  private final String followingPresetProfileKey;
+  private final String goalPresetKey;
+
   MutAngle goalAngle = Rotations.mutable(0.0);
   MutAngle clampedGoalAngle = Rotations.mutable(0.0);
 
+  private static final int MOTOR_COUNT = 1;
+
+  /** The supply current limit of each motor, reused so setting the budget doesn't allocate */
+  MutCurrent supplyCurrentLimit = Amps.mutable(0.0);
+
+  /** The thermal derate is applied in steps of 1 / THERMAL_DERATE_STEPS */
+  private static final int THERMAL_DERATE_STEPS = 20;
+  MotorThermalModel wristMotorThermalModel;
+
+  /** The fraction of full output the current limit and profile are derated to for temperature */
+  double appliedThermalDerate = 1.0;
+
+  MutCurrent deratedStatorCurrentLimit = Amps.mutable(0.0);
+
   MutAngle minAngle = WristConstants.synced.getObject().wristMinMinAngle.mutableCopy();
   MutAngle maxAngle = WristConstants.synced.getObject().wristMaxMaxAngle.mutableCopy();
 
-  LoggedTunableNumber wristkP;
-  LoggedTunableNumber wristkI;
-  LoggedTunableNumber wristkD;
+  // Whether a caller narrowed each limit inside the range of motion, so that reloads keep it
+  boolean minAngleNarrowed = false;
+  boolean maxAngleNarrowed = false;
+
+  /*
+   * Tunables are grouped by the config they update. NetworkTables listeners mark a group as pending
+   * when one of its values changes, and testPeriodic applies each pending group once.
+   */
+  private static final int PID_TUNABLES = 1 << 0;
+  private static final int FF_TUNABLES = 1 << 1;
+  private static final int PROFILE_TUNABLES = 1 << 2;
+  private static final int SETPOINT_TUNABLES = 1 << 3;
+  private static final int OVERRIDE_VOLTS_TUNABLES = 1 << 4;
+
+  /** Every group applied while closed-loop tuning */
+  private static final int CLOSED_LOOP_TUNABLES =
+      PID_TUNABLES | FF_TUNABLES | PROFILE_TUNABLES | SETPOINT_TUNABLES;
+
+  /**
+   * Whether tunables are published to NetworkTables. While this is false, no tunable entries or
+   * listeners are created, so competition builds pay nothing for them.
+   */
+  private static final boolean TUNING_MODE = false; // TODO: Replace placeholder with tuning mode
+
+  private final NetworkTable tunablesTable =
+      NetworkTableInstance.getDefault().getTable("WristTunables");
+
+  /** Bitmask of tunable groups changed since the last time they were applied */
+  private final AtomicInteger pendingTunableGroups = new AtomicInteger(0);
+
+  DoubleEntry wristkP;
+  DoubleEntry wristkI;
+  DoubleEntry wristkD;
+
+  DoubleEntry wristkS;
+  DoubleEntry wristkV;
+  DoubleEntry wristkA;
+  DoubleEntry wristkG;
+
+  DoubleEntry wristCruiseVelocity;
+  DoubleEntry wristAcceleration;
+  DoubleEntry wristExpokV;
+  DoubleEntry wristExpokA;
+
+  DoubleEntry wristTuningSetpointRotations;
+  DoubleEntry wristTuningOverrideVolts;
+
+  /*
+   * Config groups that can change when WristConstants.json is reloaded. The reload runs on the
+   * ConstantsHotReload thread and only marks the groups whose constants changed as pending, and
+   * periodic applies each pending group once.
+   */
+  private static final int SLOT0_CONSTANTS = 1 << 0;
+  private static final int MOTION_MAGIC_CONSTANTS = 1 << 1;
+  private static final int CURRENT_LIMIT_CONSTANTS = 1 << 2;
+  private static final int MAGNET_SENSOR_CONSTANTS = 1 << 3;
+  private static final int RANGE_OF_MOTION_CONSTANTS = 1 << 4;
+  private static final int CLOSED_LOOP_REQUEST_CONSTANTS = 1 << 5;
+  private static final int PRESET_CONSTANTS = 1 << 6;
+  private static final int SLOT1_CONSTANTS = 1 << 7;
+  private static final int FEEDFORWARD_TABLE_CONSTANTS = 1 << 8;
+  private static final int THERMAL_MODEL_CONSTANTS = 1 << 9;
+
+  /** Bitmask of config groups changed by reloading constants since they were last applied */
+  private final AtomicInteger pendingReloadedConstants = new AtomicInteger(0);
+
+  /**
+   * The feedforward table rebuilt from reloaded constants on the ConstantsHotReload thread, which is
+   * sent to the IO when FEEDFORWARD_TABLE_CONSTANTS is applied
+   */
+  private volatile InterpolationTable reloadedFeedforwardTable;
+
+  /** Profiles between every pair of presets, see setGoalPreset */
+  PresetProfileCache presetProfiles;
+
+  /**
+   * Profiles recomputed from reloaded constants on the ConstantsHotReload thread, which replace
+   * presetProfiles when PRESET_CONSTANTS is applied
+   */
+  private volatile PresetProfileCache reloadedPresetProfiles;
+
+  /** The preset the goal was last set to with setGoalPreset, or -1 if it was set some other way */
+  int goalPreset = -1;
 
-  LoggedTunableNumber wristkS;
-  LoggedTunableNumber wristkV;
-  LoggedTunableNumber wristkA;
-  LoggedTunableNumber wristkG;
+  /** The presets the profile being followed goes between, or -1 while no profile is followed */
+  int presetProfileFrom = -1;
 
-  LoggedTunableNumber wristCruiseVelocity;
-  LoggedTunableNumber wristExpokV;
-  LoggedTunableNumber wristExpokA;
+  int presetProfileTo = -1;
+  double presetProfileStartSeconds = 0.0;
 
-  LoggedTunableNumber wristTuningSetpointRotations;
-  LoggedTunableNumber wristTuningOverrideVolts;
+  /** How far the goal may be from a preset's position for that preset's profile to be followed */
+  private static final double PRESET_GOAL_TOLERANCE_ROTATIONS = 1e-6;
+
+  /**
+   * Number of loops run by warmUp(). This is enough for the JIT to compile the per-loop paths with
+   * C1 and the hottest of them with C2.
+   */
+  private static final int WARM_UP_ITERATIONS = 10_000;
 
   public WristMechanism(WristIO io) {
+    this(io, "Wrist");
+
+    if (TUNING_MODE) {
+      publishTunables();
+    }
+    ConstantsHotReload.register("WristConstants.json", this::reloadConstants);
+  }
+
+  /**
+   * Create a WristMechanism that logs under a different prefix and doesn't publish tunables
+   *
+   * @param io The IO to control
+   * @param logPrefix The prefix to log under, e.g. "Wrist"
+   */
+  private WristMechanism(WristIO io, String logPrefix) {
+    this.io = io;
+
+    loopTiming =
+        new MechanismLoopTiming(
+            "Wrist",
+            logPrefix + "/LoopTiming",
+            WristConstants.synced.getObject().wristLoopPhaseBudgetMicros);
+    moveMetrics = new MoveMetrics(logPrefix + "/MoveMetrics");
+
+    inputsKey = logPrefix + "/inputs";
+    outputsKey = logPrefix + "/outputs";
+    clampedGoalAngleKey = logPrefix + "/clampedGoalAngle";
+    minAngleKey = logPrefix + "/minAngle";
+    maxAngleKey = logPrefix + "/maxAngle";
+    goalAngleKey = logPrefix + "/goalAngle";
+    thermalDerateKey = logPrefix + "/thermalDerate";
+    estimatedMotorTemperatureKey = logPrefix + "/estimatedMotorTemperatureCelsius";
+    followingPresetProfileKey = logPrefix + "/followingPresetProfile";
+    goalPresetKey = logPrefix + "/goalPreset";
+
+    WristConstants constants = WristConstants.synced.getObject();
+    presetProfiles = computePresetProfiles(constants);
+    wristMotorThermalModel =
+        new MotorThermalModel(
+            constants.wristMotorHeatingCoefficient,
+            constants.wristMotorCoolingCoefficient,
+            constants.wristAmbientTemperatureCelsius);
+  }
+
+  /** Publish every tunable to NetworkTables, see addTunable */
+  private void publishTunables() {
     wristkP =
-        new LoggedTunableNumber("WristTunables/wristkP", WristConstants.synced.getObject().wristKP);
+        addTunable("wristkP", WristConstants.synced.getObject().wristKP, PID_TUNABLES);
     wristkI =
-        new LoggedTunableNumber("WristTunables/wristkI", WristConstants.synced.getObject().wristKI);
+        addTunable("wristkI", WristConstants.synced.getObject().wristKI, PID_TUNABLES);
     wristkD =
-        new LoggedTunableNumber("WristTunables/wristkD", WristConstants.synced.getObject().wristKD);
+        addTunable("wristkD", WristConstants.synced.getObject().wristKD, PID_TUNABLES);
 
     wristkS =
-        new LoggedTunableNumber("WristTunables/wristkS", WristConstants.synced.getObject().wristKS);
+        addTunable("wristkS", WristConstants.synced.getObject().wristKS, FF_TUNABLES);
     wristkV =
-        new LoggedTunableNumber("WristTunables/wristkV", WristConstants.synced.getObject().wristKV);
+        addTunable("wristkV", WristConstants.synced.getObject().wristKV, FF_TUNABLES);
     wristkA =
-        new LoggedTunableNumber("WristTunables/wristkA", WristConstants.synced.getObject().wristKA);
+        addTunable("wristkA", WristConstants.synced.getObject().wristKA, FF_TUNABLES);
     wristkG =
-        new LoggedTunableNumber("WristTunables/wristkG", WristConstants.synced.getObject().wristKG);
+        addTunable("wristkG", WristConstants.synced.getObject().wristKG, FF_TUNABLES);
 
     wristCruiseVelocity =
-        new LoggedTunableNumber(
-            "WristTunables/wristCruiseVelocity",
-            WristConstants.synced.getObject().wristAngularCruiseVelocityRotationsPerSecond);
+        addTunable(
+            "wristCruiseVelocity",
+            WristConstants.synced.getObject().wristAngularCruiseVelocityRotationsPerSecond,
+            PROFILE_TUNABLES);
+    wristAcceleration =
+        addTunable(
+            "wristAcceleration",
+            WristConstants.synced.getObject().wristAngularAccelerationRotationsPerSecondSquared,
+            PROFILE_TUNABLES);
     wristExpokV =
-        new LoggedTunableNumber(
-            "WristTunables/wristExpokV", WristConstants.synced.getObject().wristMotionMagicExpo_kV);
+        addTunable(
+            "wristExpokV", WristConstants.synced.getObject().wristMotionMagicExpo_kV, PROFILE_TUNABLES);
     wristExpokA =
-        new LoggedTunableNumber(
-            "WristTunables/wristExpokA", WristConstants.synced.getObject().wristMotionMagicExpo_kA);
+        addTunable(
+            "wristExpokA", WristConstants.synced.getObject().wristMotionMagicExpo_kA, PROFILE_TUNABLES);
 
     wristTuningSetpointRotations =
-        new LoggedTunableNumber("WristTunables/wristTuningSetpointRotations", 0.0);
+        addTunable("wristTuningSetpointRotations", 0.0, SETPOINT_TUNABLES);
     wristTuningOverrideVolts =
-        new LoggedTunableNumber("WristTunables/wristTuningOverrideVolts", 0.0);
+        addTunable("wristTuningOverrideVolts", 0.0, OVERRIDE_VOLTS_TUNABLES);
+  }
 
-    this.io = io;
+  /**
+   * Run the per-loop paths of a WristMechanism many times against an IO that never touches
+   * hardware, so that the classes they use are loaded and the JIT compiles them before the first
+   * enable instead of during it.
+   *
+   * <p>This should be called once from robotInit, after Logger.start() so that logging paths are
+   * warmed up too. It doesn't affect any real mechanism. Everything it logs goes under
+   * WarmUp/Wrist.
+   */
+  public static void warmUp() {
+    WristMechanism mechanism = new WristMechanism(new WarmUpIO(), "WarmUp/Wrist");
+    // The first loops are expected to be slow, that's what this is for
+    mechanism.loopTiming.setWarningsEnabled(false);
+
+    WristConstants constants = WristConstants.synced.getObject();
+    Angle minGoal = constants.wristMinMinAngle;
+    Angle maxGoal = constants.wristMaxMaxAngle;
+    // Goals inside and outside the range of motion, so that clamping takes every branch
+    Angle[] goals = {minGoal, maxGoal, minGoal.minus(maxGoal), maxGoal.times(2.0)};
+    WristOutputMode[] outputModes = WristOutputMode.values();
+
+    for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+      mechanism.setGoalAngle(goals[i % goals.length]);
+      if (i % 100 == 0) {
+        mechanism.setAllowedRangeOfMotion(minGoal, maxGoal);
+      }
+      mechanism.getIO().setOutputMode(outputModes[i % outputModes.length]);
+
+      mechanism.periodic();
+
+      mechanism.getWristAngle();
+      mechanism.getWristVelocity();
+      mechanism.getGoalAngle();
+    }
+  }
+
+  /**
+   * Publish a tunable number to NetworkTables and subscribe to changes made to it from a dashboard.
+   *
+   * <p>The listener runs on the NetworkTables listener thread and only marks its group as pending,
+   * so the main loop does no per-tunable work while nothing is being tuned.
+   *
+   * @param key The key of the tunable in the WristTunables table
+   * @param defaultValue The value to publish initially
+   * @param group The tunable group to mark as pending when this value changes
+   * @return The entry to read the latest value of the tunable from
+   */
+  private DoubleEntry addTunable(String key, double defaultValue, int group) {
+    DoubleEntry entry = tunablesTable.getDoubleTopic(key).getEntry(defaultValue);
+    entry.set(defaultValue);
+
+    NetworkTableInstance.getDefault()
+        .addListener(
+            entry,
+            EnumSet.of(NetworkTableEvent.Kind.kValueRemote),
+            (event) -> pendingTunableGroups.getAndUpdate((groups) -> groups | group));
+
+    return entry;
   }
 
   /**
@@ -92,13 +333,302 @@ public class WristMechanism {
    * <p>Does NOT run automatically! Must be called by the subsystem
    */
   public void periodic() {
+    loopTiming.start();
+
+    applyReloadedConstants();
     sendGoalAngleToIO();
+    loopTiming.lap(MechanismLoopTiming.SEND_GOAL);
 
     io.updateInputs(inputs);
+    loopTiming.lap(MechanismLoopTiming.UPDATE_INPUTS);
     io.applyOutputs(outputs);
+    loopTiming.lap(MechanismLoopTiming.APPLY_OUTPUTS);
+
+    Logger.processInputs(inputsKey, inputs);
+    Logger.processInputs(outputsKey, outputs);
+    loopTiming.lap(MechanismLoopTiming.PROCESS_INPUTS);
+
+    // Runs after processInputs so that replay uses the logged currents and temperatures
+    updateThermalDerate();
+    loopTiming.lap(MechanismLoopTiming.THERMAL);
+    updateMoveMetrics();
+    loopTiming.lap(MechanismLoopTiming.MOVE_METRICS);
+
+    loopTiming.reportIfDue();
+  }
+
+  /**
+   * Predict how hot each motor will get if it keeps drawing its current stator current, and derate
+   * the stator current limit and profile constraints gradually as that prediction approaches the
+   * limit, instead of letting the motor cut its output suddenly once it's too hot.
+   */
+  private void updateThermalDerate() {
+    WristConstants constants = WristConstants.synced.getObject();
+
+    double derate = 1.0;
+    double estimatedCelsius = Double.NEGATIVE_INFINITY;
+
+    double wristMotorStatorCurrentAmps = inputs.wristMotorStatorCurrent.in(Amps);
+    wristMotorThermalModel.update(
+        wristMotorStatorCurrentAmps, inputs.wristMotorTemperature.in(Celsius));
+    estimatedCelsius = Math.max(estimatedCelsius, wristMotorThermalModel.getEstimatedCelsius());
+    derate =
+        Math.min(
+            derate,
+            wristMotorThermalModel.getDerateFactor(
+                constants.wristThermalPredictionHorizonSeconds,
+                wristMotorStatorCurrentAmps,
+                constants.wristThermalDerateStartCelsius,
+                constants.wristThermalDerateEndCelsius,
+                constants.wristMinThermalDerate));
+
+    Logger.recordOutput(estimatedMotorTemperatureKey, estimatedCelsius);
+
+    // Round up to a step so that configs are only sent when the derate changes meaningfully
+    derate = Math.ceil(derate * THERMAL_DERATE_STEPS - 1e-9) / THERMAL_DERATE_STEPS;
+    Logger.recordOutput(thermalDerateKey, derate);
+    if (derate == appliedThermalDerate) {
+      return;
+    }
+    appliedThermalDerate = derate;
+
+    deratedStatorCurrentLimit.mut_replace(
+        constants.wristStatorCurrentLimit.in(Amps) * derate, Amps);
+    io.setStatorCurrentLimit(deratedStatorCurrentLimit);
+
+    // Lowering the cruise velocity and acceleration and raising Expo kV and kA all slow the profile
+    io.setMaxProfile(
+        RotationsPerSecond.of(
+            constants.wristAngularCruiseVelocityRotationsPerSecond * derate),
+        RotationsPerSecondPerSecond.of(
+            constants.wristAngularAccelerationRotationsPerSecondSquared * derate),
+        Volts.per(RotationsPerSecondPerSecond)
+            .of(constants.wristMotionMagicExpo_kA / derate),
+        Volts.per(RotationsPerSecond).of(constants.wristMotionMagicExpo_kV / derate));
+  }
 
-    Logger.processInputs("Wrist/inputs", inputs);
-    Logger.processInputs("Wrist/outputs", outputs);
+  /** Measure the move in progress from this loop's inputs, see MoveMetrics */
+  private void updateMoveMetrics() {
+    WristConstants constants = WristConstants.synced.getObject();
+
+    moveMetrics.update(
+        inputs.wristEncoderGoalPos.in(Rotations),
+        inputs.wristEncoderPos.in(Rotations),
+        inputs.motionMagicError,
+        Math.abs(inputs.wristMotorStatorCurrent.in(Amps)),
+        constants.wristMoveSettleToleranceRotations,
+        constants.wristMoveSettleTimeSeconds,
+        constants.wristMoveTimeoutSeconds);
+  }
+
+  /**
+   * Reload WristConstants.json and mark every config group whose constants changed as pending.
+   * This runs on the ConstantsHotReload thread, so it doesn't touch the IO or the mechanism's state.
+   */
+  private void reloadConstants() {
+    WristConstants before = WristConstants.synced.getObject();
+    WristConstants.synced.loadData();
+    WristConstants after = WristConstants.synced.getObject();
+
+    int changedGroups = 0;
+    if (!Objects.equals(before.wristKP, after.wristKP)
+        || !Objects.equals(before.wristKI, after.wristKI)
+        || !Objects.equals(before.wristKD, after.wristKD)
+        || !Objects.equals(before.wristKS, after.wristKS)
+        || !Objects.equals(before.wristKV, after.wristKV)
+        || !Objects.equals(before.wristKA, after.wristKA)
+        || !Objects.equals(before.wristKG, after.wristKG)) {
+      changedGroups |= SLOT0_CONSTANTS;
+    }
+    if (!Objects.equals(before.wristVoltageKP, after.wristVoltageKP)
+        || !Objects.equals(before.wristVoltageKI, after.wristVoltageKI)
+        || !Objects.equals(before.wristVoltageKD, after.wristVoltageKD)
+        || !Objects.equals(before.wristVoltageKS, after.wristVoltageKS)
+        || !Objects.equals(before.wristVoltageKV, after.wristVoltageKV)
+        || !Objects.equals(before.wristVoltageKA, after.wristVoltageKA)
+        || !Objects.equals(before.wristVoltageKG, after.wristVoltageKG)) {
+      changedGroups |= SLOT1_CONSTANTS;
+    }
+    if (!Objects.equals(
+            before.wristAngularCruiseVelocityRotationsPerSecond,
+            after.wristAngularCruiseVelocityRotationsPerSecond)
+        || !Objects.equals(
+            before.wristAngularAccelerationRotationsPerSecondSquared,
+            after.wristAngularAccelerationRotationsPerSecondSquared)
+        || !Objects.equals(before.wristMotionMagicExpo_kV, after.wristMotionMagicExpo_kV)
+        || !Objects.equals(before.wristMotionMagicExpo_kA, after.wristMotionMagicExpo_kA)) {
+      changedGroups |= MOTION_MAGIC_CONSTANTS;
+    }
+    if (!Objects.equals(before.wristStatorCurrentLimit, after.wristStatorCurrentLimit)) {
+      changedGroups |= CURRENT_LIMIT_CONSTANTS;
+    }
+    if (!Objects.equals(before.wristEncoderMagnetOffset, after.wristEncoderMagnetOffset)
+        || !Objects.equals(before.wristEncoderDiscontinuityPoint, after.wristEncoderDiscontinuityPoint)
+        || !Objects.equals(before.wristEncoderDirection, after.wristEncoderDirection)) {
+      changedGroups |= MAGNET_SENSOR_CONSTANTS;
+    }
+    if (!Objects.equals(before.wristMinMinAngle, after.wristMinMinAngle)
+        || !Objects.equals(before.wristMaxMaxAngle, after.wristMaxMaxAngle)) {
+      changedGroups |= RANGE_OF_MOTION_CONSTANTS;
+    }
+    if (before.wristClosedLoopRequest != after.wristClosedLoopRequest) {
+      changedGroups |= CLOSED_LOOP_REQUEST_CONSTANTS;
+    }
+    if (!Arrays.equals(
+            before.wristFeedforwardTablePositionsRotations,
+            after.wristFeedforwardTablePositionsRotations)
+        || !Arrays.equals(
+            before.wristFeedforwardTableAmps, after.wristFeedforwardTableAmps)) {
+      reloadedFeedforwardTable =
+          new InterpolationTable(
+              after.wristFeedforwardTablePositionsRotations,
+              after.wristFeedforwardTableAmps);
+      changedGroups |= FEEDFORWARD_TABLE_CONSTANTS;
+    }
+    if (!Objects.equals(
+            before.wristMotorHeatingCoefficient, after.wristMotorHeatingCoefficient)
+        || !Objects.equals(
+            before.wristMotorCoolingCoefficient, after.wristMotorCoolingCoefficient)
+        || !Objects.equals(
+            before.wristAmbientTemperatureCelsius,
+            after.wristAmbientTemperatureCelsius)) {
+      changedGroups |= THERMAL_MODEL_CONSTANTS;
+    }
+    if (!Objects.equals(
+        before.wristLoopPhaseBudgetMicros, after.wristLoopPhaseBudgetMicros)) {
+      // Only read when timing is reported, so it's replaced right away instead of from the loop
+      loopTiming.setBudgetMicros(after.wristLoopPhaseBudgetMicros);
+    }
+    if (presetProfileConstantsChanged(before, after)) {
+      // Profiles take a while to compute, so they're computed here instead of in the loop
+      reloadedPresetProfiles = computePresetProfiles(after);
+      changedGroups |= PRESET_CONSTANTS;
+    }
+
+    int reloadedGroups = changedGroups;
+    pendingReloadedConstants.getAndUpdate((groups) -> groups | reloadedGroups);
+  }
+
+  /**
+   * Push every config group changed by reloading constants to the IO. Nothing here waits for the
+   * devices to acknowledge the new configs.
+   */
+  private void applyReloadedConstants() {
+    // A plain read first, so that loops where nothing was reloaded don't write to the atomic
+    if (pendingReloadedConstants.get() == 0) {
+      return;
+    }
+    int reloadedGroups = pendingReloadedConstants.getAndSet(0);
+    WristConstants constants = WristConstants.synced.getObject();
+
+    if ((reloadedGroups & SLOT0_CONSTANTS) != 0) {
+      io.setPID(constants.wristKP, constants.wristKI, constants.wristKD);
+      io.setFF(constants.wristKS, constants.wristKV, constants.wristKA, constants.wristKG);
+    }
+
+    if ((reloadedGroups & SLOT1_CONSTANTS) != 0) {
+      io.setVoltageGains(
+          constants.wristVoltageKP,
+          constants.wristVoltageKI,
+          constants.wristVoltageKD,
+          constants.wristVoltageKS,
+          constants.wristVoltageKV,
+          constants.wristVoltageKA,
+          constants.wristVoltageKG);
+    }
+
+    if ((reloadedGroups & (MOTION_MAGIC_CONSTANTS | CURRENT_LIMIT_CONSTANTS)) != 0) {
+      // The thermal derate scales both of these, so let it reapply them from the new constants
+      appliedThermalDerate = Double.NaN;
+    }
+
+    if ((reloadedGroups & MAGNET_SENSOR_CONSTANTS) != 0) {
+      io.setWristEncoderMagnetSensor(
+          constants.wristEncoderMagnetOffset,
+          constants.wristEncoderDiscontinuityPoint,
+          constants.wristEncoderDirection);
+    }
+
+    if ((reloadedGroups & RANGE_OF_MOTION_CONSTANTS) != 0) {
+      // Limits a caller narrowed are clamped to the new range, and the rest follow it. Either way,
+      // this happens before the goal is clamped to them.
+      setAllowedRangeOfMotion(
+          minAngleNarrowed ? minAngle : constants.wristMinMinAngle,
+          maxAngleNarrowed ? maxAngle : constants.wristMaxMaxAngle);
+    }
+
+    if ((reloadedGroups & CLOSED_LOOP_REQUEST_CONSTANTS) != 0) {
+      io.setClosedLoopRequest(constants.wristClosedLoopRequest);
+    }
+
+    if ((reloadedGroups & FEEDFORWARD_TABLE_CONSTANTS) != 0) {
+      io.setFeedforwardTable(reloadedFeedforwardTable);
+    }
+
+    if ((reloadedGroups & THERMAL_MODEL_CONSTANTS) != 0) {
+      wristMotorThermalModel.setCoefficients(
+          constants.wristMotorHeatingCoefficient,
+          constants.wristMotorCoolingCoefficient,
+          constants.wristAmbientTemperatureCelsius);
+    }
+
+    if ((reloadedGroups & PRESET_CONSTANTS) != 0) {
+      // Indices into the old profiles don't mean anything in the new ones
+      stopPresetProfile();
+      goalPreset = -1;
+      presetProfiles = reloadedPresetProfiles;
+    }
+  }
+
+  /** Check whether any constant that preset profiles are computed from has changed */
+  private static boolean presetProfileConstantsChanged(WristConstants before, WristConstants after) {
+    return !Arrays.equals(before.wristPresetNames, after.wristPresetNames)
+        || !Arrays.equals(
+            before.wristPresetPositionsRotations, after.wristPresetPositionsRotations)
+        || !Objects.equals(
+            before.wristPresetProfileCurrentFraction, after.wristPresetProfileCurrentFraction)
+        || !Objects.equals(before.wristPresetProfileMaxVolts, after.wristPresetProfileMaxVolts)
+        || !Objects.equals(before.wristStatorCurrentLimit, after.wristStatorCurrentLimit)
+        || !Objects.equals(before.wristKS, after.wristKS)
+        || !Objects.equals(before.wristKV, after.wristKV)
+        || !Objects.equals(before.wristKA, after.wristKA)
+        || !Objects.equals(before.wristKG, after.wristKG)
+        || !Objects.equals(before.wristVoltageKS, after.wristVoltageKS)
+        || !Objects.equals(before.wristVoltageKV, after.wristVoltageKV)
+        || !Objects.equals(before.wristVoltageKA, after.wristVoltageKA)
+        || !Objects.equals(before.wristVoltageKG, after.wristVoltageKG);
+  }
+
+  /**
+   * Compute the profiles between every pair of the wrist's presets from its
+   * constants, see PresetProfileCache
+   */
+  private static PresetProfileCache computePresetProfiles(WristConstants constants) {
+    if (constants.wristPresetNames.length != constants.wristPresetPositionsRotations.length) {
+      throw new IllegalArgumentException(
+          "Wrist has "
+              + constants.wristPresetNames.length
+              + " preset names but "
+              + constants.wristPresetPositionsRotations.length
+              + " preset positions, they must match");
+    }
+
+    return new PresetProfileCache(
+        constants.wristPresetPositionsRotations,
+        new PresetProfileCache.Limits(
+            constants.wristStatorCurrentLimit.in(Amps)
+                * constants.wristPresetProfileCurrentFraction,
+            constants.wristKS,
+            constants.wristKV,
+            constants.wristKA,
+            constants.wristKG,
+            constants.wristPresetProfileMaxVolts,
+            constants.wristVoltageKS,
+            constants.wristVoltageKV,
+            constants.wristVoltageKA,
+            constants.wristVoltageKG,
+            true,
+            1.0));
   }
 
   public void setBrakeMode(boolean brake) {
@@ -107,53 +637,50 @@ public class WristMechanism {
 
   /** This method must be called from the subsystem's test periodic! */
   public void testPeriodic() {
+    if (!TUNING_MODE) {
+      // No tunables were published
+      return;
+    }
+
     if (false) { // TODO: Replace placeholder test if WristTuning mode is active
+      int pendingGroups;
+
       // switch (TestModeManager.getTestMode()) {
       // case WristClosedLoopTuning:
+        // Only claim the groups this mode applies, so the others stay pending for their own mode
+        pendingGroups = claimTunableGroups(CLOSED_LOOP_TUNABLES);
         io.setOutputMode(WristOutputMode.ClosedLoop);
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (pid) -> {
-              io.setPID(pid[0], pid[1], pid[2]);
-            },
-            wristkP,
-            wristkI,
-            wristkD);
-
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (ff) -> {
-              io.setFF(ff[0], ff[1], ff[2], ff[3]);
-            },
-            wristkS,
-            wristkV,
-            wristkA,
-            wristkG);
-
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (maxProfile) -> {
-              io.setMaxProfile(
-                  RadiansPerSecond.of(0.0),
-                  VoltsPerRadianPerSecondSquared.ofNative(maxProfile[0]),
-                  VoltsPerRadianPerSecond.ofNative(maxProfile[1]));
-            },
-            wristExpokA,
-            wristExpokV);
-
-        LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (setpoint) -> {
-              setGoalAngle(Rotations.of(setpoint[0]));
-            },
-            wristTuningSetpointRotations);
+        if ((pendingGroups & PID_TUNABLES) != 0) {
+          io.setPID(
+              wristkP.get(),
+              wristkI.get(),
+              wristkD.get());
+        }
+
+        if ((pendingGroups & FF_TUNABLES) != 0) {
+          io.setFF(
+              wristkS.get(),
+              wristkV.get(),
+              wristkA.get(),
+              wristkG.get());
+        }
+
+        if ((pendingGroups & PROFILE_TUNABLES) != 0) {
+          io.setMaxProfile(
+              RotationsPerSecond.of(wristCruiseVelocity.get()),
+              RotationsPerSecondPerSecond.of(wristAcceleration.get()),
+              VoltsPerRadianPerSecondSquared.ofNative(wristExpokA.get()),
+              VoltsPerRadianPerSecond.ofNative(wristExpokV.get()));
+        }
+
+        if ((pendingGroups & SETPOINT_TUNABLES) != 0) {
+          setGoalAngle(Rotations.of(wristTuningSetpointRotations.get()));
+        }
       /*  case WristVoltageTuning:
-          LoggedTunableNumber.ifChanged(
-            hashCode(),
-            (setpoint) -> {
-              io.setOverrideVoltage(Volts.of(setpoint[0]));
-            },
-            wristTuningOverrideVolts);
+          pendingGroups = claimTunableGroups(OVERRIDE_VOLTS_TUNABLES);
+          if ((pendingGroups & OVERRIDE_VOLTS_TUNABLES) != 0) {
+            io.setOverrideVoltage(Volts.of(wristTuningOverrideVolts.get()));
+          }
           io.setOverrideMode(true);
           break;
         }
@@ -161,9 +688,21 @@ public class WristMechanism {
     }
   }
 
+  /**
+   * Clear the given tunable groups' pending bits in a single atomic operation
+   *
+   * @param groups The tunable groups to claim
+   * @return Which of the given groups were pending
+   */
+  private int claimTunableGroups(int groups) {
+    return pendingTunableGroups.getAndAccumulate(groups, (pending, claimed) -> pending & ~claimed)
+        & groups;
+  }
+
   public void sendGoalAngleToIO() {
     updateClampedGoalAngle();
     io.setWristEncoderGoalPos(clampedGoalAngle);
+    streamPresetProfile(clampedGoalAngle.in(Rotations));
   }
 
   /**
@@ -176,7 +715,44 @@ public class WristMechanism {
   private void updateClampedGoalAngle() {
     clampedGoalAngle.mut_replace(UnitUtils.clampMeasure(goalAngle, minAngle, maxAngle));
 
-    Logger.recordOutput("Wrist/clampedGoalAngle", clampedGoalAngle);
+    Logger.recordOutput(clampedGoalAngleKey, clampedGoalAngle);
+  }
+
+  /**
+   * Stream this loop's setpoint of the preset profile being followed, if any, to the IO.
+   *
+   * <p>The motor's own profile takes over again once the preset profile ends, if the goal no
+   * longer matches it (e.g. because it's clamped), or if the wrist is thermally
+   * derated, since profiles are computed for the full current limit.
+   *
+   * @param goalRotations The clamped goal sent to the IO this loop, in wristEncoder rotations
+   */
+  private void streamPresetProfile(double goalRotations) {
+    if (presetProfileTo != -1) {
+      double elapsedSeconds = Timer.getFPGATimestamp() - presetProfileStartSeconds;
+
+      if (elapsedSeconds > presetProfiles.getDurationSeconds(presetProfileFrom, presetProfileTo)
+          || Math.abs(goalRotations - presetProfiles.getPresetRotations(presetProfileTo))
+              > PRESET_GOAL_TOLERANCE_ROTATIONS
+          || appliedThermalDerate < 1.0) {
+        stopPresetProfile();
+      } else {
+        presetProfiles.sample(presetProfileFrom, presetProfileTo, elapsedSeconds);
+        io.setProfileSetpoint(
+            presetProfiles.getSampledPositionRotations(),
+            presetProfiles.getSampledVelocityRotationsPerSecond(),
+            presetProfiles.getSampledAccelerationRotationsPerSecondSquared());
+      }
+    }
+
+    Logger.recordOutput(followingPresetProfileKey, presetProfileTo != -1);
+  }
+
+  /** Stop following a preset profile, handing control back to the motor's own profile */
+  private void stopPresetProfile() {
+    presetProfileFrom = -1;
+    presetProfileTo = -1;
+    io.setProfileSetpoint(Double.NaN, 0.0, 0.0);
   }
 
   /**
@@ -189,7 +765,60 @@ public class WristMechanism {
   public void setGoalAngle(Angle goalAngle) {
     this.goalAngle.mut_replace(goalAngle);
 
-    Logger.recordOutput("Wrist/goalAngle", goalAngle);
+    if (presetProfileTo != -1) {
+      stopPresetProfile();
+    }
+    goalPreset = -1;
+    Logger.recordOutput(goalPresetKey, "");
+
+    Logger.recordOutput(goalAngleKey, goalAngle);
+  }
+
+  /**
+   * Set the goal angle to one of the presets in WristConstants.
+   *
+   * <p>If the wrist is at another preset, it follows the precomputed time-optimal
+   * profile between the two instead of the motor's own profile, so the move runs at the
+   * wrist's actual limits. Otherwise, this is the same as setting the goal
+   * angle to the preset's position.
+   *
+   * <p>Setting the preset the goal is already set to does nothing, so this can be called every loop
+   * without restarting the profile. The preset is logged by name, so the replay harness can replay
+   * it through this method.
+   *
+   * @param presetName The name of the preset, from wristPresetNames
+   */
+  public void setGoalPreset(String presetName) {
+    String[] presetNames = WristConstants.synced.getObject().wristPresetNames;
+    int preset = -1;
+    for (int i = 0; i < presetNames.length && i < presetProfiles.getPresetCount(); i++) {
+      if (presetNames[i].equals(presetName)) {
+        preset = i;
+        break;
+      }
+    }
+    if (preset == -1) {
+      DriverStation.reportWarning("Wrist has no preset named " + presetName, false);
+      return;
+    }
+    if (preset == goalPreset) {
+      return;
+    }
+
+    double presetRotations = presetProfiles.getPresetRotations(preset);
+    setGoalAngle(Rotations.of(presetRotations));
+    goalPreset = preset;
+    Logger.recordOutput(goalPresetKey, presetName);
+
+    int from =
+        presetProfiles.presetNear(
+            inputs.wristEncoderPos.in(Rotations),
+            WristConstants.synced.getObject().wristMoveSettleToleranceRotations);
+    if (from != -1 && presetProfiles.hasProfile(from, preset) && appliedThermalDerate >= 1.0) {
+      presetProfileFrom = from;
+      presetProfileTo = preset;
+      presetProfileStartSeconds = Timer.getFPGATimestamp();
+    }
   }
   /**
    * Sets the minimum and maximum allowed angles that the wrist may target.
@@ -224,8 +853,10 @@ public class WristMechanism {
             minAngle,
             WristConstants.synced.getObject().wristMinMinAngle,
             WristConstants.synced.getObject().wristMaxMaxAngle));
+    minAngleNarrowed =
+        this.minAngle.gt(WristConstants.synced.getObject().wristMinMinAngle);
 
-    Logger.recordOutput("Wrist/minAngle", minAngle);
+    Logger.recordOutput(minAngleKey, minAngle);
   }
 
   /**
@@ -242,10 +873,12 @@ public class WristMechanism {
     this.maxAngle.mut_replace(
         UnitUtils.clampMeasure(
             maxAngle,
-            WristConstants.synced.getObject().wristMaxMaxAngle,
+            WristConstants.synced.getObject().wristMinMinAngle,
             WristConstants.synced.getObject().wristMaxMaxAngle));
+    maxAngleNarrowed =
+        this.maxAngle.lt(WristConstants.synced.getObject().wristMaxMaxAngle);
 
-    Logger.recordOutput("Wrist/maxAngle", maxAngle);
+    Logger.recordOutput(maxAngleKey, maxAngle);
   }
 
   /**
@@ -298,4 +931,65 @@ public class WristMechanism {
   public Angle getGoalAngle() {
     return goalAngle;
   }
+
+  @Override
+  public String getName() {
+    return "Wrist";
+  }
+
+  @Override
+  public int getSupplyCurrentPriority() {
+    return WristConstants.synced.getObject().wristSupplyCurrentPriority;
+  }
+
+  @Override
+  public double getSupplyCurrentAmps() {
+    return inputs.wristMotorSupplyCurrent.in(Amps);
+  }
+
+  @Override
+  public boolean isMoving() {
+    WristConstants constants = WristConstants.synced.getObject();
+
+    return Math.abs(inputs.wristEncoderVel.in(RotationsPerSecond))
+            > constants.wristMovingVelocityThresholdRotationsPerSecond
+        || Math.abs(inputs.wristEncoderGoalPos.in(Rotations) - inputs.wristEncoderPos.in(Rotations))
+            > constants.wristMovingPositionThresholdRotations;
+  }
+
+  @Override
+  public double getMinSupplyCurrentAmps() {
+    return WristConstants.synced.getObject().wristMinSupplyCurrentLimit.in(Amps)
+        * MOTOR_COUNT;
+  }
+
+  @Override
+  public double getMaxSupplyCurrentAmps() {
+    return WristConstants.synced.getObject().wristMaxSupplyCurrentLimit.in(Amps)
+        * MOTOR_COUNT;
+  }
+
+  /** Split a total supply current budget evenly between the wrist's motors */
+  @Override
+  public void setSupplyCurrentBudget(double amps) {
+    supplyCurrentLimit.mut_setMagnitude(amps / MOTOR_COUNT);
+    io.setSupplyCurrentLimit(supplyCurrentLimit);
+  }
+
+  /**
+   * A WristIO that reports a slowly moving wristEncoder and otherwise does nothing, used by
+   * warmUp() so that unit conversions see realistic values.
+   */
+  private static class WarmUpIO extends WristIOReplay {
+    double wristEncoderRotations = 0.0;
+
+    @Override
+    public void updateInputs(WristInputs inputs) {
+      wristEncoderRotations = (wristEncoderRotations + 0.001) % 1.0;
+
+      inputs.wristEncoderConnected = true;
+      inputs.wristEncoderPos.mut_setMagnitude(wristEncoderRotations);
+      inputs.wristEncoderVel.mut_setMagnitude(0.05);
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+package frc.robot.lib.robotvibecoder;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Adapts the update frequencies of a mechanism's status signals to the robot's state and the load
+ * on its CAN bus.
+ *
+ * <p>Control-critical signals (e.g. encoder position and velocity) are raised while the mechanism is
+ * moving, and every signal drops to an idle rate while the robot is disabled. Independently of
+ * that, diagnostic signals (e.g. currents) are lowered while the bus is congested. New frequencies
+ * are only sent when the tier or the congestion changes, or when a device has been reconfigured,
+ * and are sent without waiting for the devices to acknowledge them, so updating never blocks the
+ * loop.
+ */
+public class AdaptiveSignalRates {
+  public enum Tier {
+    Idle,
+    Holding,
+    Moving
+  }
+
+  /** How long the mechanism must stay still before leaving the Moving tier */
+  private static final double MOVING_HOLD_SECONDS = 0.5;
+
+  private final CANBusUtilization canBusUtilization;
+
+  private final List<BaseStatusSignal> criticalSignals = new ArrayList<>();
+  private final List<Double> criticalNominalFrequencies = new ArrayList<>();
+  private final List<BaseStatusSignal> diagnosticSignals = new ArrayList<>();
+  private final List<Double> diagnosticNominalFrequencies = new ArrayList<>();
+
+  private final String busUtilizationKey;
+  private final String tierKey;
+
+  private double lastMovingTimestamp = Double.NEGATIVE_INFINITY;
+
+  // The tier and congestion the current frequencies were applied for
+  private Tier appliedTier = null;
+  private boolean appliedBusCongested = false;
+  private boolean resendRequested = false;
+
+  /**
+   * Create a new AdaptiveSignalRates
+   *
+   * @param logPrefix The prefix to log the bus utilization and tier under, e.g. "Elevator"
+   * @param canBusUtilization The utilization of the CAN bus the mechanism's devices are on
+   */
+  public AdaptiveSignalRates(String logPrefix, CANBusUtilization canBusUtilization) {
+    this.canBusUtilization = canBusUtilization;
+
+    busUtilizationKey = logPrefix + "/canBusUtilization";
+    tierKey = logPrefix + "/signalRateTier";
+  }
+
+  /**
+   * Add a signal that's raised while the mechanism is moving
+   *
+   * @param signal The status signal
+   * @param nominalFrequencyHz The signal's configured frequency. Signals configured at 0 Hz stay
+   *     disabled.
+   */
+  public void addCriticalSignal(BaseStatusSignal signal, double nominalFrequencyHz) {
+    criticalSignals.add(signal);
+    criticalNominalFrequencies.add(nominalFrequencyHz);
+  }
+
+  /**
+   * Add a signal that's lowered while the bus is congested
+   *
+   * @param signal The status signal
+   * @param nominalFrequencyHz The signal's configured frequency. Signals configured at 0 Hz stay
+   *     disabled.
+   */
+  public void addDiagnosticSignal(BaseStatusSignal signal, double nominalFrequencyHz) {
+    diagnosticSignals.add(signal);
+    diagnosticNominalFrequencies.add(nominalFrequencyHz);
+  }
+
+  /**
+   * Send every signal's nominal frequency, waiting for the devices to acknowledge it. This should
+   * be called once at startup, after every signal has been added.
+   */
+  public void applyNominalRates() {
+    for (int i = 0; i < criticalSignals.size(); i++) {
+      criticalSignals.get(i).setUpdateFrequency(criticalNominalFrequencies.get(i));
+    }
+    for (int i = 0; i < diagnosticSignals.size(); i++) {
+      diagnosticSignals.get(i).setUpdateFrequency(diagnosticNominalFrequencies.get(i));
+    }
+  }
+
+  /**
+   * Choose a tier from the robot's state and the bus load, and send new frequencies if it changed.
+   * This should be called once per loop.
+   *
+   * @param moving Whether the mechanism is currently moving (or about to)
+   * @param idleFrequencyHz The frequency of every signal while disabled
+   * @param movingFrequencyHz The frequency critical signals are raised to while moving
+   * @param congestedDiagnosticFrequencyHz The frequency diagnostic signals are lowered to while
+   *     the bus is congested
+   * @param congestedBusUtilization The bus utilization, between 0 and 1, above which the bus is
+   *     considered congested
+   */
+  public void update(
+      boolean moving,
+      double idleFrequencyHz,
+      double movingFrequencyHz,
+      double congestedDiagnosticFrequencyHz,
+      double congestedBusUtilization) {
+    double now = Timer.getFPGATimestamp();
+
+    // Polled in the background, since reading the bus status blocks
+    double busUtilization = canBusUtilization.get();
+    boolean busCongested = busUtilization > congestedBusUtilization;
+
+    if (moving) {
+      lastMovingTimestamp = now;
+    }
+
+    Tier tier;
+    if (DriverStation.isDisabled()) {
+      tier = Tier.Idle;
+    } else if (now - lastMovingTimestamp < MOVING_HOLD_SECONDS) {
+      tier = Tier.Moving;
+    } else {
+      tier = Tier.Holding;
+    }
+
+    Logger.recordOutput(busUtilizationKey, busUtilization);
+    Logger.recordOutput(tierKey, tier);
+
+    if (tier == appliedTier && busCongested == appliedBusCongested && !resendRequested) {
+      return;
+    }
+    appliedTier = tier;
+    appliedBusCongested = busCongested;
+    resendRequested = false;
+
+    // A timeout of 0 sends the new frequency without blocking until it's acknowledged
+    for (int i = 0; i < criticalSignals.size(); i++) {
+      double nominalFrequency = criticalNominalFrequencies.get(i);
+      double frequency;
+      if (nominalFrequency == 0.0) {
+        frequency = 0.0;
+      } else if (tier == Tier.Idle) {
+        frequency = idleFrequencyHz;
+      } else if (tier == Tier.Moving) {
+        frequency = Math.max(nominalFrequency, movingFrequencyHz);
+      } else {
+        frequency = nominalFrequency;
+      }
+
+      criticalSignals.get(i).setUpdateFrequency(frequency, 0.0);
+    }
+
+    for (int i = 0; i < diagnosticSignals.size(); i++) {
+      double nominalFrequency = diagnosticNominalFrequencies.get(i);
+      double frequency;
+      if (nominalFrequency == 0.0) {
+        frequency = 0.0;
+      } else if (tier == Tier.Idle) {
+        frequency = idleFrequencyHz;
+      } else if (busCongested) {
+        frequency = Math.min(nominalFrequency, congestedDiagnosticFrequencyHz);
+      } else {
+        frequency = nominalFrequency;
+      }
+
+      diagnosticSignals.get(i).setUpdateFrequency(frequency, 0.0);
+    }
+  }
+
+  /**
+   * Send the current tier's frequencies again on the next update, even if the tier hasn't changed.
+   * This should be called after a device that reset (and so returned its signals to their default
+   * frequencies) has been reconfigured.
+   */
+  public void resendRates() {
+    resendRequested = true;
+  }
+
+  /** Get the tier the signal frequencies are currently set for */
+  public Tier getTier() {
+    return appliedTier;
+  }
+}
\ No newline at end of file
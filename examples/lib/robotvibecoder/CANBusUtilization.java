@@ -0,0 +1,74 @@
+package frc.robot.lib.robotvibecoder;
+
+import com.ctre.phoenix6.CANBus;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The utilization of a CAN bus, polled in the background.
+ *
+ * <p>Reading a bus's status is a blocking call, so it never happens in the main loop. Every bus is
+ * polled once per period by a single daemon thread shared by all of them, however many mechanisms
+ * are on each bus, and the latest utilization is published through a volatile field that the loop
+ * only reads.
+ */
+public final class CANBusUtilization {
+  /** How often each bus's utilization is read */
+  private static final long POLL_PERIOD_MILLIS = 1000;
+
+  private static final Map<String, CANBusUtilization> buses = new ConcurrentHashMap<>();
+  private static Thread pollThread = null;
+
+  private final CANBus canBus;
+  private volatile double utilization = 0.0;
+
+  private CANBusUtilization(String canBusName) {
+    canBus = new CANBus(canBusName);
+  }
+
+  /**
+   * Get the utilization of a CAN bus, starting to poll it if it isn't already. Every call with the
+   * same bus name returns the same object.
+   *
+   * @param canBusName The name of the bus, e.g. "canivore", or "rio" for the roboRIO's bus
+   * @return The bus's utilization, polled in the background
+   */
+  public static CANBusUtilization of(String canBusName) {
+    CANBusUtilization bus = buses.computeIfAbsent(canBusName, CANBusUtilization::new);
+    startPolling();
+    return bus;
+  }
+
+  /**
+   * Get the bus's utilization as of the last time it was polled. This never blocks.
+   *
+   * @return The utilization between 0 and 1, or 0 if the bus hasn't been polled yet
+   */
+  public double get() {
+    return utilization;
+  }
+
+  private static synchronized void startPolling() {
+    if (pollThread != null) {
+      return;
+    }
+
+    pollThread = new Thread(CANBusUtilization::poll, "CANBusUtilization");
+    pollThread.setDaemon(true);
+    pollThread.start();
+  }
+
+  private static void poll() {
+    try {
+      while (true) {
+        for (CANBusUtilization bus : buses.values()) {
+          bus.utilization = bus.canBus.getStatus().BusUtilization;
+        }
+
+        Thread.sleep(POLL_PERIOD_MILLIS);
+      }
+    } catch (InterruptedException e) {
+      // The robot program is shutting down
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the constants of every mechanism in parallel at startup.
+ *
+ * <p>Each generated constants class parses its JSON files and builds its objects through
+ * reflection, which is mostly file I/O and can take a noticeable amount of time per mechanism.
+ * Loading them one after another, whenever robot init first touches each one, adds all of that up.
+ * Calling {@link #loadAll} once at the start of robot init overlaps it instead:
+ *
+ * <pre>ConstantsBootstrap.loadAll(ElevatorConstants::load, WristConstants::load);</pre>
+ */
+public final class ConstantsBootstrap {
+  private ConstantsBootstrap() {}
+
+  /**
+   * Run every loader in parallel and wait for all of them to finish
+   *
+   * @param loaders The generated [Name]Constants::load methods of every mechanism
+   * @return How long loading took, in seconds
+   * @throws RuntimeException If any loader failed. Every loader still runs to completion first, so
+   *     that one bad file doesn't hide the others.
+   */
+  public static double loadAll(Runnable... loaders) {
+    long startNanos = System.nanoTime();
+    if (loaders.length == 0) {
+      return 0.0;
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(loaders.length, Runtime.getRuntime().availableProcessors()),
+            (runnable) -> {
+              Thread thread = new Thread(runnable, "ConstantsBootstrap");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    RuntimeException failure = null;
+    try {
+      Future<?>[] loads = new Future<?>[loaders.length];
+      for (int i = 0; i < loaders.length; i++) {
+        loads[i] = executor.submit(loaders[i]);
+      }
+
+      for (Future<?> load : loads) {
+        try {
+          load.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = new RuntimeException("Failed to load mechanism constants", e.getCause());
+          } else {
+            failure.addSuppressed(e.getCause());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while loading mechanism constants", e);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+
+    double loadSeconds = (System.nanoTime() - startNanos) / 1e9;
+    DriverStation.reportWarning(
+        String.format("Loaded constants of %d mechanisms in %.3f s", loaders.length, loadSeconds),
+        false);
+    return loadSeconds;
+  }
+}
\ No newline at end of file
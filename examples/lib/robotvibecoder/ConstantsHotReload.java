@@ -0,0 +1,121 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads constants files while robot code is running, without blocking the main loop.
+ *
+ * <p>A background thread watches the constants directory. When a registered file changes, it runs
+ * that file's reload callback on the same thread, so parsing never happens in the main loop.
+ * Callbacks are expected to only record what changed. The mechanism then applies it at the start
+ * of its next periodic(), the same way dashboard tunables are applied.
+ *
+ * <p>Editors often write a file in several steps, so changes are debounced, and a file that fails to
+ * parse is reported and skipped until it's saved again.
+ */
+public final class ConstantsHotReload {
+  /** How long a file must stop changing before it's reloaded */
+  private static final long DEBOUNCE_MILLIS = 100;
+
+  private static final Map<String, Runnable> reloaders = new ConcurrentHashMap<>();
+  private static Thread watchThread = null;
+
+  private ConstantsHotReload() {}
+
+  /**
+   * Reload a constants file whenever it changes. Registering the same file again replaces its
+   * callback.
+   *
+   * @param fileName The name of the file in the watched directory, e.g. "ElevatorConstants.json"
+   * @param reload Reloads the file and records what changed. This runs on the watcher thread.
+   */
+  public static void register(String fileName, Runnable reload) {
+    reloaders.put(fileName, reload);
+  }
+
+  /**
+   * Start watching a directory for changes to registered files. This should be called once from
+   * robotInit, only in builds that should be tunable. Later calls do nothing.
+   *
+   * @param directory The directory the constants files are loaded from
+   */
+  public static synchronized void start(Path directory) {
+    if (watchThread != null) {
+      return;
+    }
+
+    WatchService watchService;
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+      directory.register(
+          watchService,
+          StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      DriverStation.reportWarning(
+          "Can't watch " + directory + " for constants changes: " + e.getMessage(), false);
+      return;
+    }
+
+    watchThread = new Thread(() -> watch(watchService), "ConstantsHotReload");
+    watchThread.setDaemon(true);
+    watchThread.start();
+  }
+
+  private static void watch(WatchService watchService) {
+    Set<String> changedFiles = new HashSet<>();
+
+    try {
+      while (true) {
+        collectChanges(watchService.take(), changedFiles);
+
+        // Wait for the writes to settle so that a half-written file isn't parsed
+        WatchKey key;
+        while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+          collectChanges(key, changedFiles);
+        }
+
+        for (String fileName : changedFiles) {
+          reload(fileName);
+        }
+        changedFiles.clear();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // The robot program is shutting down
+    }
+  }
+
+  private static void collectChanges(WatchKey key, Set<String> changedFiles) {
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.context() instanceof Path path) {
+        String fileName = path.getFileName().toString();
+        if (reloaders.containsKey(fileName)) {
+          changedFiles.add(fileName);
+        }
+      }
+    }
+    key.reset();
+  }
+
+  private static void reload(String fileName) {
+    try {
+      reloaders.get(fileName).run();
+    } catch (Exception e) {
+      DriverStation.reportWarning(
+          "Failed to reload " + fileName + ", keeping the previous constants: " + e, false);
+    }
+  }
+}
\ No newline at end of file
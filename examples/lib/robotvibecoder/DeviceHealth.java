@@ -0,0 +1,188 @@
+package frc.robot.lib.robotvibecoder;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Tracks whether a CTRE device is reachable and configured, so that IOs can skip blocking calls to
+ * devices that have dropped off the bus.
+ *
+ * <p>A device is unhealthy from the moment its status signal stops arriving (or it reports a
+ * reset) until its full configuration has been reapplied. Reapplying blocks until the device
+ * acknowledges it, so it runs on a background thread shared by every device, and the main loop
+ * never waits on a device that isn't there.
+ *
+ * <p>How old the status signal may get depends on the rate it's currently sent at, since signal
+ * rates are lowered while the robot is disabled.
+ */
+public class DeviceHealth {
+  /** How many consecutive frames of the status signal may be missed before it's disconnected */
+  private static final double DISCONNECT_MISSED_FRAMES = 3.0;
+
+  /** Added to the disconnect timeout to absorb jitter in when frames arrive */
+  private static final double DISCONNECT_TIMEOUT_MARGIN_SECONDS = 0.05;
+
+  private static final ExecutorService reconfigureExecutor =
+      Executors.newSingleThreadExecutor(
+          (runnable) -> {
+            Thread thread = new Thread(runnable, "DeviceHealth reconfigure");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final ParentDevice device;
+  private final BaseStatusSignal signal;
+  private final Supplier<StatusCode> reconfigure;
+  private final Runnable onReconfigured;
+
+  private final String healthyKey;
+  private final String reconnectLatencyKey;
+  private final String disconnectedWarning;
+  private final String reconnectedWarning;
+
+  private boolean healthy = true;
+  private double unhealthyTimestamp = 0.0;
+  private double disconnectTimeoutSeconds = Double.POSITIVE_INFINITY;
+
+  // Only touched by the main thread
+  private Future<StatusCode> pendingReconfigure = null;
+  private boolean configChangedWhileReconfiguring = false;
+
+  /**
+   * Create a new DeviceHealth. The device is assumed to be healthy and configured when this is
+   * created.
+   *
+   * @param logPrefix The prefix to log the device's health under, e.g. "Elevator/leadMotor"
+   * @param device The device to track
+   * @param signal A status signal of the device that is refreshed every loop, used to tell whether
+   *     the device is still sending frames
+   * @param reconfigure Applies the device's full configuration and returns the result. This runs on
+   *     a background thread, so it may block.
+   * @param onReconfigured Called on the main thread once the device has been reconfigured, e.g. to
+   *     resend status signal rates that a reset returned to their defaults
+   */
+  public DeviceHealth(
+      String logPrefix,
+      ParentDevice device,
+      BaseStatusSignal signal,
+      Supplier<StatusCode> reconfigure,
+      Runnable onReconfigured) {
+    this.device = device;
+    this.signal = signal;
+    this.reconfigure = reconfigure;
+    this.onReconfigured = onReconfigured;
+
+    healthyKey = logPrefix + "/healthy";
+    reconnectLatencyKey = logPrefix + "/reconnectLatencySeconds";
+    disconnectedWarning = logPrefix + " disconnected or reset, skipping calls to it until it returns";
+    reconnectedWarning = logPrefix + " reconnected and was reconfigured";
+  }
+
+  /**
+   * Update the device's health from its status signal. This should be called once per loop, after
+   * the signal has been refreshed.
+   */
+  public void update() {
+    double now = Timer.getFPGATimestamp();
+
+    double latency = signal.getTimestamp().getLatency();
+    updateDisconnectTimeout(latency);
+
+    boolean connected = signal.getStatus().isOK() && latency < disconnectTimeoutSeconds;
+    // hasResetOccurred clears the flag, so it's only checked while the device is reachable
+    boolean reset = connected && device.hasResetOccurred();
+
+    if (healthy && (!connected || reset)) {
+      healthy = false;
+      unhealthyTimestamp = now;
+      DriverStation.reportWarning(disconnectedWarning, false);
+    }
+
+    if (!healthy && connected) {
+      updateReconfigure(now);
+    }
+
+    Logger.recordOutput(healthyKey, healthy);
+  }
+
+  /**
+   * Base the disconnect timeout on the rate the status signal is sent at. A signal that's disabled
+   * can't time out, so only its status is checked.
+   */
+  private void updateDisconnectTimeout(double latency) {
+    double frequencyHz = signal.getAppliedUpdateFrequency();
+    double timeoutSeconds = Double.POSITIVE_INFINITY;
+    if (frequencyHz > 0.0) {
+      timeoutSeconds = DISCONNECT_MISSED_FRAMES / frequencyHz + DISCONNECT_TIMEOUT_MARGIN_SECONDS;
+    }
+
+    // Frames sent before the rate was raised still arrive at the old rate, so the timeout only
+    // shrinks once a frame has arrived within it
+    if (timeoutSeconds >= disconnectTimeoutSeconds || latency < timeoutSeconds) {
+      disconnectTimeoutSeconds = timeoutSeconds;
+    }
+  }
+
+  /** Start reapplying the device's configuration, or check on a reapply that's in progress */
+  private void updateReconfigure(double now) {
+    if (pendingReconfigure == null) {
+      configChangedWhileReconfiguring = false;
+      pendingReconfigure = reconfigureExecutor.submit(reconfigure::get);
+      return;
+    }
+
+    if (!pendingReconfigure.isDone()) {
+      return;
+    }
+
+    StatusCode result;
+    try {
+      result = pendingReconfigure.get();
+    } catch (Exception e) {
+      result = StatusCode.GeneralError;
+    }
+    pendingReconfigure = null;
+
+    // Try again next loop if it failed, or if the configuration changed after it was sent
+    if (!result.isOK() || configChangedWhileReconfiguring) {
+      return;
+    }
+
+    healthy = true;
+    onReconfigured.run();
+    Logger.recordOutput(reconnectLatencyKey, now - unhealthyTimestamp);
+    DriverStation.reportWarning(reconnectedWarning, false);
+  }
+
+  /**
+   * Check whether the device is connected and configured
+   *
+   * @return True if calls to the device can be made without blocking on a missing device
+   */
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  /**
+   * Apply a configuration change to the device if it's healthy. Otherwise, the change is skipped
+   * rather than blocking, and it's included when the device's full configuration is reapplied.
+   *
+   * @param apply Applies the change and returns the result. This must only change configuration
+   *     that reconfigure also applies.
+   */
+  public void applyIfHealthy(Supplier<StatusCode> apply) {
+    if (healthy) {
+      apply.get();
+    } else if (pendingReconfigure != null) {
+      configChangedWhileReconfiguring = true;
+    }
+  }
+}
\ No newline at end of file
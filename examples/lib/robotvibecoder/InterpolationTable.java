@@ -0,0 +1,89 @@
+package frc.robot.lib.robotvibecoder;
+
+import java.util.Arrays;
+
+/**
+ * A piecewise-linear lookup table that never allocates.
+ *
+ * <p>The table is given as (key, value) points with increasing keys, e.g. straight from a constants
+ * JSON file. It keeps its own copy of the points in flat primitive arrays, and a lookup binary
+ * searches them for the points around the key and interpolates between those two. Every point is
+ * kept exactly, so lookups at a point return its value and corners aren't rounded, and a lookup
+ * costs O(log n) in the number of points.
+ *
+ * <p>Keys outside the table are clamped to its first or last value. An empty table always returns
+ * 0.
+ */
+public class InterpolationTable {
+  private final double[] keys;
+  private final double[] values;
+
+  /**
+   * Create a lookup table
+   *
+   * @param keys The keys of the table's points, strictly increasing
+   * @param values The values of the table's points, one per key
+   * @throws IllegalArgumentException If keys and values differ in length or keys aren't strictly
+   *     increasing
+   */
+  public InterpolationTable(double[] keys, double[] values) {
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException(
+          "Interpolation table has "
+              + keys.length
+              + " keys but "
+              + values.length
+              + " values, they must match");
+    }
+
+    for (int i = 1; i < keys.length; i++) {
+      double spacing = keys[i] - keys[i - 1];
+      if (!(spacing > 0.0)) {
+        throw new IllegalArgumentException(
+            "Interpolation table keys must be strictly increasing, but key "
+                + i
+                + " ("
+                + keys[i]
+                + ") is not greater than key "
+                + (i - 1)
+                + " ("
+                + keys[i - 1]
+                + ")");
+      }
+    }
+
+    this.keys = keys.clone();
+    this.values = values.clone();
+  }
+
+  /**
+   * Look up the value at a key
+   *
+   * @param key The key to look up
+   * @return The value at key, interpolated between the points around it
+   */
+  public double get(double key) {
+    if (keys.length == 0) {
+      return 0.0;
+    }
+
+    // NaN keys fall through to the first value, like keys below the table
+    if (!(key > keys[0])) {
+      return values[0];
+    }
+    if (key >= keys[keys.length - 1]) {
+      return values[values.length - 1];
+    }
+
+    // The key is strictly inside the table, so there's a point on either side of it
+    int index = Arrays.binarySearch(keys, key);
+    if (index >= 0) {
+      return values[index];
+    }
+
+    int upper = -index - 1;
+    int lower = upper - 1;
+    double fraction = (key - keys[lower]) / (keys[upper] - keys[lower]);
+    return values[lower] + (values[upper] - values[lower]) * fraction;
+  }
+}
\ No newline at end of file
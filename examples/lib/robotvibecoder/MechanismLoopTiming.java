@@ -0,0 +1,216 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Times each phase of a generated mechanism's periodic() with a monotonic clock.
+ *
+ * <p>Samples are collected into log-scaled histograms backed by primitive arrays, so recording a
+ * sample never allocates and percentiles are accurate to a few percent whether a phase takes
+ * nanoseconds or milliseconds. Once per report period the p50, p99 and max of each phase are logged, and
+ * any phase whose slowest sample exceeded the budget is flagged.
+ */
+public class MechanismLoopTiming {
+  public static final int SEND_GOAL = 0;
+  public static final int UPDATE_INPUTS = 1;
+  public static final int APPLY_OUTPUTS = 2;
+  public static final int PROCESS_INPUTS = 3;
+  public static final int THERMAL = 4;
+  public static final int MOVE_METRICS = 5;
+
+  private static final String[] PHASE_NAMES = {
+    "sendGoalToIO", "updateInputs", "applyOutputs", "processInputs", "thermal", "moveMetrics"
+  };
+  private static final int PHASE_COUNT = PHASE_NAMES.length;
+
+  /**
+   * Every power of two is split into 2^SUB_BUCKET_BITS equal buckets, so a bucket is at most 1/16 as
+   * wide as the values in it
+   */
+  private static final int SUB_BUCKET_BITS = 4;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * Number of buckets per phase, covering up to 2^27 ns (about 134 ms). Samples past the last
+   * bucket are counted in the last bucket.
+   */
+  private static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (28 - SUB_BUCKET_BITS);
+
+  private static final long REPORT_PERIOD_NANOS = 1_000_000_000;
+
+  private final long[][] buckets = new long[PHASE_COUNT][BUCKET_COUNT];
+  private final long[] sampleCounts = new long[PHASE_COUNT];
+  private final long[] maxNanos = new long[PHASE_COUNT];
+
+  private final String mechanismName;
+
+  // Replaced when the budget is changed, which may happen on another thread
+  private volatile long budgetNanos;
+  private volatile String[] overBudgetWarnings;
+
+  // Keys are built once so that reporting doesn't concatenate strings
+  private final String[] p50Keys = new String[PHASE_COUNT];
+  private final String[] p99Keys = new String[PHASE_COUNT];
+  private final String[] maxKeys = new String[PHASE_COUNT];
+  private final String[] overBudgetKeys = new String[PHASE_COUNT];
+
+  private boolean warningsEnabled = true;
+
+  private long phaseStartNanos = System.nanoTime();
+  private long lastReportNanos = System.nanoTime();
+
+  /**
+   * Create a new MechanismLoopTiming
+   *
+   * @param mechanismName The name of the mechanism being timed, used in warnings, e.g. "Elevator"
+   * @param logPrefix The prefix to log timing results under, e.g. "Elevator/LoopTiming"
+   * @param budgetMicros The longest a single phase may take before it is flagged, in microseconds
+   */
+  public MechanismLoopTiming(String mechanismName, String logPrefix, double budgetMicros) {
+    this.mechanismName = mechanismName;
+
+    for (int phase = 0; phase < PHASE_COUNT; phase++) {
+      String phaseKey = logPrefix + "/" + PHASE_NAMES[phase];
+
+      p50Keys[phase] = phaseKey + "/p50Micros";
+      p99Keys[phase] = phaseKey + "/p99Micros";
+      maxKeys[phase] = phaseKey + "/maxMicros";
+      overBudgetKeys[phase] = phaseKey + "/overBudget";
+    }
+
+    setBudgetMicros(budgetMicros);
+  }
+
+  /**
+   * Set the longest a single phase may take before it is flagged. This builds the warnings that
+   * mention the budget, so it allocates, but it can be called from any thread, e.g. the
+   * ConstantsHotReload thread when constants are reloaded.
+   *
+   * @param budgetMicros The new budget, in microseconds
+   */
+  public void setBudgetMicros(double budgetMicros) {
+    String[] warnings = new String[PHASE_COUNT];
+    for (int phase = 0; phase < PHASE_COUNT; phase++) {
+      warnings[phase] =
+          mechanismName
+              + "Mechanism "
+              + PHASE_NAMES[phase]
+              + " exceeded its loop budget of "
+              + budgetMicros
+              + "us";
+    }
+
+    overBudgetWarnings = warnings;
+    budgetNanos = (long) (budgetMicros * 1000.0);
+  }
+
+  /**
+   * Set whether phases that exceed the budget are reported to the Driver Station. They are still
+   * flagged in the log either way.
+   */
+  public void setWarningsEnabled(boolean enabled) {
+    warningsEnabled = enabled;
+  }
+
+  /** Mark the start of the first phase of a loop */
+  public void start() {
+    phaseStartNanos = System.nanoTime();
+  }
+
+  /**
+   * Record the time since the previous phase ended (or since start()) as the duration of phase, and
+   * start timing the next phase.
+   *
+   * @param phase The phase that just ended, e.g. MechanismLoopTiming.UPDATE_INPUTS
+   */
+  public void lap(int phase) {
+    long now = System.nanoTime();
+    long elapsed = now - phaseStartNanos;
+    phaseStartNanos = now;
+
+    buckets[phase][bucketOf(elapsed)]++;
+    sampleCounts[phase]++;
+    if (elapsed > maxNanos[phase]) {
+      maxNanos[phase] = elapsed;
+    }
+  }
+
+  /** Log the statistics of each phase and reset the histograms if a report period has passed */
+  public void reportIfDue() {
+    long now = System.nanoTime();
+    if (now - lastReportNanos < REPORT_PERIOD_NANOS) {
+      return;
+    }
+    lastReportNanos = now;
+
+    for (int phase = 0; phase < PHASE_COUNT; phase++) {
+      if (sampleCounts[phase] == 0) {
+        continue;
+      }
+
+      boolean overBudget = maxNanos[phase] > budgetNanos;
+
+      Logger.recordOutput(p50Keys[phase], percentileMicros(phase, 0.50));
+      Logger.recordOutput(p99Keys[phase], percentileMicros(phase, 0.99));
+      Logger.recordOutput(maxKeys[phase], maxNanos[phase] / 1000.0);
+      Logger.recordOutput(overBudgetKeys[phase], overBudget);
+      if (overBudget && warningsEnabled) {
+        DriverStation.reportWarning(overBudgetWarnings[phase], false);
+      }
+
+      Arrays.fill(buckets[phase], 0);
+      sampleCounts[phase] = 0;
+      maxNanos[phase] = 0;
+    }
+  }
+
+  /**
+   * Find the bucket a duration falls in. Durations below SUB_BUCKET_COUNT ns get a bucket each, and
+   * above that each power of two is split into SUB_BUCKET_COUNT buckets.
+   */
+  private static int bucketOf(long nanos) {
+    if (nanos < SUB_BUCKET_COUNT) {
+      return (int) Math.max(nanos, 0);
+    }
+
+    int shift = (63 - Long.numberOfLeadingZeros(nanos)) - SUB_BUCKET_BITS;
+    int subBucket = (int) (nanos >> shift) - SUB_BUCKET_COUNT;
+    return Math.min(SUB_BUCKET_COUNT * (shift + 1) + subBucket, BUCKET_COUNT - 1);
+  }
+
+  /** Find the exclusive upper edge of a bucket, in nanoseconds */
+  private static long bucketUpperEdgeNanos(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket + 1;
+    }
+
+    int shift = bucket / SUB_BUCKET_COUNT - 1;
+    long subBucket = bucket % SUB_BUCKET_COUNT;
+    return (SUB_BUCKET_COUNT + subBucket + 1) << shift;
+  }
+
+  /**
+   * Find the upper edge of the bucket containing the given percentile of a phase's samples, capped
+   * at the slowest sample so that a percentile is never reported above the max.
+   *
+   * @param phase The phase to read samples from
+   * @param percentile The percentile to find, between 0 and 1
+   * @return The percentile in microseconds, accurate to the width of its bucket
+   */
+  private double percentileMicros(int phase, double percentile) {
+    long target = (long) Math.ceil(sampleCounts[phase] * percentile);
+    long seen = 0;
+
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      seen += buckets[phase][bucket];
+      if (seen >= target) {
+        return Math.min(bucketUpperEdgeNanos(bucket), maxNanos[phase]) / 1000.0;
+      }
+    }
+
+    return maxNanos[phase] / 1000.0;
+  }
+}
\ No newline at end of file
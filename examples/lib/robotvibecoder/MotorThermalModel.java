@@ -0,0 +1,209 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * A first-order thermal model of a motor, driven by stator current.
+ *
+ * <p>The motor heats up in proportion to the square of its stator current and cools in proportion
+ * to how far it is above ambient:
+ *
+ * <pre>dT/dt = heating * I^2 - cooling * (T - ambient)</pre>
+ *
+ * <p>The estimate is integrated every loop and pulled toward the measured temperature whenever one
+ * is available, since device temperature is only reported slowly and in coarse steps. Because the
+ * model is linear in its coefficients, they can be fitted from logged current and temperature with
+ * {@link #fit}.
+ */
+public class MotorThermalModel {
+  /**
+   * Time constant of the correction toward measured temperature. Long enough that coarse, slow
+   * measurements don't make the estimate jump, short enough that model error doesn't accumulate.
+   */
+  private static final double MEASUREMENT_TIME_CONSTANT_SECONDS = 5.0;
+
+  private double heatingCoefficient;
+  private double coolingCoefficient;
+  private double ambientCelsius;
+
+  private double estimatedCelsius;
+  private double lastTimestamp = Double.NaN;
+
+  /**
+   * Create a new MotorThermalModel
+   *
+   * @param heatingCoefficient Temperature rise per second per amp squared of stator current, in
+   *     degrees Celsius per A^2*s
+   * @param coolingCoefficient Fraction of the difference from ambient lost per second
+   * @param ambientCelsius The temperature the motor cools toward, in degrees Celsius
+   */
+  public MotorThermalModel(
+      double heatingCoefficient, double coolingCoefficient, double ambientCelsius) {
+    this.heatingCoefficient = heatingCoefficient;
+    this.coolingCoefficient = coolingCoefficient;
+    this.ambientCelsius = ambientCelsius;
+
+    estimatedCelsius = ambientCelsius;
+  }
+
+  /**
+   * Replace the model's coefficients, e.g. when constants are reloaded. The estimated temperature is
+   * kept, so the model carries on from where it was.
+   *
+   * @param heatingCoefficient Temperature rise per second per amp squared of stator current, in
+   *     degrees Celsius per A^2*s
+   * @param coolingCoefficient Fraction of the difference from ambient lost per second
+   * @param ambientCelsius The temperature the motor cools toward, in degrees Celsius
+   */
+  public void setCoefficients(
+      double heatingCoefficient, double coolingCoefficient, double ambientCelsius) {
+    this.heatingCoefficient = heatingCoefficient;
+    this.coolingCoefficient = coolingCoefficient;
+    this.ambientCelsius = ambientCelsius;
+  }
+
+  /**
+   * Advance the model to now. This should be called once per loop.
+   *
+   * @param statorCurrentAmps The motor's stator current over the last loop, in amps
+   * @param measuredCelsius The motor's latest reported temperature, in degrees Celsius, or NaN if
+   *     it isn't known
+   */
+  public void update(double statorCurrentAmps, double measuredCelsius) {
+    double now = Timer.getFPGATimestamp();
+    if (Double.isNaN(lastTimestamp)) {
+      // The motor may already be warm (e.g. after a code restart), so start from its temperature
+      lastTimestamp = now;
+      if (!Double.isNaN(measuredCelsius)) {
+        estimatedCelsius = measuredCelsius;
+      }
+      return;
+    }
+    double dt = now - lastTimestamp;
+    lastTimestamp = now;
+
+    estimatedCelsius +=
+        dt
+            * (heatingCoefficient * statorCurrentAmps * statorCurrentAmps
+                - coolingCoefficient * (estimatedCelsius - ambientCelsius));
+
+    if (!Double.isNaN(measuredCelsius)) {
+      double gain = 1.0 - Math.exp(-dt / MEASUREMENT_TIME_CONSTANT_SECONDS);
+      estimatedCelsius += gain * (measuredCelsius - estimatedCelsius);
+    }
+  }
+
+  /** Get the current estimated temperature, in degrees Celsius */
+  public double getEstimatedCelsius() {
+    return estimatedCelsius;
+  }
+
+  /**
+   * Predict the temperature after holding a constant stator current for some time
+   *
+   * @param horizonSeconds How far ahead to predict, in seconds
+   * @param statorCurrentAmps The stator current to assume, in amps
+   * @return The predicted temperature, in degrees Celsius
+   */
+  public double predictCelsius(double horizonSeconds, double statorCurrentAmps) {
+    double heatingRate = heatingCoefficient * statorCurrentAmps * statorCurrentAmps;
+
+    if (coolingCoefficient <= 0.0) {
+      return estimatedCelsius + heatingRate * horizonSeconds;
+    }
+
+    // Closed-form solution of the model for a constant current
+    double steadyStateCelsius = ambientCelsius + heatingRate / coolingCoefficient;
+    return steadyStateCelsius
+        + (estimatedCelsius - steadyStateCelsius) * Math.exp(-coolingCoefficient * horizonSeconds);
+  }
+
+  /**
+   * Get how much the motor's output should be derated so that it doesn't overheat
+   *
+   * @param horizonSeconds How far ahead to predict, in seconds
+   * @param statorCurrentAmps The stator current to assume, in amps
+   * @param derateStartCelsius Predicted temperature at which derating starts
+   * @param derateEndCelsius Predicted temperature at which the output is fully derated
+   * @param minFactor The factor to derate to at derateEndCelsius, between 0 and 1
+   * @return A factor between minFactor and 1 to scale current limits and profile constraints by
+   */
+  public double getDerateFactor(
+      double horizonSeconds,
+      double statorCurrentAmps,
+      double derateStartCelsius,
+      double derateEndCelsius,
+      double minFactor) {
+    double predictedCelsius = predictCelsius(horizonSeconds, statorCurrentAmps);
+
+    double progress =
+        (predictedCelsius - derateStartCelsius) / (derateEndCelsius - derateStartCelsius);
+    progress = Math.max(0.0, Math.min(1.0, progress));
+
+    return 1.0 - progress * (1.0 - minFactor);
+  }
+
+  /**
+   * Fit the model's coefficients to logged data with least squares
+   *
+   * <p>Samples should be evenly spaced and span both heating (e.g. a match) and cooling (e.g. the
+   * robot sitting disabled afterward), otherwise the coefficients can't be told apart.
+   *
+   * @param timestamps Time of each sample, in seconds
+   * @param statorCurrentsAmps Stator current at each sample, in amps
+   * @param temperaturesCelsius Measured temperature at each sample, in degrees Celsius
+   * @param ambientCelsius The ambient temperature during the log, in degrees Celsius
+   * @return A model with the fitted coefficients
+   */
+  public static MotorThermalModel fit(
+      double[] timestamps,
+      double[] statorCurrentsAmps,
+      double[] temperaturesCelsius,
+      double ambientCelsius) {
+    // Regress dT/dt = heating * x - cooling * y, where x = I^2 and y = T - ambient
+    double sumXX = 0.0;
+    double sumXY = 0.0;
+    double sumYY = 0.0;
+    double sumXD = 0.0;
+    double sumYD = 0.0;
+
+    for (int i = 0; i + 1 < timestamps.length; i++) {
+      double dt = timestamps[i + 1] - timestamps[i];
+      if (dt <= 0.0) {
+        continue;
+      }
+
+      double x = statorCurrentsAmps[i] * statorCurrentsAmps[i];
+      double y = temperaturesCelsius[i] - ambientCelsius;
+      double d = (temperaturesCelsius[i + 1] - temperaturesCelsius[i]) / dt;
+
+      sumXX += x * x;
+      sumXY += x * y;
+      sumYY += y * y;
+      sumXD += x * d;
+      sumYD += y * d;
+    }
+
+    // Solve the 2x2 normal equations for [heating, -cooling]
+    double determinant = sumXX * sumYY - sumXY * sumXY;
+    if (determinant == 0.0) {
+      throw new IllegalArgumentException(
+          "Thermal model can't be fitted: the log needs both heating and cooling");
+    }
+
+    double heating = (sumXD * sumYY - sumYD * sumXY) / determinant;
+    double cooling = -(sumYD * sumXX - sumXD * sumXY) / determinant;
+
+    return new MotorThermalModel(heating, cooling, ambientCelsius);
+  }
+
+  /** Get the heating coefficient, in degrees Celsius per A^2*s */
+  public double getHeatingCoefficient() {
+    return heatingCoefficient;
+  }
+
+  /** Get the cooling coefficient, as a fraction of the difference from ambient lost per second */
+  public double getCoolingCoefficient() {
+    return coolingCoefficient;
+  }
+}
\ No newline at end of file
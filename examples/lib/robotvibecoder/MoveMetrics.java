@@ -0,0 +1,254 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Measures how well each move of a generated mechanism goes, live on the robot.
+ *
+ * <p>A move starts whenever the goal changes by more than the settle tolerance. It ends once the
+ * mechanism has stayed within tolerance of its goal for the settle time, or once it times out. When
+ * a move ends, its rise time, settle time, overshoot, RMS following error and peak current are
+ * logged, along with rolling statistics over the last few moves. A mechanism that gets slower or
+ * less accurate over an event (e.g. from added friction or a loose belt) shows up in the log while
+ * it's happening instead of in offline analysis.
+ *
+ * <p>The move in progress is measured in primitive fields, and the history of finished moves is
+ * kept in preallocated arrays, so updating never allocates.
+ */
+public class MoveMetrics {
+  /** Number of recent finished moves the rolling statistics cover */
+  private static final int HISTORY_LENGTH = 20;
+
+  /** Rise time is measured between these fractions of the way from the start to the goal */
+  private static final double RISE_START_FRACTION = 0.1;
+
+  private static final double RISE_END_FRACTION = 0.9;
+
+  private final double[] riseTimeHistory = new double[HISTORY_LENGTH];
+  private final double[] settleTimeHistory = new double[HISTORY_LENGTH];
+  private final double[] overshootHistory = new double[HISTORY_LENGTH];
+  private final double[] rmsFollowingErrorHistory = new double[HISTORY_LENGTH];
+  private final double[] peakCurrentHistory = new double[HISTORY_LENGTH];
+  private int nextHistoryIndex = 0;
+  private int historyCount = 0;
+
+  private double goalRotations = Double.NaN;
+
+  private boolean inMove = false;
+  private double moveStartSeconds;
+  private double startRotations;
+  private double riseStartSeconds;
+  private double riseEndSeconds;
+  private double lastOutsideToleranceSeconds;
+  private double overshootRotations;
+  private double sumSquaredFollowingError;
+  private int samples;
+  private double peakCurrentAmps;
+
+  private long finishedMoves = 0;
+  private long timedOutMoves = 0;
+  private long interruptedMoves = 0;
+
+  // Keys are built once so that logging doesn't concatenate strings
+  private final String riseTimeKey;
+  private final String settleTimeKey;
+  private final String overshootKey;
+  private final String rmsFollowingErrorKey;
+  private final String peakCurrentKey;
+  private final String distanceKey;
+  private final String timedOutKey;
+  private final String meanRiseTimeKey;
+  private final String meanSettleTimeKey;
+  private final String maxSettleTimeKey;
+  private final String maxOvershootKey;
+  private final String meanRmsFollowingErrorKey;
+  private final String maxPeakCurrentKey;
+  private final String finishedMovesKey;
+  private final String timedOutMovesKey;
+  private final String interruptedMovesKey;
+
+  /**
+   * Create a new MoveMetrics
+   *
+   * @param logPrefix The prefix to log results under, e.g. "Elevator/MoveMetrics"
+   */
+  public MoveMetrics(String logPrefix) {
+    String lastMovePrefix = logPrefix + "/lastMove";
+    riseTimeKey = lastMovePrefix + "/riseTimeSeconds";
+    settleTimeKey = lastMovePrefix + "/settleTimeSeconds";
+    overshootKey = lastMovePrefix + "/overshootRotations";
+    rmsFollowingErrorKey = lastMovePrefix + "/rmsFollowingErrorRotations";
+    peakCurrentKey = lastMovePrefix + "/peakCurrentAmps";
+    distanceKey = lastMovePrefix + "/distanceRotations";
+    timedOutKey = lastMovePrefix + "/timedOut";
+
+    String rollingPrefix = logPrefix + "/rolling";
+    meanRiseTimeKey = rollingPrefix + "/meanRiseTimeSeconds";
+    meanSettleTimeKey = rollingPrefix + "/meanSettleTimeSeconds";
+    maxSettleTimeKey = rollingPrefix + "/maxSettleTimeSeconds";
+    maxOvershootKey = rollingPrefix + "/maxOvershootRotations";
+    meanRmsFollowingErrorKey = rollingPrefix + "/meanRmsFollowingErrorRotations";
+    maxPeakCurrentKey = rollingPrefix + "/maxPeakCurrentAmps";
+
+    finishedMovesKey = logPrefix + "/finishedMoves";
+    timedOutMovesKey = logPrefix + "/timedOutMoves";
+    interruptedMovesKey = logPrefix + "/interruptedMoves";
+  }
+
+  /**
+   * Measure the latest loop of the move in progress, starting a new move if the goal has changed.
+   * This should be called once per loop.
+   *
+   * @param goalRotations The goal the mechanism is controlling to, in rotations of its encoder
+   * @param positionRotations The position of the mechanism, in rotations of its encoder
+   * @param followingErrorRotations How far the mechanism is from its profile's current setpoint
+   * @param currentAmps The total stator current of the mechanism's motors
+   * @param settleToleranceRotations How close to the goal the mechanism must stay to be settled.
+   *     Goal changes smaller than this don't start a new move.
+   * @param settleTimeSeconds How long the mechanism must stay within tolerance to be settled
+   * @param timeoutSeconds How long a move may take before it's ended as timed out
+   */
+  public void update(
+      double goalRotations,
+      double positionRotations,
+      double followingErrorRotations,
+      double currentAmps,
+      double settleToleranceRotations,
+      double settleTimeSeconds,
+      double timeoutSeconds) {
+    double now = Timer.getFPGATimestamp();
+
+    if (Double.isNaN(this.goalRotations)) {
+      // The mechanism starts wherever it is, which isn't a move
+      this.goalRotations = goalRotations;
+      return;
+    }
+
+    if (Math.abs(goalRotations - this.goalRotations) > settleToleranceRotations) {
+      if (inMove) {
+        // A move cut short by a new goal can't be compared to finished ones, so it's only counted
+        interruptedMoves++;
+        Logger.recordOutput(interruptedMovesKey, interruptedMoves);
+      }
+      startMove(now, goalRotations, positionRotations);
+    }
+
+    if (!inMove) {
+      return;
+    }
+
+    double elapsedSeconds = now - moveStartSeconds;
+    double distanceRotations = this.goalRotations - startRotations;
+    double fractionTravelled = (positionRotations - startRotations) / distanceRotations;
+
+    if (Double.isNaN(riseStartSeconds) && fractionTravelled >= RISE_START_FRACTION) {
+      riseStartSeconds = elapsedSeconds;
+    }
+    if (Double.isNaN(riseEndSeconds) && fractionTravelled >= RISE_END_FRACTION) {
+      riseEndSeconds = elapsedSeconds;
+    }
+
+    overshootRotations =
+        Math.max(
+            overshootRotations,
+            Math.signum(distanceRotations) * (positionRotations - this.goalRotations));
+    if (Math.abs(positionRotations - this.goalRotations) > settleToleranceRotations) {
+      lastOutsideToleranceSeconds = elapsedSeconds;
+    }
+
+    sumSquaredFollowingError += followingErrorRotations * followingErrorRotations;
+    samples++;
+    peakCurrentAmps = Math.max(peakCurrentAmps, Math.abs(currentAmps));
+
+    if (elapsedSeconds - lastOutsideToleranceSeconds >= settleTimeSeconds) {
+      finishMove(false, elapsedSeconds);
+    } else if (elapsedSeconds >= timeoutSeconds) {
+      finishMove(true, elapsedSeconds);
+    }
+  }
+
+  private void startMove(double now, double goalRotations, double positionRotations) {
+    this.goalRotations = goalRotations;
+
+    inMove = true;
+    moveStartSeconds = now;
+    startRotations = positionRotations;
+    riseStartSeconds = Double.NaN;
+    riseEndSeconds = Double.NaN;
+    lastOutsideToleranceSeconds = 0.0;
+    overshootRotations = 0.0;
+    sumSquaredFollowingError = 0.0;
+    samples = 0;
+    peakCurrentAmps = 0.0;
+  }
+
+  /**
+   * Log the move that just ended and add it to the rolling statistics. A move that timed out is
+   * recorded with the timeout as its settle time, and with no rise time if it never got 90% of the
+   * way to its goal.
+   */
+  private void finishMove(boolean timedOut, double elapsedSeconds) {
+    inMove = false;
+
+    double riseTimeSeconds = riseEndSeconds - riseStartSeconds;
+    double settleTimeSeconds = timedOut ? elapsedSeconds : lastOutsideToleranceSeconds;
+    double rmsFollowingError = Math.sqrt(sumSquaredFollowingError / Math.max(samples, 1));
+
+    finishedMoves++;
+    if (timedOut) {
+      timedOutMoves++;
+    }
+
+    Logger.recordOutput(riseTimeKey, riseTimeSeconds);
+    Logger.recordOutput(settleTimeKey, settleTimeSeconds);
+    Logger.recordOutput(overshootKey, overshootRotations);
+    Logger.recordOutput(rmsFollowingErrorKey, rmsFollowingError);
+    Logger.recordOutput(peakCurrentKey, peakCurrentAmps);
+    Logger.recordOutput(distanceKey, Math.abs(goalRotations - startRotations));
+    Logger.recordOutput(timedOutKey, timedOut);
+    Logger.recordOutput(finishedMovesKey, finishedMoves);
+    Logger.recordOutput(timedOutMovesKey, timedOutMoves);
+
+    riseTimeHistory[nextHistoryIndex] = riseTimeSeconds;
+    settleTimeHistory[nextHistoryIndex] = settleTimeSeconds;
+    overshootHistory[nextHistoryIndex] = overshootRotations;
+    rmsFollowingErrorHistory[nextHistoryIndex] = rmsFollowingError;
+    peakCurrentHistory[nextHistoryIndex] = peakCurrentAmps;
+    nextHistoryIndex = (nextHistoryIndex + 1) % HISTORY_LENGTH;
+    historyCount = Math.min(historyCount + 1, HISTORY_LENGTH);
+
+    logRollingStatistics();
+  }
+
+  private void logRollingStatistics() {
+    double riseTimeSum = 0.0;
+    int riseTimeCount = 0;
+    double settleTimeSum = 0.0;
+    double maxSettleTime = 0.0;
+    double maxOvershoot = 0.0;
+    double rmsFollowingErrorSum = 0.0;
+    double maxPeakCurrent = 0.0;
+
+    for (int i = 0; i < historyCount; i++) {
+      // Moves that never got 90% of the way have no rise time
+      if (!Double.isNaN(riseTimeHistory[i])) {
+        riseTimeSum += riseTimeHistory[i];
+        riseTimeCount++;
+      }
+      settleTimeSum += settleTimeHistory[i];
+      maxSettleTime = Math.max(maxSettleTime, settleTimeHistory[i]);
+      maxOvershoot = Math.max(maxOvershoot, overshootHistory[i]);
+      rmsFollowingErrorSum += rmsFollowingErrorHistory[i];
+      maxPeakCurrent = Math.max(maxPeakCurrent, peakCurrentHistory[i]);
+    }
+
+    Logger.recordOutput(
+        meanRiseTimeKey, riseTimeCount > 0 ? riseTimeSum / riseTimeCount : Double.NaN);
+    Logger.recordOutput(meanSettleTimeKey, settleTimeSum / historyCount);
+    Logger.recordOutput(maxSettleTimeKey, maxSettleTime);
+    Logger.recordOutput(maxOvershootKey, maxOvershoot);
+    Logger.recordOutput(meanRmsFollowingErrorKey, rmsFollowingErrorSum / historyCount);
+    Logger.recordOutput(maxPeakCurrentKey, maxPeakCurrent);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,353 @@
+package frc.robot.lib.robotvibecoder;
+
+/**
+ * Time-optimal profiles between a mechanism's preset positions, computed once and stored in flat
+ * primitive tables.
+ *
+ * <p>Motion Magic solves a new profile for every move. It uses one set of constraints that has to be
+ * safe for the hardest move the mechanism makes. A mechanism that mostly moves between a few preset
+ * positions can instead run each of those moves at its own limit. A profile is computed for every
+ * ordered pair of presets. It accelerates and decelerates as hard as the current and voltage limits
+ * allow at each position and speed, including whether gravity helps or hurts in that direction.
+ *
+ * <p>Each profile is sampled at a fixed period into float arrays shared by every pair. Following
+ * one only indexes into them and interpolates between two samples, so it never allocates.
+ *
+ * <p>The mechanism is modelled by its feedforward gains: moving takes kS + kG * gravity + kV *
+ * velocity + kA * acceleration, in amps for the torque current gains and in volts for the voltage
+ * gains. Gravity is constant for elevators and scales with the cosine of the position for arms.
+ */
+public class PresetProfileCache {
+  /** Period the profiles are sampled at */
+  private static final double SAMPLE_PERIOD_SECONDS = 0.01;
+
+  /** Number of equal steps each move is split into when computing its profile */
+  private static final int PATH_STEPS = 1000;
+
+  /**
+   * Moves that would take longer than this aren't cached, e.g. when gravity barely lets the
+   * mechanism move. The motor's own profile is used for them instead.
+   */
+  private static final double MAX_DURATION_SECONDS = 10.0;
+
+  /**
+   * The limits and feedforward gains profiles are computed from. A set of gains whose kA isn't
+   * positive doesn't constrain the profiles. If neither does, no profiles are cached.
+   *
+   * @param maxAmps The most torque current each motor may use
+   * @param kS Torque current to overcome static friction, in amps
+   * @param kV Torque current per rotation per second, in amps
+   * @param kA Torque current per rotation per second squared, in amps
+   * @param kG Torque current to hold against gravity, in amps
+   * @param maxVolts The most voltage each motor may use
+   * @param voltageKS Voltage to overcome static friction
+   * @param voltageKV Voltage per rotation per second
+   * @param voltageKA Voltage per rotation per second squared
+   * @param voltageKG Voltage to hold against gravity
+   * @param armGravity Whether gravity scales with the cosine of the position, with 0 rotations
+   *     horizontal, instead of being constant
+   * @param gravityScale What kG and voltageKG are multiplied by, e.g. to account for the
+   *     acceleration of a mechanism carrying this one
+   */
+  public record Limits(
+      double maxAmps,
+      double kS,
+      double kV,
+      double kA,
+      double kG,
+      double maxVolts,
+      double voltageKS,
+      double voltageKV,
+      double voltageKA,
+      double voltageKG,
+      boolean armGravity,
+      double gravityScale) {}
+
+  private final double[] presetPositionsRotations;
+  private final int presetCount;
+
+  // Indexed by from * presetCount + to. Pairs without a cached profile have no samples.
+  private final int[] firstSamples;
+  private final int[] sampleCounts;
+  private final double[] durationsSeconds;
+
+  private final float[] positionsRotations;
+  private final float[] velocitiesRotationsPerSecond;
+  private final float[] accelerationsRotationsPerSecondSquared;
+
+  private double sampledPositionRotations = 0.0;
+  private double sampledVelocityRotationsPerSecond = 0.0;
+  private double sampledAccelerationRotationsPerSecondSquared = 0.0;
+
+  /**
+   * Compute the profiles between every pair of presets. This allocates and takes a few
+   * milliseconds, so it should be done at startup or off the main loop.
+   *
+   * @param presetPositionsRotations The position of each preset, in rotations
+   * @param limits The limits and gains to compute the profiles from
+   */
+  public PresetProfileCache(double[] presetPositionsRotations, Limits limits) {
+    this.presetPositionsRotations = presetPositionsRotations.clone();
+    presetCount = presetPositionsRotations.length;
+
+    int pairCount = presetCount * presetCount;
+    firstSamples = new int[pairCount];
+    sampleCounts = new int[pairCount];
+    durationsSeconds = new double[pairCount];
+
+    // Every profile is computed first, and then packed into the shared tables
+    float[][][] profiles = new float[pairCount][][];
+    double[] speeds = new double[PATH_STEPS + 1];
+    double[] times = new double[PATH_STEPS + 1];
+    int totalSamples = 0;
+
+    if (limits.kA() > 0.0 || limits.voltageKA() > 0.0) {
+      for (int from = 0; from < presetCount; from++) {
+        for (int to = 0; to < presetCount; to++) {
+          if (from == to) {
+            continue;
+          }
+
+          int pair = from * presetCount + to;
+          profiles[pair] =
+              computeProfile(
+                  presetPositionsRotations[from],
+                  presetPositionsRotations[to],
+                  limits,
+                  speeds,
+                  times);
+          if (profiles[pair] != null) {
+            durationsSeconds[pair] = times[PATH_STEPS];
+            totalSamples += profiles[pair][0].length;
+          }
+        }
+      }
+    }
+
+    positionsRotations = new float[totalSamples];
+    velocitiesRotationsPerSecond = new float[totalSamples];
+    accelerationsRotationsPerSecondSquared = new float[totalSamples];
+
+    int nextSample = 0;
+    for (int pair = 0; pair < pairCount; pair++) {
+      if (profiles[pair] == null) {
+        continue;
+      }
+
+      int count = profiles[pair][0].length;
+      System.arraycopy(profiles[pair][0], 0, positionsRotations, nextSample, count);
+      System.arraycopy(profiles[pair][1], 0, velocitiesRotationsPerSecond, nextSample, count);
+      System.arraycopy(
+          profiles[pair][2], 0, accelerationsRotationsPerSecondSquared, nextSample, count);
+      firstSamples[pair] = nextSample;
+      sampleCounts[pair] = count;
+      nextSample += count;
+    }
+  }
+
+  /**
+   * Compute the time-optimal profile of a single move, with a forward pass that accelerates as hard
+   * as possible and a backward pass that decelerates as hard as possible into the goal. The profile
+   * follows whichever of the two is slower at each step.
+   *
+   * @param speeds Scratch space for the speed at each step
+   * @param times Scratch space for the time each step is reached, which holds the duration of the
+   *     move in its last element afterwards
+   * @return The sampled positions, velocities and accelerations of the profile, or null if the
+   *     mechanism can't make the move within the limits
+   */
+  private static float[][] computeProfile(
+      double start, double goal, Limits limits, double[] speeds, double[] times) {
+    double direction = Math.signum(goal - start);
+    double stepRotations = Math.abs(goal - start) / PATH_STEPS;
+    if (stepRotations == 0.0) {
+      return null;
+    }
+
+    speeds[0] = 0.0;
+    for (int step = 0; step < PATH_STEPS; step++) {
+      double position = start + direction * step * stepRotations;
+      double acceleration = maxAcceleration(limits, position, direction, speeds[step], 1.0);
+      speeds[step + 1] =
+          Math.sqrt(Math.max(0.0, speeds[step] * speeds[step] + 2.0 * acceleration * stepRotations));
+    }
+
+    double brakingSpeed = 0.0;
+    for (int step = PATH_STEPS; step > 0; step--) {
+      speeds[step] = Math.min(speeds[step], brakingSpeed);
+
+      double position = start + direction * step * stepRotations;
+      double deceleration = maxAcceleration(limits, position, direction, brakingSpeed, -1.0);
+      brakingSpeed =
+          Math.sqrt(Math.max(0.0, brakingSpeed * brakingSpeed + 2.0 * deceleration * stepRotations));
+    }
+
+    times[0] = 0.0;
+    for (int step = 0; step < PATH_STEPS; step++) {
+      double averageSpeed = (speeds[step] + speeds[step + 1]) / 2.0;
+      if (averageSpeed <= 0.0) {
+        // The mechanism stalls partway, e.g. it can't lift itself against gravity
+        return null;
+      }
+      times[step + 1] = times[step] + stepRotations / averageSpeed;
+    }
+    if (times[PATH_STEPS] > MAX_DURATION_SECONDS) {
+      return null;
+    }
+
+    int sampleCount = (int) Math.ceil(times[PATH_STEPS] / SAMPLE_PERIOD_SECONDS) + 1;
+    float[] positions = new float[sampleCount];
+    float[] velocities = new float[sampleCount];
+    float[] accelerations = new float[sampleCount];
+
+    // Each step has constant acceleration, so samples within it are exact
+    int step = 0;
+    for (int sample = 0; sample < sampleCount - 1; sample++) {
+      double time = sample * SAMPLE_PERIOD_SECONDS;
+      while (step < PATH_STEPS - 1 && times[step + 1] <= time) {
+        step++;
+      }
+
+      double acceleration =
+          (speeds[step + 1] * speeds[step + 1] - speeds[step] * speeds[step])
+              / (2.0 * stepRotations);
+      double sinceStep = time - times[step];
+      double speed = speeds[step] + acceleration * sinceStep;
+      double travelled =
+          step * stepRotations
+              + speeds[step] * sinceStep
+              + 0.5 * acceleration * sinceStep * sinceStep;
+
+      positions[sample] = (float) (start + direction * travelled);
+      velocities[sample] = (float) (direction * speed);
+      accelerations[sample] = (float) (direction * acceleration);
+    }
+    positions[sampleCount - 1] = (float) goal;
+
+    return new float[][] {positions, velocities, accelerations};
+  }
+
+  /**
+   * Find the fastest the mechanism can speed up or slow down along a move without exceeding the
+   * current or voltage limit
+   *
+   * @param direction The direction of the move, 1 or -1
+   * @param speed How fast the mechanism is moving along the move, in rotations per second
+   * @param sign 1 to find the most it can speed up, -1 to find the most it can slow down
+   * @return The acceleration along the move, in rotations per second squared. This is negative if
+   *     the mechanism can't help speeding up or slowing down, e.g. when gravity is too strong.
+   */
+  private static double maxAcceleration(
+      Limits limits, double position, double direction, double speed, double sign) {
+    double gravity =
+        limits.gravityScale() * (limits.armGravity() ? Math.cos(2.0 * Math.PI * position) : 1.0);
+    double velocity = direction * speed;
+
+    double acceleration = Double.POSITIVE_INFINITY;
+    if (limits.kA() > 0.0) {
+      double baseAmps = limits.kS() * direction + limits.kG() * gravity + limits.kV() * velocity;
+      acceleration =
+          Math.min(acceleration, (limits.maxAmps() - sign * direction * baseAmps) / limits.kA());
+    }
+    if (limits.voltageKA() > 0.0) {
+      double baseVolts =
+          limits.voltageKS() * direction
+              + limits.voltageKG() * gravity
+              + limits.voltageKV() * velocity;
+      acceleration =
+          Math.min(
+              acceleration,
+              (limits.maxVolts() - sign * direction * baseVolts) / limits.voltageKA());
+    }
+    return acceleration;
+  }
+
+  /** Get the number of presets */
+  public int getPresetCount() {
+    return presetCount;
+  }
+
+  /** Get the position of a preset, in rotations */
+  public double getPresetRotations(int preset) {
+    return presetPositionsRotations[preset];
+  }
+
+  /**
+   * Find the preset closest to a position, if any is close enough
+   *
+   * @param positionRotations The position to look near, in rotations
+   * @param toleranceRotations How close the preset has to be
+   * @return The index of the closest preset, or -1 if none is within tolerance
+   */
+  public int presetNear(double positionRotations, double toleranceRotations) {
+    int nearest = -1;
+    double nearestDistance = toleranceRotations;
+    for (int preset = 0; preset < presetCount; preset++) {
+      double distance = Math.abs(presetPositionsRotations[preset] - positionRotations);
+      if (distance <= nearestDistance) {
+        nearest = preset;
+        nearestDistance = distance;
+      }
+    }
+    return nearest;
+  }
+
+  /** Check whether a profile is cached for the move from one preset to another */
+  public boolean hasProfile(int from, int to) {
+    return sampleCounts[from * presetCount + to] > 0;
+  }
+
+  /** Get how long the cached profile from one preset to another takes, in seconds */
+  public double getDurationSeconds(int from, int to) {
+    return durationsSeconds[from * presetCount + to];
+  }
+
+  /**
+   * Sample the cached profile from one preset to another, interpolating between the stored
+   * samples. Read the result with the getSampled methods. Times past the end of the profile give
+   * its final sample.
+   *
+   * @param from The preset the move starts at
+   * @param to The preset the move ends at
+   * @param timeSeconds The time since the move started
+   */
+  public void sample(int from, int to, double timeSeconds) {
+    int pair = from * presetCount + to;
+    int first = firstSamples[pair];
+    int last = first + sampleCounts[pair] - 1;
+
+    double index = Math.max(0.0, timeSeconds / SAMPLE_PERIOD_SECONDS);
+    int sample = first + (int) index;
+    if (sample >= last) {
+      sampledPositionRotations = positionsRotations[last];
+      sampledVelocityRotationsPerSecond = 0.0;
+      sampledAccelerationRotationsPerSecondSquared = 0.0;
+      return;
+    }
+
+    double fraction = index - (int) index;
+    sampledPositionRotations =
+        positionsRotations[sample]
+            + fraction * (positionsRotations[sample + 1] - positionsRotations[sample]);
+    sampledVelocityRotationsPerSecond =
+        velocitiesRotationsPerSecond[sample]
+            + fraction
+                * (velocitiesRotationsPerSecond[sample + 1] - velocitiesRotationsPerSecond[sample]);
+    sampledAccelerationRotationsPerSecondSquared = accelerationsRotationsPerSecondSquared[sample];
+  }
+
+  /** Get the position of the last sample, in rotations */
+  public double getSampledPositionRotations() {
+    return sampledPositionRotations;
+  }
+
+  /** Get the velocity of the last sample, in rotations per second */
+  public double getSampledVelocityRotationsPerSecond() {
+    return sampledVelocityRotationsPerSecond;
+  }
+
+  /** Get the acceleration of the last sample, in rotations per second squared */
+  public double getSampledAccelerationRotationsPerSecondSquared() {
+    return sampledAccelerationRotationsPerSecondSquared;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package frc.robot.lib.robotvibecoder;
+
+/**
+ * Shared runtime support for mechanisms generated by RobotVibeCoder.
+ *
+ * <p>Everything in this package is generated once per robot and used by every generated
+ * mechanism, so the per-mechanism classes only carry configuration. It is regenerated whenever
+ * RobotVibeCoder is updated, so it should not be edited by hand.
+ */
+public final class RobotVibeCoderRuntime {
+  /** The version of RobotVibeCoder that generated this runtime library */
+  public static final String VERSION = "unknown";
+
+  private RobotVibeCoderRuntime() {}
+}
\ No newline at end of file
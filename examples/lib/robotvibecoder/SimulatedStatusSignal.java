@@ -0,0 +1,139 @@
+package frc.robot.lib.robotvibecoder;
+
+import java.util.Random;
+
+/**
+ * Models how a status signal reaches the rest of the robot over CAN in simulation.
+ *
+ * <p>Without this, a sim writes its physics state into a device's sim state and reads it back in
+ * the same loop, as if the signal had no latency and an unlimited update rate. A real device only
+ * sends the signal at its update frequency, each frame arrives some time after it was sent, and on
+ * a loaded bus some frames never arrive. Passing the true value through {@link #update} each sim
+ * step gives back the value the receiver would actually have at that time.
+ *
+ * <p>Frames are sampled at the signal's frequency rather than once per sim step, interpolating the
+ * true value between steps, so frequencies faster than the sim loop still reduce the age of the
+ * received value.
+ */
+public class SimulatedStatusSignal {
+  /** Frames in flight beyond this are lost, like frames dropped from a full transmit buffer */
+  private static final int MAX_FRAMES_IN_FLIGHT = 256;
+
+  private final double[] frameSampleTimes = new double[MAX_FRAMES_IN_FLIGHT];
+  private final double[] frameArrivalTimes = new double[MAX_FRAMES_IN_FLIGHT];
+  private final double[] frameValues = new double[MAX_FRAMES_IN_FLIGHT];
+  private int firstFrame = 0;
+  private int framesInFlight = 0;
+
+  private final Random random;
+
+  private double timeSeconds = 0.0;
+  private double nextSampleTimeSeconds = Double.NaN;
+  private double lastTrueValue = Double.NaN;
+
+  private double receivedValue = Double.NaN;
+  private double receivedSampleTimeSeconds = 0.0;
+  private long droppedFrames = 0;
+
+  /**
+   * Create a simulated status signal
+   *
+   * @param seed The seed for which frames are dropped, so that a sim run can be repeated exactly.
+   *     Each signal should have its own seed so that their frames aren't dropped together.
+   */
+  public SimulatedStatusSignal(long seed) {
+    random = new Random(seed);
+  }
+
+  /**
+   * Advance the signal by one sim step
+   *
+   * @param trueValue The value of the signal at the end of this step, straight from the physics
+   * @param frequencyHz The frequency the device currently sends the signal at. At 0, the signal
+   *     is disabled and the receiver keeps the last value it got.
+   * @param latencySeconds The time from the device sending a frame to it being received
+   * @param dropProbability The fraction of frames that are lost on the bus, from 0 to 1
+   * @param dtSeconds The length of this sim step
+   * @return The most recent value the receiver has gotten as of the end of this step
+   */
+  public double update(
+      double trueValue,
+      double frequencyHz,
+      double latencySeconds,
+      double dropProbability,
+      double dtSeconds) {
+    double stepStartSeconds = timeSeconds;
+    timeSeconds += dtSeconds;
+
+    if (Double.isNaN(receivedValue)) {
+      // The device was configured before the sim started, so the receiver starts out in sync
+      lastTrueValue = trueValue;
+      receivedValue = trueValue;
+      receivedSampleTimeSeconds = timeSeconds;
+    }
+
+    if (frequencyHz > 0.0) {
+      double periodSeconds = 1.0 / frequencyHz;
+      if (Double.isNaN(nextSampleTimeSeconds)) {
+        nextSampleTimeSeconds = timeSeconds;
+      }
+
+      while (nextSampleTimeSeconds <= timeSeconds) {
+        double fraction =
+            dtSeconds > 0.0 ? (nextSampleTimeSeconds - stepStartSeconds) / dtSeconds : 1.0;
+        double sample =
+            lastTrueValue + (trueValue - lastTrueValue) * Math.max(0.0, Math.min(1.0, fraction));
+
+        if (random.nextDouble() < dropProbability) {
+          droppedFrames++;
+        } else {
+          send(nextSampleTimeSeconds, nextSampleTimeSeconds + latencySeconds, sample);
+        }
+        nextSampleTimeSeconds += periodSeconds;
+      }
+    } else {
+      nextSampleTimeSeconds = Double.NaN;
+    }
+
+    while (framesInFlight > 0 && frameArrivalTimes[firstFrame] <= timeSeconds) {
+      receivedValue = frameValues[firstFrame];
+      receivedSampleTimeSeconds = frameSampleTimes[firstFrame];
+      firstFrame = (firstFrame + 1) % MAX_FRAMES_IN_FLIGHT;
+      framesInFlight--;
+    }
+
+    lastTrueValue = trueValue;
+    return receivedValue;
+  }
+
+  private void send(double sampleTimeSeconds, double arrivalTimeSeconds, double value) {
+    if (framesInFlight == MAX_FRAMES_IN_FLIGHT) {
+      droppedFrames++;
+      return;
+    }
+
+    int frame = (firstFrame + framesInFlight) % MAX_FRAMES_IN_FLIGHT;
+    frameSampleTimes[frame] = sampleTimeSeconds;
+    frameArrivalTimes[frame] = arrivalTimeSeconds;
+    frameValues[frame] = value;
+    framesInFlight++;
+  }
+
+  /**
+   * Get how old the value returned by the last update is
+   *
+   * @return The time since the received value was sampled on the device, in seconds
+   */
+  public double getAgeSeconds() {
+    return timeSeconds - receivedSampleTimeSeconds;
+  }
+
+  /**
+   * Get how many frames have been lost since this signal was created
+   *
+   * @return The number of dropped frames
+   */
+  public long getDroppedFrames() {
+    return droppedFrames;
+  }
+}
\ No newline at end of file
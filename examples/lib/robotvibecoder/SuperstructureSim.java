@@ -0,0 +1,260 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Simulates an elevator carrying a single-jointed arm as one coupled system.
+ *
+ * <p>Separate WPILib plants treat the carriage as a constant mass and the arm as if its pivot were
+ * fixed, so neither sees the other's load: the elevator never lifts the arm, and the arm never
+ * feels the carriage accelerate. Here both are one two-body system. The carriage's height and the
+ * arm's angle are integrated together from the coupled equations of motion, so the arm adds to the
+ * elevator's effective mass and gravity load, and accelerating the carriage swings the arm.
+ *
+ * <p>The system is integrated with a fixed step, whatever the length of the sim loop, so results
+ * don't depend on loop timing. Stepping only uses primitive fields and allocates nothing.
+ *
+ * <p>The elevator's IOSim and the arm's IOSim each configure their own half and set their own
+ * voltage. The elevator's IOSim advances the whole system once per loop, and the arm's IOSim reads
+ * back the state of the latest step.
+ */
+public final class SuperstructureSim {
+  /** Length of one integration step. Each call to update runs as many of these as fit. */
+  private static final double STEP_SECONDS = 0.001;
+
+  private static final double GRAVITY_METERS_PER_SECOND_SQUARED = 9.81;
+
+  private static final Map<String, SuperstructureSim> superstructures = new HashMap<>();
+
+  /**
+   * Get the superstructure built on an elevator, creating it the first time it's requested
+   *
+   * @param elevatorName The name of the elevator mechanism that carries the arm
+   * @return The superstructure shared by the elevator and the arm it carries
+   */
+  public static synchronized SuperstructureSim get(String elevatorName) {
+    return superstructures.computeIfAbsent(elevatorName, (name) -> new SuperstructureSim());
+  }
+
+  private boolean elevatorConfigured = false;
+  private DCMotor elevatorMotors;
+  private double elevatorReduction;
+  private double carriageMassKg;
+  private double drumRadiusMeters;
+  private double minHeightMeters;
+  private double maxHeightMeters;
+
+  private boolean armConfigured = false;
+  private DCMotor armMotors;
+  private double armReduction;
+  private double armMassKg;
+  private double armCenterOfMassMeters;
+  private double armMomentOfInertiaKgMetersSquared;
+  private double minAngleRadians;
+  private double maxAngleRadians;
+
+  private double heightMeters = 0.0;
+  private double velocityMetersPerSecond = 0.0;
+  private double angleRadians = 0.0;
+  private double angularVelocityRadiansPerSecond = 0.0;
+
+  private double elevatorVolts = 0.0;
+  private double armVolts = 0.0;
+
+  private double unsimulatedSeconds = 0.0;
+
+  private SuperstructureSim() {}
+
+  /**
+   * Configure the elevator half of the system. This should be called once, by the elevator's
+   * IOSim.
+   *
+   * @param motors The motors driving the elevator, e.g. DCMotor.getKrakenX60Foc(2)
+   * @param reduction Rotations of the motors per rotation of the drum
+   * @param carriageMassKg The mass of the carriage, not including the arm
+   * @param drumRadiusMeters The radius of the drum
+   * @param minHeightMeters The height of the lower hard stop
+   * @param maxHeightMeters The height of the upper hard stop
+   * @param startingHeightMeters The height the carriage starts at
+   */
+  public void configureElevator(
+      DCMotor motors,
+      double reduction,
+      double carriageMassKg,
+      double drumRadiusMeters,
+      double minHeightMeters,
+      double maxHeightMeters,
+      double startingHeightMeters) {
+    this.elevatorMotors = motors;
+    this.elevatorReduction = reduction;
+    this.carriageMassKg = carriageMassKg;
+    this.drumRadiusMeters = drumRadiusMeters;
+    this.minHeightMeters = minHeightMeters;
+    this.maxHeightMeters = maxHeightMeters;
+    this.heightMeters = startingHeightMeters;
+    this.velocityMetersPerSecond = 0.0;
+    elevatorConfigured = true;
+  }
+
+  /**
+   * Configure the arm half of the system. This should be called once, by the arm's IOSim. The arm
+   * is treated as a uniform rod pivoting on the carriage, with its angle measured up from
+   * horizontal.
+   *
+   * @param motors The motors driving the arm
+   * @param reduction Rotations of the motors per rotation of the arm
+   * @param armMassKg The mass of the arm and anything it holds
+   * @param armLengthMeters The length of the arm, from its pivot to its end
+   * @param momentOfInertiaKgMetersSquared The arm's moment of inertia about its pivot
+   * @param minAngleRadians The angle of the lower hard stop
+   * @param maxAngleRadians The angle of the upper hard stop
+   * @param startingAngleRadians The angle the arm starts at
+   */
+  public void configureArm(
+      DCMotor motors,
+      double reduction,
+      double armMassKg,
+      double armLengthMeters,
+      double momentOfInertiaKgMetersSquared,
+      double minAngleRadians,
+      double maxAngleRadians,
+      double startingAngleRadians) {
+    this.armMotors = motors;
+    this.armReduction = reduction;
+    this.armMassKg = armMassKg;
+    this.armCenterOfMassMeters = armLengthMeters / 2.0;
+    // A pivot can't have less inertia than the arm's mass concentrated at its center of mass
+    this.armMomentOfInertiaKgMetersSquared =
+        Math.max(
+            momentOfInertiaKgMetersSquared,
+            armMassKg * armCenterOfMassMeters * armCenterOfMassMeters);
+    this.minAngleRadians = minAngleRadians;
+    this.maxAngleRadians = maxAngleRadians;
+    this.angleRadians = startingAngleRadians;
+    this.angularVelocityRadiansPerSecond = 0.0;
+    armConfigured = true;
+  }
+
+  /** Set the voltage applied to the elevator's motors until it's set again */
+  public void setElevatorVoltage(double volts) {
+    elevatorVolts = volts;
+  }
+
+  /** Set the voltage applied to the arm's motors until it's set again */
+  public void setArmVoltage(double volts) {
+    armVolts = volts;
+  }
+
+  /**
+   * Advance the system by dtSeconds, in fixed steps. Time that doesn't fill a whole step is carried
+   * over to the next update.
+   *
+   * @param dtSeconds The time since the last update
+   */
+  public void update(double dtSeconds) {
+    if (!elevatorConfigured) {
+      return;
+    }
+
+    unsimulatedSeconds += dtSeconds;
+    while (unsimulatedSeconds >= STEP_SECONDS) {
+      step(STEP_SECONDS);
+      unsimulatedSeconds -= STEP_SECONDS;
+    }
+  }
+
+  private void step(double dt) {
+    // Force from the elevator's motors on the carriage
+    double drumRadiansPerSecond = velocityMetersPerSecond / drumRadiusMeters;
+    double elevatorForceNewtons =
+        elevatorMotors.getTorque(
+                elevatorMotors.getCurrent(drumRadiansPerSecond * elevatorReduction, elevatorVolts))
+            * elevatorReduction
+            / drumRadiusMeters;
+
+    double heightAcceleration;
+    double angularAcceleration = 0.0;
+
+    if (armConfigured) {
+      double armMotorTorque =
+          armMotors.getTorque(
+                  armMotors.getCurrent(angularVelocityRadiansPerSecond * armReduction, armVolts))
+              * armReduction;
+
+      double sin = Math.sin(angleRadians);
+      double cos = Math.cos(angleRadians);
+      double totalMassKg = carriageMassKg + armMassKg;
+      double coupling = armMassKg * armCenterOfMassMeters * cos;
+
+      // Equations of motion of the carriage (height) and arm (angle), M * accelerations = forces:
+      //   [ totalMass  coupling ] [ heightAcceleration  ]   [ forces on the carriage ]
+      //   [ coupling   inertia  ] [ angularAcceleration ] = [ torques on the arm    ]
+      double carriageForceNewtons =
+          elevatorForceNewtons
+              + armMassKg
+                  * armCenterOfMassMeters
+                  * sin
+                  * angularVelocityRadiansPerSecond
+                  * angularVelocityRadiansPerSecond
+              - totalMassKg * GRAVITY_METERS_PER_SECOND_SQUARED;
+      double armTorqueNewtonMeters =
+          armMotorTorque
+              - armMassKg * GRAVITY_METERS_PER_SECOND_SQUARED * armCenterOfMassMeters * cos;
+
+      double determinant = totalMassKg * armMomentOfInertiaKgMetersSquared - coupling * coupling;
+      heightAcceleration =
+          (armMomentOfInertiaKgMetersSquared * carriageForceNewtons - coupling * armTorqueNewtonMeters)
+              / determinant;
+      angularAcceleration =
+          (totalMassKg * armTorqueNewtonMeters - coupling * carriageForceNewtons) / determinant;
+    } else {
+      heightAcceleration =
+          elevatorForceNewtons / carriageMassKg - GRAVITY_METERS_PER_SECOND_SQUARED;
+    }
+
+    // Semi-implicit Euler, which stays stable at this step size where explicit Euler drifts
+    velocityMetersPerSecond += heightAcceleration * dt;
+    heightMeters += velocityMetersPerSecond * dt;
+    if (heightMeters <= minHeightMeters) {
+      heightMeters = minHeightMeters;
+      velocityMetersPerSecond = Math.max(velocityMetersPerSecond, 0.0);
+    } else if (heightMeters >= maxHeightMeters) {
+      heightMeters = maxHeightMeters;
+      velocityMetersPerSecond = Math.min(velocityMetersPerSecond, 0.0);
+    }
+
+    if (armConfigured) {
+      angularVelocityRadiansPerSecond += angularAcceleration * dt;
+      angleRadians += angularVelocityRadiansPerSecond * dt;
+      if (angleRadians <= minAngleRadians) {
+        angleRadians = minAngleRadians;
+        angularVelocityRadiansPerSecond = Math.max(angularVelocityRadiansPerSecond, 0.0);
+      } else if (angleRadians >= maxAngleRadians) {
+        angleRadians = maxAngleRadians;
+        angularVelocityRadiansPerSecond = Math.min(angularVelocityRadiansPerSecond, 0.0);
+      }
+    }
+  }
+
+  /** Get the height of the carriage, in meters */
+  public double getHeightMeters() {
+    return heightMeters;
+  }
+
+  /** Get the velocity of the carriage, in meters per second */
+  public double getVelocityMetersPerSecond() {
+    return velocityMetersPerSecond;
+  }
+
+  /** Get the angle of the arm up from horizontal, in radians */
+  public double getAngleRads() {
+    return angleRadians;
+  }
+
+  /** Get the angular velocity of the arm, in radians per second */
+  public double getVelocityRadPerSec() {
+    return angularVelocityRadiansPerSecond;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package frc.robot.lib.robotvibecoder;
+
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Shares a robot-wide supply current budget between mechanisms.
+ *
+ * <p>Every loop, the budget is scaled with battery voltage: the full budget is available above
+ * fullBudgetVoltage, and it shrinks to the sum of every mechanism's minimum as the battery sags
+ * toward minBudgetVoltage. Each mechanism is always given its minimum. The rest goes to moving
+ * mechanisms first and then to holding mechanisms, highest priority first. A holding mechanism
+ * only asks for a little more than it's currently drawing. Priorities are read every loop, so a
+ * priority changed by reloading constants takes effect in the next loop.
+ *
+ * <p>The budget never blocks: mechanisms send new limits to their motors without waiting for them
+ * to be acknowledged, and only when they change meaningfully.
+ */
+public class SupplyCurrentBudget {
+  /** A mechanism whose supply current is managed by a SupplyCurrentBudget */
+  public interface BudgetedMechanism {
+    /** Get the name of the mechanism, used in log keys */
+    public String getName();
+
+    /** Get the priority of the mechanism. Higher priority mechanisms are given current first. */
+    public int getSupplyCurrentPriority();
+
+    /** Get the total supply current currently drawn by the mechanism's motors, in amps */
+    public double getSupplyCurrentAmps();
+
+    /** Get whether the mechanism is currently moving (or about to) */
+    public boolean isMoving();
+
+    /** Get the smallest total supply current the mechanism may be limited to, in amps */
+    public double getMinSupplyCurrentAmps();
+
+    /** Get the largest total supply current the mechanism can use, in amps */
+    public double getMaxSupplyCurrentAmps();
+
+    /**
+     * Limit the mechanism's motors to a total supply current. This is called every loop, so it
+     * must not block.
+     */
+    public void setSupplyCurrentBudget(double amps);
+  }
+
+  /** A holding mechanism is given this much more than it's currently drawing */
+  private static final double HOLDING_HEADROOM = 1.25;
+
+  private final double maxTotalAmps;
+  private final double fullBudgetVoltage;
+  private final double minBudgetVoltage;
+
+  // Registered mechanisms, sorted by priority from highest to lowest
+  private BudgetedMechanism[] mechanisms = new BudgetedMechanism[0];
+  private String[] allocatedKeys = new String[0];
+  private int[] priorities = new int[0];
+  private double[] allocations = new double[0];
+  private boolean[] moving = new boolean[0];
+
+  /**
+   * Create a new SupplyCurrentBudget
+   *
+   * @param maxTotalAmps The total supply current every mechanism may draw at once with a healthy
+   *     battery, in amps
+   * @param fullBudgetVoltage The battery voltage above which the full budget is available
+   * @param minBudgetVoltage The battery voltage at and below which every mechanism is held at its
+   *     minimum
+   */
+  public SupplyCurrentBudget(
+      double maxTotalAmps, double fullBudgetVoltage, double minBudgetVoltage) {
+    this.maxTotalAmps = maxTotalAmps;
+    this.fullBudgetVoltage = fullBudgetVoltage;
+    this.minBudgetVoltage = minBudgetVoltage;
+  }
+
+  /**
+   * Add a mechanism to the budget. This should be called once per mechanism at startup.
+   *
+   * @param mechanism The mechanism to manage
+   */
+  public void register(BudgetedMechanism mechanism) {
+    int count = mechanisms.length + 1;
+    mechanisms = Arrays.copyOf(mechanisms, count);
+    allocatedKeys = Arrays.copyOf(allocatedKeys, count);
+    priorities = Arrays.copyOf(priorities, count);
+    allocations = new double[count];
+    moving = new boolean[count];
+
+    mechanisms[count - 1] = mechanism;
+    allocatedKeys[count - 1] = "SupplyCurrentBudget/" + mechanism.getName() + "/allocatedAmps";
+    priorities[count - 1] = mechanism.getSupplyCurrentPriority();
+    sortByPriority();
+  }
+
+  /** Redistribute the budget between mechanisms. This should be called once per loop. */
+  public void periodic() {
+    if (prioritiesChanged()) {
+      sortByPriority();
+    }
+
+    double batteryVoltage = RobotController.getBatteryVoltage();
+
+    double minTotalAmps = 0.0;
+    double drawnAmps = 0.0;
+    for (int i = 0; i < mechanisms.length; i++) {
+      allocations[i] = mechanisms[i].getMinSupplyCurrentAmps();
+      moving[i] = mechanisms[i].isMoving();
+      minTotalAmps += allocations[i];
+      drawnAmps += mechanisms[i].getSupplyCurrentAmps();
+    }
+
+    double voltageScale =
+        Math.max(
+            0.0,
+            Math.min(
+                1.0,
+                (batteryVoltage - minBudgetVoltage) / (fullBudgetVoltage - minBudgetVoltage)));
+    double budgetAmps = minTotalAmps + Math.max(0.0, maxTotalAmps - minTotalAmps) * voltageScale;
+    double remainingAmps = budgetAmps - minTotalAmps;
+
+    // Moving mechanisms are served first, then holding ones
+    remainingAmps = distribute(true, remainingAmps);
+    remainingAmps = distribute(false, remainingAmps);
+
+    for (int i = 0; i < mechanisms.length; i++) {
+      mechanisms[i].setSupplyCurrentBudget(allocations[i]);
+      Logger.recordOutput(allocatedKeys[i], allocations[i]);
+    }
+
+    Logger.recordOutput("SupplyCurrentBudget/batteryVoltage", batteryVoltage);
+    Logger.recordOutput("SupplyCurrentBudget/budgetAmps", budgetAmps);
+    Logger.recordOutput("SupplyCurrentBudget/drawnAmps", drawnAmps);
+  }
+
+  /**
+   * Read every mechanism's priority, e.g. in case its constants were reloaded
+   *
+   * @return Whether any priority changed since it was last read
+   */
+  private boolean prioritiesChanged() {
+    boolean changed = false;
+    for (int i = 0; i < mechanisms.length; i++) {
+      int priority = mechanisms[i].getSupplyCurrentPriority();
+      if (priority != priorities[i]) {
+        priorities[i] = priority;
+        changed = true;
+      }
+    }
+
+    return changed;
+  }
+
+  /**
+   * Sort mechanisms by their last read priorities, from highest to lowest. This is an insertion sort
+   * in place, so it doesn't allocate, and mechanisms with equal priorities keep their order.
+   */
+  private void sortByPriority() {
+    for (int i = 1; i < mechanisms.length; i++) {
+      BudgetedMechanism mechanism = mechanisms[i];
+      String allocatedKey = allocatedKeys[i];
+      int priority = priorities[i];
+
+      int index = i;
+      while (index > 0 && priorities[index - 1] < priority) {
+        mechanisms[index] = mechanisms[index - 1];
+        allocatedKeys[index] = allocatedKeys[index - 1];
+        priorities[index] = priorities[index - 1];
+        index--;
+      }
+      mechanisms[index] = mechanism;
+      allocatedKeys[index] = allocatedKey;
+      priorities[index] = priority;
+    }
+  }
+
+  /**
+   * Give the remaining current to every mechanism whose moving state matches, in priority order
+   *
+   * @return The current left over afterward
+   */
+  private double distribute(boolean movingMechanisms, double remainingAmps) {
+    for (int i = 0; i < mechanisms.length && remainingAmps > 0.0; i++) {
+      if (moving[i] != movingMechanisms) {
+        continue;
+      }
+
+      BudgetedMechanism mechanism = mechanisms[i];
+      double demandAmps = mechanism.getMaxSupplyCurrentAmps();
+      if (!movingMechanisms) {
+        demandAmps = Math.min(demandAmps, mechanism.getSupplyCurrentAmps() * HOLDING_HEADROOM);
+      }
+
+      double extraAmps = Math.min(Math.max(0.0, demandAmps - allocations[i]), remainingAmps);
+      allocations[i] += extraAmps;
+      remainingAmps -= extraAmps;
+    }
+
+    return remainingAmps;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+"""
+Bakes a mechanism's deployed constants into static finals for competition builds.
+
+Generated mechanisms read their constants through JSONSync every loop, which keeps them tunable
+but means the JIT has to load each one from a field of a mutable object. When constants are
+baked, the constants read in the hot path are copied out of the deployed JSON into a
+[Name]BakedConstants class of static final primitives, and the mechanism references those
+instead, so the JIT can fold them into constant arithmetic.
+"""
+
+import json
+import math
+import os
+import sys
+from typing import Any
+
+from robotvibecoder.cli import print_err
+from robotvibecoder.config import MechanismConfig, MechanismKind
+from robotvibecoder.templating import lowerfirst, upperfirst
+
+# Constants read every loop, by their name after the mechanism's name, and the Java type each is
+# baked as
+HOT_CONSTANTS: dict[str, str] = {
+    "MovingVelocityThresholdRotationsPerSecond": "double",
+    "MovingPositionThresholdRotations": "double",
+    "MoveSettleToleranceRotations": "double",
+    "MoveSettleTimeSeconds": "double",
+    "MoveTimeoutSeconds": "double",
+    "IdleSignalFrequencyHz": "double",
+    "MovingSignalFrequencyHz": "double",
+    "CongestedDiagnosticSignalFrequencyHz": "double",
+    "CongestedBusUtilization": "double",
+    "HoldingControlFrequencyHz": "double",
+    "ThermalPredictionHorizonSeconds": "double",
+    "ThermalDerateStartCelsius": "double",
+    "ThermalDerateEndCelsius": "double",
+    "MinThermalDerate": "double",
+    "AngularCruiseVelocityRotationsPerSecond": "double",
+    "AngularAccelerationRotationsPerSecondSquared": "double",
+    "MotionMagicExpo_kA": "double",
+    "MotionMagicExpo_kV": "double",
+    "SupplyCurrentPriority": "int",
+}
+
+
+def hot_constant_fields(config: MechanismConfig) -> dict[str, str]:
+    """
+    Get every constants field of a mechanism that's read every loop
+
+    :param config: The config of the mechanism
+    :type config: MechanismConfig
+    :return: A map of field name to the Java type it's baked as
+    :rtype: dict[str, str]
+    """
+    fields = {
+        lowerfirst(config.name) + suffix: java_type
+        for suffix, java_type in HOT_CONSTANTS.items()
+    }
+
+    if config.kind == MechanismKind.ELEVATOR:
+        fields[
+            f"{lowerfirst(config.name)}HeightPer{upperfirst(config.encoder)}RotationMeters"
+        ] = "double"
+
+    return fields
+
+
+def java_literal(value: Any, java_type: str) -> str:
+    """
+    Format a JSON value as a Java literal of java_type, or raise ValueError if it can't be one
+    """
+    if isinstance(value, bool) or not isinstance(value, (int, float)):
+        raise ValueError(f"expected a number, found {json.dumps(value)}")
+
+    if java_type == "int":
+        if isinstance(value, float) and not value.is_integer():
+            raise ValueError(f"expected an integer, found {value}")
+        return str(int(value))
+
+    if not math.isfinite(value):
+        raise ValueError(f"expected a finite number, found {value}")
+    return repr(float(value))
+
+
+def load_baked_constants(
+    config: MechanismConfig, constants_folder: str
+) -> list[dict[str, str]]:
+    """
+    Read the hot constants of a mechanism from its deployed constants JSON
+
+    :param config: The config of the mechanism
+    :type config: MechanismConfig
+    :param constants_folder: The folder containing the deployed [Name]Constants.json
+    :type constants_folder: str
+    :return: The type, name and Java literal of every hot constant, in the order they're declared
+    :rtype: list[dict[str, str]]
+    """
+    constants_path = os.path.join(constants_folder, f"{config.name}Constants.json")
+    try:
+        with open(constants_path, "r", encoding="utf-8") as constants_file:
+            constants = json.load(constants_file)
+    except FileNotFoundError:
+        print_err(
+            f"Can't bake constants: {constants_path} doesn't exist. Deploy the {config.name}'s constants once (or copy them there) before baking."  # pylint: disable=line-too-long
+        )
+        sys.exit(1)
+    except json.JSONDecodeError as e:
+        print_err(f"Can't bake constants: {constants_path} isn't valid JSON: {e}")
+        sys.exit(1)
+
+    baked: list[dict[str, str]] = []
+    for field, java_type in hot_constant_fields(config).items():
+        if field not in constants:
+            print_err(
+                f"Can't bake constants: {constants_path} has no {field}. Regenerate the mechanism without --bake-constants and redeploy its constants first."  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+        try:
+            literal = java_literal(constants[field], java_type)
+        except ValueError as e:
+            print_err(f"Can't bake constants: {field} in {constants_path}: {e}")
+            sys.exit(1)
+
+        baked.append({"type": java_type, "name": field, "value": literal})
+
+    return baked
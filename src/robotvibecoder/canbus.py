@@ -0,0 +1,161 @@
+"""
+Estimates how much CAN bus bandwidth generated mechanisms will use, so that an overloaded bus is
+caught at generation time instead of on the field.
+
+The estimate counts the status signals each generated IO configures, the control requests sent
+to every motor (including followers, which are sent Follower requests at the control frequency),
+and the status frames each device sends by default that the IO doesn't configure. It's
+deliberately conservative: every status signal is counted as its own frame even though Phoenix 6
+may pack several signals into one, and every mechanism is assumed to be moving at once, so encoder
+signals are counted at the rate they're raised to while moving.
+"""
+
+from dataclasses import dataclass
+import sys
+
+from robotvibecoder import cli
+from robotvibecoder.cli import print_err, print_warning
+from robotvibecoder.config import MechanismConfig
+
+# Buses with these names are the roboRIO's CAN 2.0 bus, anything else is a CANivore (CAN FD)
+RIO_BUS_NAMES = ["", "rio"]
+
+# Approximate time one frame occupies the bus, including bit stuffing. CAN 2.0 sends everything at
+# 1 Mbit/s. CAN FD arbitrates at 1 Mbit/s but sends the payload at a much higher data rate.
+CAN_2_FRAME_TIME_S = 150e-6
+CAN_FD_FRAME_TIME_S = 50e-6
+
+# Status frames per second each device sends at Phoenix 6's default rates, excluding the signals
+# the generated IO configures itself (e.g. closed loop reference/output, motor voltage, faults)
+TALONFX_DEFAULT_FRAMES_PER_S = 250.0
+CANCODER_DEFAULT_FRAMES_PER_S = 30.0
+
+# Estimated bus utilization above which generation warns or fails
+WARN_UTILIZATION = 0.70
+FAIL_UTILIZATION = 0.90
+
+
+@dataclass
+class BusLoad:
+    """
+    The estimated load on a single CAN bus
+    """
+
+    name: str
+    devices: int = 0
+    status_frames_per_s: float = 0.0
+    control_frames_per_s: float = 0.0
+
+    @property
+    def is_can_fd(self) -> bool:
+        """
+        Whether this bus is a CANivore (CAN FD) rather than the roboRIO's CAN 2.0 bus
+        """
+        return self.name not in RIO_BUS_NAMES
+
+    @property
+    def frames_per_s(self) -> float:
+        """
+        The total frames per second sent on this bus
+        """
+        return self.status_frames_per_s + self.control_frames_per_s
+
+    @property
+    def utilization(self) -> float:
+        """
+        The estimated fraction of the bus's bandwidth that is used, between 0 and 1 (or higher if
+        the bus would be overloaded)
+        """
+        frame_time = CAN_FD_FRAME_TIME_S if self.is_can_fd else CAN_2_FRAME_TIME_S
+        return self.frames_per_s * frame_time
+
+
+def moving_frequency(nominal: float, moving: float) -> float:
+    """
+    Get the rate a control-critical signal is sent at while its mechanism is moving, which is the
+    highest rate it's ever sent at
+
+    :param nominal: The signal's configured frequency, where 0 means the signal is disabled
+    :type nominal: float
+    :param moving: The frequency control-critical signals are raised to while moving
+    :type moving: float
+    :return: The signal's frequency while moving
+    :rtype: float
+    """
+    if nominal == 0.0:
+        return 0.0
+
+    return max(nominal, moving)
+
+
+def estimate_bus_loads(configs: list[MechanismConfig]) -> dict[str, BusLoad]:
+    """
+    Estimate the load each mechanism puts on its CAN bus, summed per bus
+
+    :param configs: Every mechanism sharing the robot's CAN buses
+    :type configs: list[MechanismConfig]
+    :return: The estimated load of every bus used by configs, keyed by bus name
+    :rtype: dict[str, BusLoad]
+    """
+    loads: dict[str, BusLoad] = {}
+
+    for config in configs:
+        load = loads.setdefault(config.canbus, BusLoad(config.canbus))
+        frequencies = config.signal_frequencies
+
+        # CANcoder: position and velocity are configured, the rest stay at their defaults
+        load.devices += 1
+        load.status_frames_per_s += (
+            moving_frequency(frequencies["encoder_position"], frequencies["encoder_moving"])
+            + moving_frequency(frequencies["encoder_velocity"], frequencies["encoder_moving"])
+            + CANCODER_DEFAULT_FRAMES_PER_S
+        )
+
+        # TalonFXs: currents are configured, and every motor is sent a control request (the lead
+        # motor its closed loop/override request, followers a Follower request)
+        for _ in config.motors:
+            load.devices += 1
+            load.status_frames_per_s += (
+                frequencies["supply_current"]
+                + frequencies["stator_current"]
+                + TALONFX_DEFAULT_FRAMES_PER_S
+            )
+            load.control_frames_per_s += frequencies["control"]
+
+    return loads
+
+
+def check_bus_loads(configs: list[MechanismConfig]) -> None:
+    """
+    Print the estimated load of every CAN bus, warning about buses that are close to their budget
+    and exiting if any bus is over budget
+
+    :param configs: Every mechanism sharing the robot's CAN buses
+    :type configs: list[MechanismConfig]
+    """
+    over_budget = False
+
+    print("Estimated CAN bus load:")
+    for load in estimate_bus_loads(configs).values():
+        print(
+            f"  {cli.Colors.fg_cyan}{load.name or 'rio'}{cli.Colors.reset} ({'CAN FD' if load.is_can_fd else 'CAN 2.0'}): "  # pylint: disable=line-too-long
+            f"{load.devices} devices, {load.frames_per_s:.0f} frames/s "
+            f"({load.status_frames_per_s:.0f} status, {load.control_frames_per_s:.0f} control), "
+            f"{load.utilization:.0%} utilization"
+        )
+
+        if load.utilization > FAIL_UTILIZATION:
+            print_err(
+                f"CAN bus `{load.name}` is over budget: {load.utilization:.0%} estimated utilization exceeds {FAIL_UTILIZATION:.0%}"  # pylint: disable=line-too-long
+            )
+            over_budget = True
+        elif load.utilization > WARN_UTILIZATION:
+            print_warning(
+                f"CAN bus `{load.name}` is close to its budget: {load.utilization:.0%} estimated utilization exceeds {WARN_UTILIZATION:.0%}"  # pylint: disable=line-too-long
+            )
+
+    if over_budget:
+        print(
+            "  Lower `signal_frequencies` in the configs on this bus or move mechanisms to another bus"  # pylint: disable=line-too-long
+        )
+        sys.exit(1)
@@ -5,7 +5,7 @@ Houses the MechanismConfig class, a dataclass for describing mechanisms.
 Also contains utils for loading and generating configs.
 """
 
-from dataclasses import dataclass, fields
+from dataclasses import MISSING, dataclass, field, fields
 from enum import Enum
 import json
 import sys
@@ -42,10 +42,38 @@ class MechanismKind(str, Enum):
         return None
 
 
+# Update frequency (Hz) of each group of status signals, and of control requests, when a config
+# doesn't specify one. Control requests default to Phoenix 6's default of 100 Hz. encoder_moving
+# is the rate encoder signals are raised to while the mechanism moves, and idle the rate of every
+# signal while the robot is disabled.
+DEFAULT_SIGNAL_FREQUENCIES: dict[str, float] = {
+    "encoder_position": 50.0,
+    "encoder_velocity": 50.0,
+    "supply_current": 50.0,
+    "stator_current": 50.0,
+    "control": 100.0,
+    "encoder_moving": 100.0,
+    "idle": 4.0,
+}
+
+# Adaptive rates replace a signal's rate instead of disabling it, so they can't be 0 Hz
+ADAPTIVE_SIGNAL_FREQUENCIES: list[str] = ["encoder_moving", "idle"]
+
+# Performance targets a config can declare, each checked by the generated [Name]PerformanceTest.
+# Travel time and settling tolerance are checked by the same test, so they're declared together.
+PERFORMANCE_TARGETS: list[str] = [
+    "full_range_travel_seconds",
+    "settling_tolerance",
+    "max_periodic_allocation_bytes",
+]
+
+
 @dataclass
 class MechanismConfig:
     """
     A dataclass to represent JSON configs. This dataclass is 1:1 with a config JSON file.
+
+    Fields with a default value are optional in the JSON file.
     """
 
     package: str
@@ -55,6 +83,26 @@ class MechanismConfig:
     motors: list[str]
     lead_motor: str
     encoder: str
+    struct_logging: bool = False
+    signal_frequencies: dict[str, float] = field(default_factory=dict)
+    carried_by: Union[str, None] = None
+    performance_targets: dict[str, float] = field(default_factory=dict)
+
+    def __post_init__(self):
+        # Fill in any frequencies that weren't specified so templates can use all of them
+        self.signal_frequencies = {
+            **DEFAULT_SIGNAL_FREQUENCIES,
+            **{
+                signal: float(frequency)
+                for signal, frequency in self.signal_frequencies.items()
+            },
+        }
+
+        # Allocation is counted in whole bytes, so it's rendered as an integer literal
+        if "max_periodic_allocation_bytes" in self.performance_targets:
+            self.performance_targets["max_periodic_allocation_bytes"] = int(
+                self.performance_targets["max_periodic_allocation_bytes"]
+            )
 
 
 def generate_config_from_data(data: dict) -> MechanismConfig:
@@ -67,14 +115,18 @@ def generate_config_from_data(data: dict) -> MechanismConfig:
     :rtype: MechanismConfig
     """
     for key in data:
-        if key not in [field.name for field in fields(MechanismConfig)]:
+        if key not in [config_field.name for config_field in fields(MechanismConfig)]:
             print_err(f"Config contained unexpected field `{key}`")
             sys.exit(1)
 
-    for field in fields(MechanismConfig):
-        if field.name not in data:
+    for config_field in fields(MechanismConfig):
+        if (
+            config_field.name not in data
+            and config_field.default is MISSING
+            and config_field.default_factory is MISSING
+        ):
             print_err(
-                f"Config missing field `{field.name}`",
+                f"Config missing field `{config_field.name}`",
             )
             sys.exit(1)
 
@@ -131,3 +183,146 @@ def validate_config(config: MechanismConfig) -> None:
                 print_err(f"`{config.name}` config: Duplicate motor {motor}")
 
         sys.exit(1)
+
+    if config.carried_by is not None and config.kind != MechanismKind.ARM:
+        print_err(
+            f"`{config.name}` config: `carried_by` is only supported on Arm mechanisms"
+        )
+        sys.exit(1)
+
+    for target, value in config.performance_targets.items():
+        if target not in PERFORMANCE_TARGETS:
+            print_err(f"`{config.name}` config: Unknown target `{target}` in `performance_targets`")
+            print(
+                f"  Expected one of {', '.join(['`' + name + '`' for name in PERFORMANCE_TARGETS])}"  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+        if value < 0 or (value == 0 and target != "max_periodic_allocation_bytes"):
+            print_err(
+                f"`{config.name}` config: `{target}` in `performance_targets` must be positive, but was {value}"  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+    if ("full_range_travel_seconds" in config.performance_targets) != (
+        "settling_tolerance" in config.performance_targets
+    ):
+        print_err(
+            f"`{config.name}` config: `full_range_travel_seconds` and `settling_tolerance` must be declared together in `performance_targets`"  # pylint: disable=line-too-long
+        )
+        sys.exit(1)
+
+    if (
+        "full_range_travel_seconds" in config.performance_targets
+        and config.kind == MechanismKind.FLYWHEEL
+    ):
+        print_err(
+            f"`{config.name}` config: `full_range_travel_seconds` only applies to mechanisms with a range of positions, not `Flywheel`"  # pylint: disable=line-too-long
+        )
+        sys.exit(1)
+
+    if config.performance_targets and config.carried_by is not None:
+        print_err(
+            f"`{config.name}` config: `performance_targets` can't be checked on a carried mechanism, since it only moves while its carrier's sim runs"  # pylint: disable=line-too-long
+        )
+        sys.exit(1)
+
+    for signal, frequency in config.signal_frequencies.items():
+        if signal not in DEFAULT_SIGNAL_FREQUENCIES:
+            print_err(f"`{config.name}` config: Unknown signal `{signal}` in `signal_frequencies`")
+            print(
+                f"  Expected one of {', '.join(['`' + name + '`' for name in DEFAULT_SIGNAL_FREQUENCIES])}"  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+        if frequency == 0.0 and signal in ADAPTIVE_SIGNAL_FREQUENCIES:
+            print_err(
+                f"`{config.name}` config: Frequency of `{signal}` must be between 4 and 1000 Hz, since it can't disable signals"  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+        # Phoenix 6 accepts 4 Hz to 1000 Hz, or 0 Hz to disable a status signal
+        if frequency != 0.0 and not 4.0 <= frequency <= 1000.0:
+            print_err(
+                f"`{config.name}` config: Frequency of `{signal}` must be 0 or between 4 and 1000 Hz, but was {frequency}"  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+
+@dataclass
+class ProjectConfig:
+    """
+    A dataclass to represent a project file, which lists every mechanism config of a robot so
+    that they can all be generated at once.
+
+    Paths are relative to the folder containing the project file.
+    """
+
+    mechanisms: list[str]
+    java_root: Union[str, None] = None
+
+
+def load_project_config(project_path: str) -> ProjectConfig:
+    """Given the path to a JSON project file, parse it into a ProjectConfig.
+
+    This will print errors and exit the program if the project file is malformed.
+
+    :param project_path: Path to the project file (e.g. './robot.json')
+    :type project_path: str
+    :return: The parsed ProjectConfig
+    :rtype: ProjectConfig
+    """
+    try:
+        with open(project_path, "r", encoding="utf-8") as project_file:
+            data = json.load(project_file)
+    except FileNotFoundError:
+        print_err(f"Specified project file {project_path} does not exist.")
+        sys.exit(1)
+    except json.JSONDecodeError:
+        print_err(f"Invalid JSON format in {project_path}")
+        sys.exit(1)
+
+    for key in data:
+        if key not in [project_field.name for project_field in fields(ProjectConfig)]:
+            print_err(f"Project file contained unexpected field `{key}`")
+            sys.exit(1)
+
+    if "mechanisms" not in data:
+        print_err("Project file missing field `mechanisms`")
+        sys.exit(1)
+
+    return ProjectConfig(**data)
+
+
+def validate_project(configs: list[MechanismConfig]) -> None:
+    """
+    Validate that the mechanisms of a project can be generated together
+    """
+
+    names_seen: set[str] = set()
+    for config in configs:
+        if config.name in names_seen:
+            print_err(f"Project contains more than one mechanism named `{config.name}`")
+            sys.exit(1)
+        names_seen.add(config.name)
+
+    elevators = {
+        config.name for config in configs if config.kind == MechanismKind.ELEVATOR
+    }
+    carriers_seen: set[str] = set()
+    for config in configs:
+        if config.carried_by is None:
+            continue
+
+        if config.carried_by not in elevators:
+            print_err(
+                f"`{config.name}` config: `carried_by` must be the name of an Elevator in the project, but was `{config.carried_by}`"  # pylint: disable=line-too-long
+            )
+            sys.exit(1)
+
+        if config.carried_by in carriers_seen:
+            print_err(
+                f"Project contains more than one mechanism carried by `{config.carried_by}`"
+            )
+            sys.exit(1)
+        carriers_seen.add(config.carried_by)
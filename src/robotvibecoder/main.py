@@ -51,6 +51,43 @@ def main() -> None:
     parser_generate.add_argument(
         "-c", "--config", type=str, help="path to the config JSON file"
     )
+    parser_generate.add_argument(
+        "-p",
+        "--project",
+        type=str,
+        help="path to a project JSON file listing every mechanism config, to generate them all at once",  # pylint: disable=line-too-long
+    )
+    parser_generate.add_argument(
+        "-w",
+        "--watch",
+        action="store_true",
+        help="keep running and regenerate the mechanism whenever its config file changes",
+    )
+    parser_generate.add_argument(
+        "--runtime-folder",
+        type=str,
+        help="folder to generate the runtime library shared by every mechanism into (defaults to the frc/robot/lib/robotvibecoder package folder)",  # pylint: disable=line-too-long
+    )
+    parser_generate.add_argument(
+        "--bake-constants",
+        type=str,
+        help="bake the constants each mechanism reads every loop from the deployed constants JSON files in this folder into static finals, for competition builds",  # pylint: disable=line-too-long
+    )
+    parser_generate.add_argument(
+        "--replay-harness",
+        action="store_true",
+        help="also generate a headless harness that replays logs through the mechanism",
+    )
+    parser_generate.add_argument(
+        "--jmh-folder",
+        type=str,
+        help="also generate a JMH benchmark for the mechanism into this folder (e.g. your src/jmh/java package folder)",  # pylint: disable=line-too-long
+    )
+    parser_generate.add_argument(
+        "--test-folder",
+        type=str,
+        help="also generate sim tests and benchmarks for the mechanism into this folder (e.g. your src/test/java package folder)",  # pylint: disable=line-too-long
+    )
     parser_generate.set_defaults(func=generate)
 
     # Parse argv
@@ -0,0 +1,203 @@
+"""
+Tracks what was generated by previous runs so that unchanged files aren't rewritten.
+
+Each generated file is recorded in a manifest next to the generated code along with a hash of
+everything its contents depend on (the config, the template sources and the robotvibecoder
+version) and a hash of the contents that were written. Rewriting a file that hasn't changed would
+still bump its mtime and make Gradle recompile the whole package, so generate uses the manifest to
+skip rendering and writing files that are already up to date.
+"""
+
+import hashlib
+from importlib.metadata import PackageNotFoundError, version
+import json
+import os
+import re
+from typing import Any, Union
+
+from jinja2 import Environment
+
+from robotvibecoder.cli import print_warning
+
+MANIFEST_FILENAME = ".robotvibecoder-manifest.json"
+
+# Bump this if the structure of the manifest changes so that old manifests are ignored
+MANIFEST_VERSION = 1
+
+PARENT_TEMPLATE_PATTERN = re.compile(
+    r"\{%-?\s*(?:extends|include|import)\s+['\"]([^'\"]+)['\"]"
+)
+
+
+def package_version() -> str:
+    """
+    Get the installed version of robotvibecoder, or 'unknown' when running from source
+    """
+    try:
+        return version("robotvibecoder")
+    except PackageNotFoundError:
+        return "unknown"
+
+
+def hash_text(text: str) -> str:
+    """
+    Return the hex sha256 of a string
+    """
+    return hashlib.sha256(text.encode("utf-8")).hexdigest()
+
+
+def template_sources(env: Environment, template_name: str) -> list[str]:
+    """
+    Get the source of a template and every template it extends, includes or imports
+
+    :param env: The environment the template will be loaded from
+    :type env: Environment
+    :param template_name: The name of the template, e.g. 'ArmSim.java.j2'
+    :type template_name: str
+    :return: The source of every template that affects the rendered output, starting with
+        template_name itself
+    :rtype: list[str]
+    """
+    assert env.loader is not None
+
+    sources: list[str] = []
+    seen: set[str] = set()
+    to_visit = [template_name]
+
+    while to_visit:
+        name = to_visit.pop()
+        if name in seen:
+            continue
+        seen.add(name)
+
+        source, _, _ = env.loader.get_source(env, name)
+        sources.append(source)
+        to_visit.extend(PARENT_TEMPLATE_PATTERN.findall(source))
+
+    return sources
+
+
+def input_hash(env: Environment, template_name: str, context: dict[str, Any]) -> str:
+    """
+    Hash everything that the output of rendering template_name with context depends on
+
+    :param env: The environment the template will be loaded from
+    :type env: Environment
+    :param template_name: The name of the template to render
+    :type template_name: str
+    :param context: Everything the template's output depends on besides its source: the
+        variables it will be rendered with, plus any state its filters read (e.g. the placeholder
+        CAN IDs assigned to the mechanism's devices). Must be JSON serializable.
+    :type context: dict[str, Any]
+    :return: A hex digest that changes whenever the rendered output could change
+    :rtype: str
+    """
+    hasher = hashlib.sha256()
+    hasher.update(package_version().encode("utf-8"))
+    hasher.update(json.dumps(context, sort_keys=True).encode("utf-8"))
+    for source in template_sources(env, template_name):
+        hasher.update(b"\0")
+        hasher.update(source.encode("utf-8"))
+
+    return hasher.hexdigest()
+
+
+class Manifest:
+    """
+    The manifest of generated files in a folder, mapping each output path to the hash of its inputs
+    and the hash of the contents that were written
+    """
+
+    def __init__(self, folder: str):
+        self.folder = folder
+        self.path = os.path.join(folder, MANIFEST_FILENAME)
+        self.entries: dict[str, dict[str, str]] = {}
+
+        if not os.path.exists(self.path):
+            return
+
+        try:
+            with open(self.path, "r", encoding="utf-8") as manifest_file:
+                data = json.load(manifest_file)
+        except (OSError, json.JSONDecodeError):
+            print_warning(f"Couldn't read {self.path}, all files will be regenerated")
+            return
+
+        if data.get("version") == MANIFEST_VERSION:
+            self.entries = data.get("files", {})
+
+    def key(self, output_path: str) -> str:
+        """
+        Normalize an output path so that the same file always has the same entry, no matter what
+        directory robotvibecoder is run from
+        """
+        return os.path.relpath(output_path, self.folder or ".")
+
+    def is_up_to_date(self, output_path: str, inputs: str) -> bool:
+        """
+        Check whether a file was generated from the same inputs and hasn't been edited since
+
+        :param output_path: The path of the generated file
+        :type output_path: str
+        :param inputs: The input hash of the file that would be generated now
+        :type inputs: str
+        :return: True if the file on disk is exactly what would be generated now
+        :rtype: bool
+        """
+        entry: Union[dict[str, str], None] = self.entries.get(self.key(output_path))
+        if entry is None or entry.get("inputs") != inputs:
+            return False
+
+        # Make sure the file wasn't deleted or hand-edited since it was generated
+        return entry.get("output") == file_hash(output_path)
+
+    def was_edited(self, output_path: str) -> bool:
+        """
+        Check whether a file on disk differs from what was last generated into it, e.g. because it
+        was edited by hand
+
+        :param output_path: The path of the generated file
+        :type output_path: str
+        :return: True if the file exists and either wasn't generated by robotvibecoder or was
+            changed since. Files that don't exist weren't edited.
+        :rtype: bool
+        """
+        current = file_hash(output_path)
+        if current is None:
+            return False
+
+        entry: Union[dict[str, str], None] = self.entries.get(self.key(output_path))
+        return entry is None or entry.get("output") != current
+
+    def record(self, output_path: str, inputs: str, output: str) -> None:
+        """
+        Record that output_path contains output, generated from inputs
+        """
+        self.entries[self.key(output_path)] = {
+            "inputs": inputs,
+            "output": hash_text(output),
+        }
+
+    def save(self) -> None:
+        """
+        Write the manifest to disk
+        """
+        with open(self.path, "w", encoding="utf-8") as manifest_file:
+            json.dump(
+                {"version": MANIFEST_VERSION, "files": self.entries},
+                manifest_file,
+                indent=2,
+                sort_keys=True,
+            )
+            manifest_file.write("\n")
+
+
+def file_hash(path: str) -> Union[str, None]:
+    """
+    Return the hash of a file's contents, or None if it doesn't exist
+    """
+    try:
+        with open(path, "r", encoding="utf-8") as existing_file:
+            return hash_text(existing_file.read())
+    except FileNotFoundError:
+        return None
@@ -3,88 +3,511 @@ The 'generate' subcommand, for templating/generating a mechanism from a config
 """
 
 from argparse import Namespace
+from concurrent.futures import ThreadPoolExecutor
 import json
 import os
 import sys
+import time
+from typing import Any, Union
+
+from jinja2 import Template
 
 from robotvibecoder import cli
+from robotvibecoder.baking import load_baked_constants
+from robotvibecoder.canbus import check_bus_loads
 from robotvibecoder.cli import print_err, print_warning
 from robotvibecoder.config import (
     MechanismConfig,
     MechanismKind,
     generate_config_from_data,
     load_json_config,
+    load_project_config,
     validate_config,
+    validate_project,
+)
+from robotvibecoder.manifest import (
+    Manifest,
+    file_hash,
+    hash_text,
+    input_hash,
+    package_version,
 )
-from robotvibecoder.templating import generate_env
+from robotvibecoder.templating import GlobalTemplateState, generate_env
+
+WATCH_POLL_INTERVAL_S = 0.5
+
+# A mechanism to generate, and the folder its files should be generated into
+MechanismTarget = tuple[MechanismConfig, str]
+
+# The package (relative to frc.robot) of the runtime library shared by every generated mechanism
+RUNTIME_PACKAGE = "lib.robotvibecoder"
+
+# Templates of the runtime library, which are rendered once rather than once per mechanism
+RUNTIME_TEMPLATES: dict[str, str] = {
+    "runtime/RobotVibeCoderRuntime.java.j2": "RobotVibeCoderRuntime.java",
+    "runtime/MechanismLoopTiming.java.j2": "MechanismLoopTiming.java",
+    "runtime/AdaptiveSignalRates.java.j2": "AdaptiveSignalRates.java",
+    "runtime/CANBusUtilization.java.j2": "CANBusUtilization.java",
+    "runtime/DeviceHealth.java.j2": "DeviceHealth.java",
+    "runtime/MotorThermalModel.java.j2": "MotorThermalModel.java",
+    "runtime/SupplyCurrentBudget.java.j2": "SupplyCurrentBudget.java",
+    "runtime/InterpolationTable.java.j2": "InterpolationTable.java",
+    "runtime/ConstantsBootstrap.java.j2": "ConstantsBootstrap.java",
+    "runtime/ConstantsHotReload.java.j2": "ConstantsHotReload.java",
+    "runtime/SimulatedStatusSignal.java.j2": "SimulatedStatusSignal.java",
+    "runtime/SuperstructureSim.java.j2": "SuperstructureSim.java",
+    "runtime/MoveMetrics.java.j2": "MoveMetrics.java",
+    "runtime/PresetProfileCache.java.j2": "PresetProfileCache.java",
+}
 
 
 def generate(args: Namespace) -> None:
     """
-    Given a config (either a path or via stdin), template and generate mechanism boilerplate files
+    Given a config (either a path or via stdin) or a project file listing configs, template and
+    generate mechanism boilerplate files
     """
+    if args.watch:
+        watch(args)
+        return
+
+    targets = load_targets(args, [])
+    generate_mechanisms(targets, args, confirm=not args.stdin)
+
+
+def load_targets(args: Namespace, loaded_paths: list[str]) -> list[MechanismTarget]:
+    """
+    Load every mechanism that should be generated, based on whether --stdin, --config or
+    --project was supplied
+
+    :param args: The arguments of the generate subcommand
+    :type args: Namespace
+    :param loaded_paths: Every file that is read is appended to this list before it's read, so
+        that --watch can watch it even if loading it fails
+    :type loaded_paths: list[str]
+    :return: The mechanisms to generate, with the folder to generate each of them into
+    :rtype: list[MechanismTarget]
+    """
+    if len([arg for arg in [args.stdin, args.config, args.project] if arg]) > 1:
+        print_err("Only one of --stdin, --config [file] or --project [file] may be supplied")
+        sys.exit(1)
+
     if args.stdin:
         print("Reading config from stdin.")
         data = json.load(sys.stdin)
 
-        config: MechanismConfig = generate_config_from_data(data)
-    else:
-        if args.config is None:
+        return [(generate_config_from_data(data), args.folder)]
+
+    if args.config is not None:
+        config_path = os.path.join(args.folder, args.config)
+        loaded_paths.append(config_path)
+        print(f"[{cli.Colors.title_str}] Reading config file at {config_path}")
+
+        return [(load_json_config(config_path), args.folder)]
+
+    if args.project is not None:
+        project_path = os.path.join(args.folder, args.project)
+        project_folder = os.path.dirname(project_path)
+        loaded_paths.append(project_path)
+        print(f"[{cli.Colors.title_str}] Reading project file at {project_path}")
+        project = load_project_config(project_path)
+
+        targets: list[MechanismTarget] = []
+        for mechanism in project.mechanisms:
+            config_path = os.path.join(project_folder, mechanism)
+            loaded_paths.append(config_path)
+            print(f"  Reading config file at {config_path}")
+            config = load_json_config(config_path)
+
+            if project.java_root is None:
+                folder = args.folder
+            else:
+                # Put each mechanism in the folder matching its package
+                folder = os.path.join(
+                    project_folder, project.java_root, *config.package.split(".")
+                )
+
+            targets.append((config, folder))
+
+        validate_project([config for config, _ in targets])
+        return targets
+
+    print_err(
+        "Config not specified: Either --stdin, --config [file] or --project [file] must be supplied to command."  # pylint: disable=line-too-long
+    )
+    sys.exit(1)
+
+
+def watch(args: Namespace) -> None:
+    """
+    Regenerate mechanisms every time their config files (or the project file listing them)
+    change, until cancelled with Ctrl+C
+    """
+    if args.stdin or (args.config is None and args.project is None):
+        print_err(
+            "--watch requires a config file to be supplied with --config [file] or --project [file]"  # pylint: disable=line-too-long
+        )
+        sys.exit(1)
+
+    watched_paths: list[str] = [os.path.join(args.folder, args.config or args.project)]
+    last_mtimes: dict[str, Union[float, None]] = {}
+    confirm = True
+
+    print(f"[{cli.Colors.title_str}] Watching {watched_paths[0]} for changes")
+    print("  Press Ctrl+C to stop watching")
+
+    try:
+        while True:
+            mtimes = read_mtimes(watched_paths)
+
+            if mtimes != last_mtimes:
+                loaded_paths: list[str] = []
+                try:
+                    generate_mechanisms(load_targets(args, loaded_paths), args, confirm)
+                    # Only confirm overwriting files once, the user asked to keep them in sync
+                    confirm = False
+                except SystemExit as e:
+                    if e.code == 0:
+                        # The user cancelled at the overwrite prompt
+                        raise
+                    # A config that's being edited may be temporarily invalid. The error has
+                    # already been printed, so keep watching for the next change.
+                    print_warning("Config is invalid, waiting for it to change")
+
+                # The project file may have added or removed configs. Files that were already
+                # watched keep their mtime from before generating, so edits made while
+                # generating are still picked up.
+                watched_paths = loaded_paths
+                current_mtimes = read_mtimes(watched_paths)
+                last_mtimes = {
+                    path: mtimes.get(path, current_mtimes[path]) for path in watched_paths
+                }
+
+            time.sleep(WATCH_POLL_INTERVAL_S)
+    except KeyboardInterrupt:
+        print("\nStopped watching.")
+
+
+def read_mtimes(paths: list[str]) -> dict[str, Union[float, None]]:
+    """
+    Get the modification time of each path, or None for paths that don't exist
+    """
+    mtimes: dict[str, Union[float, None]] = {}
+    for path in paths:
+        try:
+            mtimes[path] = os.path.getmtime(path)
+        except FileNotFoundError:
+            mtimes[path] = None
+
+    return mtimes
+
+
+def output_paths(
+    config: MechanismConfig, folder: str, args: Namespace, coupled_sim: bool
+) -> dict[str, str]:
+    """
+    Determine which templates should be rendered for a mechanism, and where each should be written
+
+    :param config: The config of the mechanism
+    :type config: MechanismConfig
+    :param folder: The folder to generate the mechanism's files into
+    :type folder: str
+    :param args: The arguments of the generate subcommand
+    :type args: Namespace
+    :param coupled_sim: Whether the mechanism carries or is carried by another, so its sim should
+        be part of a SuperstructureSim instead of its own plant
+    :type coupled_sim: bool
+    :return: A map of template name to output path
+    :rtype: dict[str, str]
+    """
+    sim_template = ("Coupled" if coupled_sim else "") + config.kind + "Sim.java.j2"
+    template_to_output_map: dict[str, str] = {
+        template: os.path.join(folder, output.format(name=config.name))
+        for template, output in {
+            "Mechanism.java.j2": "{name}Mechanism.java",
+            "MechanismIO.java.j2": "{name}IO.java",
+            "MechanismIOTalonFX.java.j2": "{name}IOTalonFX.java",
+            "MechanismConstants.java.j2": "{name}Constants.java",
+            "MechanismIOReplay.java.j2": "{name}IOReplay.java",
+            sim_template: "{name}IOSim.java",
+        }.items()
+    }
+
+    if config.struct_logging:
+        template_to_output_map["MechanismIOStructs.java.j2"] = os.path.join(
+            folder, f"{config.name}IOStructs.java"
+        )
+
+    if args.replay_harness:
+        template_to_output_map["MechanismReplayHarness.java.j2"] = os.path.join(
+            folder, f"{config.name}ReplayHarness.java"
+        )
+
+    if args.bake_constants is not None:
+        template_to_output_map["MechanismBakedConstants.java.j2"] = os.path.join(
+            folder, f"{config.name}BakedConstants.java"
+        )
+
+    if args.jmh_folder is not None:
+        # Benchmarks live in a separate source set (e.g. src/jmh/java) so they aren't deployed
+        template_to_output_map["MechanismBenchmark.java.j2"] = os.path.join(
+            args.jmh_folder, f"{config.name}MechanismBenchmark.java"
+        )
+
+    # A carried mechanism's sim only moves while its carrier's sim runs, so it can't be benchmarked
+    # on its own
+    if args.test_folder is not None and config.carried_by is None:
+        template_to_output_map["MechanismControlModeBenchmark.java.j2"] = os.path.join(
+            args.test_folder, f"{config.name}ControlModeBenchmark.java"
+        )
+
+    if args.test_folder is not None and config.performance_targets:
+        template_to_output_map["MechanismPerformanceTest.java.j2"] = os.path.join(
+            args.test_folder, f"{config.name}PerformanceTest.java"
+        )
+
+    return template_to_output_map
+
+
+def runtime_folder(targets: list[MechanismTarget], args: Namespace) -> str:
+    """
+    Determine the folder the runtime library should be generated into
+
+    If --runtime-folder isn't supplied and the first mechanism is generated into the folder
+    matching its package (e.g. src/main/java/frc/robot/subsystems/scoring), the runtime library
+    goes into the matching package folder under the same root. Otherwise it goes into
+    lib/robotvibecoder under the mechanism's folder.
+
+    :param targets: The mechanisms being generated, with the folder of each of them
+    :type targets: list[MechanismTarget]
+    :param args: The arguments of the generate subcommand
+    :type args: Namespace
+    :return: The folder to generate the runtime library into
+    :rtype: str
+    """
+    if args.runtime_folder is not None:
+        return args.runtime_folder
+
+    config, folder = targets[0]
+    folder_parts = os.path.normpath(folder).split(os.sep)
+    package_parts = config.package.split(".")
+
+    if folder_parts[-len(package_parts) :] == package_parts:
+        java_root = os.sep.join(folder_parts[: -len(package_parts)]) or "."
+        return os.path.join(java_root, *RUNTIME_PACKAGE.split("."))
+
+    return os.path.join(folder, *RUNTIME_PACKAGE.split("."))
+
+
+def render_if_changed(
+    template: Template, context: dict[str, Any], output_path: str
+) -> tuple[str, bool]:
+    """
+    Render a template and compare it to the file that's already at output_path
+
+    This runs on a worker thread, so it must not touch any shared state.
+
+    :return: The rendered output, and whether it differs from the file on disk
+    :rtype: tuple[str, bool]
+    """
+    output: str = template.render(context)
+    return output, file_hash(output_path) != hash_text(output)
+
+
+def generate_mechanisms(
+    targets: list[MechanismTarget], args: Namespace, confirm: bool
+) -> None:
+    """
+    Template and generate the boilerplate files for one or more mechanisms, skipping files that
+    are already up to date
+
+    Every mechanism shares one environment and one runtime library, templates are rendered in
+    parallel, and all overwrites are confirmed with a single prompt.
+
+    :param targets: The mechanisms to generate, with the folder to generate each of them into
+    :type targets: list[MechanismTarget]
+    :param args: The arguments of the generate subcommand
+    :type args: Namespace
+    :param confirm: Whether to ask before overwriting files. In --stdin mode nothing is asked, and
+        generation is cancelled instead if it would overwrite a file that differs from the
+        generated one. Otherwise (in --watch mode after the first run), files that were edited
+        since they were generated are skipped instead of overwritten.
+    :type confirm: bool
+    """
+    for config, _ in targets:
+        validate_config(config)
+
+        if config.kind == MechanismKind.FLYWHEEL:
+            raise NotImplementedError("Flywheel Mechanisms are not implemented yet :(")
+
+    # A carried arm and the elevator carrying it share one sim, so they're generated together
+    carried_mechanisms: dict[str, str] = {
+        config.carried_by: config.name for config, _ in targets if config.carried_by is not None
+    }
+    target_names = {config.name for config, _ in targets}
+    for carrier, carried in carried_mechanisms.items():
+        if carrier not in target_names:
             print_err(
-                "Config not specified: Either --stdin or --config [file] must be supplied to command."  # pylint: disable=line-too-long
+                f"`{carried}` is carried by `{carrier}`, which isn't being generated. Generate both with --project so that their sims are coupled."  # pylint: disable=line-too-long
             )
             sys.exit(1)
-        config_path = os.path.join(args.folder, args.config)
-        print(f"[{cli.Colors.title_str}] Reading config file at {config_path}")
-        config = load_json_config(config_path)
 
-    validate_config(config)
+    check_bus_loads([config for config, _ in targets])
+
+    # In --watch mode this runs repeatedly in the same process, so start from a clean slate to
+    # keep placeholder CAN IDs stable between runs. IDs are assigned up front, in config order,
+    # so they're unique across the whole robot no matter which thread renders which template.
+    GlobalTemplateState.reset()
+    GlobalTemplateState.assign_can_ids([config for config, _ in targets])
 
     env = generate_env()
+    manifests: dict[str, Manifest] = {}
 
-    if config.kind == MechanismKind.FLYWHEEL:
-        raise NotImplementedError("Flywheel Mechanisms are not implemented yet :(")
+    # (render context, template name, output path, manifest, input hash) of every file that
+    # isn't already up to date
+    jobs: list[tuple[dict[str, Any], str, str, Manifest, str]] = []
+    total_files = 0
+    seen_paths: set[str] = set()
 
-    template_to_output_map: dict[str, str] = {
-        "Mechanism.java.j2": "{name}Mechanism.java",
-        "MechanismIO.java.j2": "{name}IO.java",
-        "MechanismIOTalonFX.java.j2": "{name}IOTalonFX.java",
-        "MechanismConstants.java.j2": "{name}Constants.java",
-        config.kind + "Sim.java.j2": "{name}IOSim.java",
+    def add_job(
+        context: dict[str, Any],
+        hashed_context: dict[str, Any],
+        file_template: str,
+        output_path: str,
+        folder: str,
+    ) -> None:
+        nonlocal total_files
+
+        total_files += 1
+        if os.path.normpath(output_path) in seen_paths:
+            print_err(f"More than one mechanism would generate {output_path}")
+            sys.exit(1)
+        seen_paths.add(os.path.normpath(output_path))
+
+        if folder not in manifests:
+            manifests[folder] = Manifest(folder)
+        manifest = manifests[folder]
+
+        inputs = input_hash(env, file_template, hashed_context)
+        if not manifest.is_up_to_date(output_path, inputs):
+            jobs.append((context, file_template, output_path, manifest, inputs))
+
+    for config, folder in targets:
+        context = {
+            **config.__dict__,
+            "runtime_package": RUNTIME_PACKAGE,
+            "baked_constants": (
+                load_baked_constants(config, args.bake_constants)
+                if args.bake_constants is not None
+                else None
+            ),
+            "carried_mechanism": carried_mechanisms.get(config.name),
+        }
+        # CAN IDs depend on the other mechanisms in the project, not just this config
+        hashed_context = {**context, "can_ids": GlobalTemplateState.can_ids_for(config)}
+
+        coupled_sim = config.carried_by is not None or config.name in carried_mechanisms
+        for file_template, output_path in output_paths(
+            config, folder, args, coupled_sim
+        ).items():
+            add_job(context, hashed_context, file_template, output_path, folder)
+
+    # The runtime library is shared by every mechanism, so it's only generated once
+    runtime_context = {"runtime_package": RUNTIME_PACKAGE, "version": package_version()}
+    runtime_output_folder = runtime_folder(targets, args)
+    for file_template, output in RUNTIME_TEMPLATES.items():
+        add_job(
+            runtime_context,
+            runtime_context,
+            file_template,
+            os.path.join(runtime_output_folder, output),
+            runtime_output_folder,
+        )
+
+    # Load and compile every template on this thread, so workers only render
+    templates: dict[str, Template] = {
+        file_template: env.get_template(file_template)
+        for file_template in {job[1] for job in jobs}
     }
 
-    if not args.stdin:
+    with ThreadPoolExecutor() as executor:
+        rendered = list(
+            executor.map(
+                lambda job: render_if_changed(templates[job[1]], job[0], job[2]), jobs
+            )
+        )
+
+    # Output path -> (manifest, input hash, rendered output) for every file that needs to be
+    # written
+    changed_outputs: dict[str, tuple[Manifest, str, str]] = {}
+
+    for (_, _, output_path, manifest, inputs), (output, changed) in zip(jobs, rendered):
+        if changed:
+            changed_outputs[output_path] = (manifest, inputs, output)
+        else:
+            # Generated from different inputs (e.g. a template change that didn't affect this
+            # mechanism) but identical, so leave the file and its mtime alone
+            manifest.record(output_path, inputs, output)
+
+    if not changed_outputs:
+        for manifest in manifests.values():
+            manifest.save()
+        print(f"All {total_files} files are up to date.")
+        return
+
+    edited_paths: list[str] = []
+    if confirm:
         print_warning(
             "This will create/overwrite files at the following paths:"  # pylint: disable=line-too-long
         )
-        for file_template, file_output in template_to_output_map.items():
-            output_path = os.path.join(
-                args.folder,
-                file_output.format(name=config.name),
-            )
+        for output_path in changed_outputs:
             print(f"  {output_path}")
         try:
             input("\n  Press Ctrl+C to cancel or [Enter] to continue")
         except KeyboardInterrupt:
             print("\nCancelled.")
             sys.exit(0)
-
-    print("Templating files:")
-    for file_template, file_output in template_to_output_map.items():
-        output_path = os.path.join(args.folder, file_output.format(name=config.name))
-
-        if os.path.exists(output_path) and args.stdin:
-            # stdin mode skips the warning prompt at the start, so files would
-            # be destroyed, necessitating this check
-            print_err(
-                f"File {output_path} already exists. Please move/delete it and retry"
+    elif args.stdin:
+        for output_path in changed_outputs:
+            if os.path.exists(output_path):
+                # stdin mode skips the warning prompt at the start, so files would
+                # be destroyed, necessitating this check
+                print_err(
+                    f"File {output_path} already exists. Please move/delete it and retry"
+                )
+                sys.exit(1)
+    else:
+        # Overwriting generated files was confirmed on the first --watch run, but that
+        # confirmation doesn't cover files edited by hand since then
+        edited_paths = [
+            output_path
+            for output_path, (manifest, _, _) in changed_outputs.items()
+            if manifest.was_edited(output_path)
+        ]
+        if edited_paths:
+            print_warning(
+                "Skipping files that were edited since they were generated. Delete them or regenerate without --watch to overwrite them:"  # pylint: disable=line-too-long
             )
-            sys.exit(1)
+            for output_path in edited_paths:
+                print(f"  {output_path}")
+                del changed_outputs[output_path]
 
-        print(f"{cli.Colors.fg_cyan}➜{cli.Colors.reset} {output_path}")
-        template_path = file_template
-        template = env.get_template(template_path)
+        if not changed_outputs:
+            for manifest in manifests.values():
+                manifest.save()
+            return
 
-        output: str = template.render(config.__dict__)
+    print("Templating files:")
+    for output_path, (manifest, inputs, output) in changed_outputs.items():
+        print(f"{cli.Colors.fg_cyan}➜{cli.Colors.reset} {output_path}")
+        os.makedirs(os.path.dirname(output_path) or ".", exist_ok=True)
         with open(output_path, "w+", encoding="utf-8") as outfile:
             outfile.write(output)
+
+        manifest.record(output_path, inputs, output)
+
+    skipped = total_files - len(changed_outputs) - len(edited_paths)
+    if skipped > 0:
+        print(f"Skipped {skipped} unchanged files.")
+
+    for manifest in manifests.values():
+        manifest.save()
@@ -6,6 +6,7 @@ from jinja2 import Environment, PackageLoader, select_autoescape
 
 from robotvibecoder import cli
 from robotvibecoder.cli import print_err
+from robotvibecoder.config import MechanismConfig
 
 
 def article(word: str) -> str:
@@ -55,20 +56,63 @@ class GlobalTemplateState:  # pylint: disable=too-few-public-methods
         GlobalTemplateState.last_id += 1
         return GlobalTemplateState.last_id
 
+    @staticmethod
+    def reset() -> None:
+        """
+        Forget all assigned CAN IDs, so that regenerating a mechanism assigns the same IDs again
+        """
+
+        GlobalTemplateState.last_id = 0
+        GlobalTemplateState.can_id_map = {}
+
+    @staticmethod
+    def assign_can_ids(configs: list[MechanismConfig]) -> None:
+        """
+        Assign placeholder CAN IDs to every device of every mechanism, in order.
+
+        This should be done before any templates are rendered, so that IDs depend only on the
+        order of the configs and not on the order (or thread) that templates are rendered in.
+        """
+
+        for config in configs:
+            for device in config.motors + [config.encoder]:
+                hash_can_id(device, config.name)
+
+    @staticmethod
+    def can_ids_for(config: MechanismConfig) -> dict[str, int]:
+        """
+        Get the CAN IDs assigned to the devices of a mechanism, keyed by device name
+        """
+
+        return {
+            device: GlobalTemplateState.can_id_map[can_id_key(device, config.name)]
+            for device in config.motors + [config.encoder]
+            if can_id_key(device, config.name) in GlobalTemplateState.can_id_map
+        }
+
+
+def can_id_key(device: str, mechanism: str) -> str:
+    """
+    Device names are only unique within a mechanism, so CAN IDs are keyed by both
+    """
+    return f"{mechanism}.{device}"
+
 
-def hash_can_id(device: str) -> str:
+def hash_can_id(device: str, mechanism: str) -> str:
     """
-    Given a device name, generate a unique CAN Id that is tied to that device
+    Given a device name and the name of its mechanism, generate a unique CAN Id that is tied to
+    that device
     """
-    if device not in GlobalTemplateState.can_id_map:
+    key = can_id_key(device, mechanism)
+    if key not in GlobalTemplateState.can_id_map:
         next_id = GlobalTemplateState.new_id()
-        GlobalTemplateState.can_id_map[device] = next_id
+        GlobalTemplateState.can_id_map[key] = next_id
         print(f"  {cli.Colors.fg_green}➜{cli.Colors.reset} ", end="")
         print(
-            f"Mapped device {cli.Colors.fg_cyan}{device}{cli.Colors.reset} to placeholder CAN ID {cli.Colors.fg_cyan}{next_id}{cli.Colors.reset}"  # pylint: disable=line-too-long
+            f"Mapped device {cli.Colors.fg_cyan}{key}{cli.Colors.reset} to placeholder CAN ID {cli.Colors.fg_cyan}{next_id}{cli.Colors.reset}"  # pylint: disable=line-too-long
         )
 
-    return str(GlobalTemplateState.can_id_map[device])
+    return str(GlobalTemplateState.can_id_map[key])
 
 
 def pos_dimension(kind: str) -> str:
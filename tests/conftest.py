@@ -0,0 +1,81 @@
+# SPDX-FileCopyrightText: 2025-present team401
+#
+# SPDX-License-Identifier: GPL-3.0-only
+"""
+Fixtures shared by every test
+"""
+
+from argparse import Namespace
+import json
+import os
+from typing import Any, Callable
+
+import pytest
+
+from robotvibecoder.config import MechanismConfig, generate_config_from_data
+from robotvibecoder.templating import GlobalTemplateState
+
+EXAMPLES_FOLDER = os.path.join(os.path.dirname(__file__), "..", "examples")
+
+
+@pytest.fixture(autouse=True)
+def reset_can_ids():
+    """
+    Placeholder CAN IDs are global, so start every test without any assigned
+    """
+    GlobalTemplateState.reset()
+    yield
+    GlobalTemplateState.reset()
+
+
+@pytest.fixture(name="example_data")
+def fixture_example_data() -> Callable[..., dict[str, Any]]:
+    """
+    Load the JSON data of one of the example configs, with some of its fields replaced
+    """
+
+    def load(filename: str, **overrides: Any) -> dict[str, Any]:
+        with open(os.path.join(EXAMPLES_FOLDER, filename), "r", encoding="utf-8") as file:
+            data = json.load(file)
+
+        return {**data, **overrides}
+
+    return load
+
+
+@pytest.fixture(name="example_config")
+def fixture_example_config(
+    example_data: Callable[..., dict[str, Any]],
+) -> Callable[..., MechanismConfig]:
+    """
+    Load one of the example configs, with some of its fields replaced
+    """
+
+    def load(filename: str, **overrides: Any) -> MechanismConfig:
+        return generate_config_from_data(example_data(filename, **overrides))
+
+    return load
+
+
+@pytest.fixture(name="generate_args")
+def fixture_generate_args() -> Callable[..., Namespace]:
+    """
+    Build the arguments of the generate subcommand, as if only the given ones were passed
+    """
+
+    def build(**overrides: Any) -> Namespace:
+        args = {
+            "stdin": False,
+            "config": None,
+            "project": None,
+            "watch": False,
+            "folder": ".",
+            "runtime_folder": None,
+            "bake_constants": None,
+            "replay_harness": False,
+            "jmh_folder": None,
+            "test_folder": None,
+        }
+        return Namespace(**{**args, **overrides})
+
+    return build
@@ -0,0 +1,159 @@
+# SPDX-FileCopyrightText: 2025-present team401
+#
+# SPDX-License-Identifier: GPL-3.0-only
+"""
+Tests for baking deployed constants into static finals with --bake-constants
+"""
+
+import json
+import os
+
+import pytest
+
+from robotvibecoder.baking import (
+    HOT_CONSTANTS,
+    hot_constant_fields,
+    java_literal,
+    load_baked_constants,
+)
+from robotvibecoder.subcommands.generate import generate_mechanisms
+
+
+def deployed_constants(config) -> dict:
+    """Get a deployed constants JSON that has every hot constant of config"""
+    return {
+        field: 3 if java_type == "int" else 1.5
+        for field, java_type in hot_constant_fields(config).items()
+    }
+
+
+def deploy(folder: str, config, constants: dict) -> None:
+    """Write a mechanism's deployed constants JSON into folder"""
+    with open(
+        os.path.join(folder, f"{config.name}Constants.json"), "w", encoding="utf-8"
+    ) as file:
+        json.dump(constants, file)
+
+
+def test_hot_constant_fields_are_prefixed_with_name(example_config):
+    """Every hot constant is looked up by the mechanism's lowerfirst name plus its suffix"""
+    fields = hot_constant_fields(example_config("wristconfig.json"))
+
+    assert fields == {"wrist" + suffix: java_type for suffix, java_type in HOT_CONSTANTS.items()}
+
+
+def test_elevators_also_bake_height_conversion(example_config):
+    """Elevators convert encoder rotations to height every loop, so that ratio is hot too"""
+    fields = hot_constant_fields(example_config("exampleconfig.json"))
+
+    assert fields["elevatorHeightPerElevatorEncoderRotationMeters"] == "double"
+
+
+def test_java_literal_formats_numbers():
+    """Doubles always get a decimal point, and whole numbers can be ints"""
+    assert java_literal(2, "double") == "2.0"
+    assert java_literal(0.25, "double") == "0.25"
+    assert java_literal(3, "int") == "3"
+    assert java_literal(3.0, "int") == "3"
+
+
+@pytest.mark.parametrize(
+    "value,java_type",
+    [
+        (True, "double"),
+        ("1.0", "double"),
+        (None, "double"),
+        (float("nan"), "double"),
+        (float("inf"), "double"),
+        (2.5, "int"),
+    ],
+)
+def test_java_literal_rejects_invalid_values(value, java_type):
+    """Values that can't be written as a Java literal of the type are rejected"""
+    with pytest.raises(ValueError):
+        java_literal(value, java_type)
+
+
+def test_load_baked_constants_reads_deployed_values(tmp_path, example_config):
+    """Every hot constant is baked, in declaration order, with its deployed value"""
+    config = example_config("wristconfig.json")
+    constants = deployed_constants(config)
+    constants["wristSupplyCurrentPriority"] = 7
+    constants["wristMovingSignalFrequencyHz"] = 250
+    deploy(str(tmp_path), config, constants)
+
+    baked = load_baked_constants(config, str(tmp_path))
+
+    assert [constant["name"] for constant in baked] == list(hot_constant_fields(config))
+    by_name = {constant["name"]: constant for constant in baked}
+    assert by_name["wristSupplyCurrentPriority"] == {
+        "type": "int",
+        "name": "wristSupplyCurrentPriority",
+        "value": "7",
+    }
+    assert by_name["wristMovingSignalFrequencyHz"]["value"] == "250.0"
+
+
+def test_load_baked_constants_requires_deployed_file(tmp_path, example_config):
+    """Constants can't be baked before they've been deployed once"""
+    with pytest.raises(SystemExit):
+        load_baked_constants(example_config("wristconfig.json"), str(tmp_path))
+
+
+def test_load_baked_constants_requires_every_hot_constant(tmp_path, example_config):
+    """A deployed file from an older version that lacks a hot constant can't be baked"""
+    config = example_config("wristconfig.json")
+    constants = deployed_constants(config)
+    del constants["wristMinThermalDerate"]
+    deploy(str(tmp_path), config, constants)
+
+    with pytest.raises(SystemExit):
+        load_baked_constants(config, str(tmp_path))
+
+
+def test_baking_substitutes_hot_constants(tmp_path, example_config, generate_args):
+    """Baked mechanisms read hot constants from [Name]BakedConstants instead of JSONSync"""
+    folder = str(tmp_path)
+    constants_folder = os.path.join(folder, "deploy")
+    os.makedirs(constants_folder)
+    config = example_config("wristconfig.json")
+    constants = deployed_constants(config)
+    constants["wristMovingSignalFrequencyHz"] = 250
+    deploy(constants_folder, config, constants)
+
+    generate_mechanisms(
+        [(config, folder)],
+        generate_args(folder=folder, bake_constants=constants_folder),
+        confirm=False,
+    )
+
+    with open(os.path.join(folder, "WristBakedConstants.java"), "r", encoding="utf-8") as file:
+        baked_class = file.read()
+    assert "public static final double wristMovingSignalFrequencyHz = 250.0;" in baked_class
+    assert "public static final int wristSupplyCurrentPriority = 3;" in baked_class
+
+    for generated in ["WristMechanism.java", "WristIOTalonFX.java"]:
+        with open(os.path.join(folder, generated), "r", encoding="utf-8") as file:
+            source = file.read()
+
+        # Every hot constant that's read goes through the baked class, never the synced object
+        for field in hot_constant_fields(config):
+            assert f"constants.{field}" not in source
+        assert "WristBakedConstants." in source
+
+
+def test_unbaked_mechanisms_read_synced_constants(tmp_path, example_config, generate_args):
+    """Without --bake-constants, no baked class is generated or referenced"""
+    folder = str(tmp_path)
+
+    generate_mechanisms(
+        [(example_config("wristconfig.json"), folder)],
+        generate_args(folder=folder),
+        confirm=False,
+    )
+
+    assert not os.path.exists(os.path.join(folder, "WristBakedConstants.java"))
+    with open(os.path.join(folder, "WristMechanism.java"), "r", encoding="utf-8") as file:
+        source = file.read()
+    assert "WristBakedConstants" not in source
+    assert "constants.wristThermalDerateStartCelsius" in source
@@ -0,0 +1,153 @@
+# SPDX-FileCopyrightText: 2025-present team401
+#
+# SPDX-License-Identifier: GPL-3.0-only
+"""
+Tests for the CAN bus load estimate and its warn/fail thresholds
+"""
+
+import pytest
+
+from robotvibecoder import canbus
+from robotvibecoder.canbus import (
+    CAN_2_FRAME_TIME_S,
+    CAN_FD_FRAME_TIME_S,
+    CANCODER_DEFAULT_FRAMES_PER_S,
+    FAIL_UTILIZATION,
+    TALONFX_DEFAULT_FRAMES_PER_S,
+    WARN_UTILIZATION,
+    check_bus_loads,
+    estimate_bus_loads,
+)
+
+# Frames per second of the example elevator (a CANcoder and two TalonFXs) at the default signal
+# frequencies, with its encoder signals raised to the 100 Hz moving rate
+ELEVATOR_STATUS_FRAMES_PER_S = (
+    100.0
+    + 100.0
+    + CANCODER_DEFAULT_FRAMES_PER_S
+    + 2 * (50.0 + 50.0 + TALONFX_DEFAULT_FRAMES_PER_S)
+)
+ELEVATOR_CONTROL_FRAMES_PER_S = 2 * 100.0
+
+
+def test_estimate_counts_every_device_and_frame(example_config):
+    """The estimate counts configured signals, default frames and control requests of each device"""
+    loads = estimate_bus_loads([example_config("exampleconfig.json")])
+
+    load = loads["canivore"]
+    assert load.devices == 3
+    assert load.status_frames_per_s == pytest.approx(ELEVATOR_STATUS_FRAMES_PER_S)
+    assert load.control_frames_per_s == pytest.approx(ELEVATOR_CONTROL_FRAMES_PER_S)
+    assert load.frames_per_s == pytest.approx(
+        ELEVATOR_STATUS_FRAMES_PER_S + ELEVATOR_CONTROL_FRAMES_PER_S
+    )
+
+
+def test_utilization_depends_on_bus_type(example_config):
+    """CANivores carry frames faster than the roboRIO's CAN 2.0 bus"""
+    frames_per_s = ELEVATOR_STATUS_FRAMES_PER_S + ELEVATOR_CONTROL_FRAMES_PER_S
+
+    canivore = estimate_bus_loads([example_config("exampleconfig.json")])["canivore"]
+    assert canivore.is_can_fd
+    assert canivore.utilization == pytest.approx(frames_per_s * CAN_FD_FRAME_TIME_S)
+
+    for rio_name in ["rio", ""]:
+        rio = estimate_bus_loads([example_config("exampleconfig.json", canbus=rio_name)])[
+            rio_name
+        ]
+        assert not rio.is_can_fd
+        assert rio.utilization == pytest.approx(frames_per_s * CAN_2_FRAME_TIME_S)
+
+
+def test_encoder_signals_are_counted_at_moving_rate(example_config):
+    """Encoder signals count at the moving rate if it's higher, and disabled signals stay at 0"""
+    config = example_config(
+        "exampleconfig.json",
+        signal_frequencies={
+            "encoder_position": 0,
+            "encoder_velocity": 200,
+            "encoder_moving": 150,
+        },
+    )
+
+    load = estimate_bus_loads([config])["canivore"]
+
+    assert load.status_frames_per_s == pytest.approx(
+        0.0
+        + 200.0
+        + CANCODER_DEFAULT_FRAMES_PER_S
+        + 2 * (50.0 + 50.0 + TALONFX_DEFAULT_FRAMES_PER_S)
+    )
+
+
+def test_loads_are_summed_per_bus(example_config):
+    """Mechanisms on the same bus add up, and mechanisms on other buses don't"""
+    loads = estimate_bus_loads(
+        [
+            example_config("exampleconfig.json"),
+            example_config("exampleconfig.json", name="OtherElevator"),
+            example_config("wristconfig.json", canbus="rio"),
+        ]
+    )
+
+    assert set(loads) == {"canivore", "rio"}
+    assert loads["canivore"].devices == 6
+    assert loads["canivore"].status_frames_per_s == pytest.approx(
+        2 * ELEVATOR_STATUS_FRAMES_PER_S
+    )
+    assert loads["rio"].devices == 2
+
+
+def rio_elevators(example_config, count: int):
+    """Get count copies of the example elevator on the roboRIO's bus"""
+    return [
+        example_config("exampleconfig.json", name=f"Elevator{i}", canbus="rio")
+        for i in range(count)
+    ]
+
+
+def utilization_of(configs) -> float:
+    """Get the estimated utilization of the roboRIO's bus"""
+    return estimate_bus_loads(configs)["rio"].utilization
+
+
+def test_bus_under_warn_threshold_passes_silently(example_config, monkeypatch):
+    """A lightly loaded bus neither warns nor fails"""
+    warnings: list[str] = []
+    monkeypatch.setattr(canbus, "print_warning", warnings.append)
+
+    configs = rio_elevators(example_config, 1)
+    assert utilization_of(configs) < WARN_UTILIZATION
+
+    check_bus_loads(configs)
+
+    assert not warnings
+
+
+def test_bus_over_warn_threshold_warns(example_config, monkeypatch):
+    """A bus between the warn and fail thresholds warns without failing"""
+    warnings: list[str] = []
+    monkeypatch.setattr(canbus, "print_warning", warnings.append)
+
+    configs = rio_elevators(example_config, 5)
+    assert WARN_UTILIZATION < utilization_of(configs) <= FAIL_UTILIZATION
+
+    check_bus_loads(configs)
+
+    assert len(warnings) == 1
+    assert "close to its budget" in warnings[0]
+
+
+def test_bus_over_fail_threshold_exits(example_config, monkeypatch):
+    """A bus over the fail threshold stops generation"""
+    errors: list[str] = []
+    monkeypatch.setattr(canbus, "print_err", errors.append)
+
+    configs = rio_elevators(example_config, 6)
+    assert utilization_of(configs) > FAIL_UTILIZATION
+
+    with pytest.raises(SystemExit):
+        check_bus_loads(configs)
+
+    assert len(errors) == 1
+    assert "over budget" in errors[0]
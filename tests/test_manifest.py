@@ -0,0 +1,146 @@
+# SPDX-FileCopyrightText: 2025-present team401
+#
+# SPDX-License-Identifier: GPL-3.0-only
+"""
+Tests for detecting generated files that are up to date or were edited by hand
+"""
+
+import json
+import os
+
+from robotvibecoder.manifest import MANIFEST_FILENAME, Manifest, input_hash
+from robotvibecoder.subcommands.generate import generate_mechanisms
+from robotvibecoder.templating import generate_env
+
+GENERATED = "// generated\n"
+
+
+def write(path: str, contents: str) -> None:
+    """Write contents to a file, replacing it if it exists"""
+    with open(path, "w", encoding="utf-8") as file:
+        file.write(contents)
+
+
+def read(path: str) -> str:
+    """Read the contents of a file"""
+    with open(path, "r", encoding="utf-8") as file:
+        return file.read()
+
+
+def generated_file(folder: str) -> tuple[Manifest, str]:
+    """Generate a file into folder and record it in a saved manifest"""
+    output_path = os.path.join(folder, "ElevatorIO.java")
+    write(output_path, GENERATED)
+
+    manifest = Manifest(folder)
+    manifest.record(output_path, "inputs", GENERATED)
+    manifest.save()
+
+    return Manifest(folder), output_path
+
+
+def test_unchanged_file_is_up_to_date(tmp_path):
+    """A file generated from the same inputs and left alone doesn't need to be regenerated"""
+    manifest, output_path = generated_file(str(tmp_path))
+
+    assert manifest.is_up_to_date(output_path, "inputs")
+    assert not manifest.was_edited(output_path)
+
+
+def test_changed_inputs_are_out_of_date(tmp_path):
+    """A file whose inputs changed must be regenerated, even though nobody edited it"""
+    manifest, output_path = generated_file(str(tmp_path))
+
+    assert not manifest.is_up_to_date(output_path, "other inputs")
+    assert not manifest.was_edited(output_path)
+
+
+def test_hand_edited_file_is_out_of_date_and_edited(tmp_path):
+    """A file edited since it was generated is neither up to date nor safe to overwrite silently"""
+    manifest, output_path = generated_file(str(tmp_path))
+    write(output_path, GENERATED + "// edited by hand\n")
+
+    assert not manifest.is_up_to_date(output_path, "inputs")
+    assert manifest.was_edited(output_path)
+
+
+def test_deleted_file_is_out_of_date_but_not_edited(tmp_path):
+    """A deleted file must be regenerated, and there's nothing on disk to preserve"""
+    manifest, output_path = generated_file(str(tmp_path))
+    os.remove(output_path)
+
+    assert not manifest.is_up_to_date(output_path, "inputs")
+    assert not manifest.was_edited(output_path)
+
+
+def test_file_not_in_manifest_counts_as_edited(tmp_path):
+    """A file robotvibecoder didn't generate is treated as hand-written"""
+    output_path = os.path.join(str(tmp_path), "ElevatorIO.java")
+    write(output_path, GENERATED)
+
+    manifest = Manifest(str(tmp_path))
+
+    assert not manifest.is_up_to_date(output_path, "inputs")
+    assert manifest.was_edited(output_path)
+
+
+def test_manifest_of_other_version_is_ignored(tmp_path):
+    """Entries from a manifest with a different structure version aren't trusted"""
+    _, output_path = generated_file(str(tmp_path))
+    manifest_path = os.path.join(str(tmp_path), MANIFEST_FILENAME)
+    data = json.loads(read(manifest_path))
+    data["version"] += 1
+    write(manifest_path, json.dumps(data))
+
+    assert not Manifest(str(tmp_path)).is_up_to_date(output_path, "inputs")
+
+
+def test_input_hash_depends_on_context():
+    """Rendering the same template with a different context changes the input hash"""
+    env = generate_env()
+
+    elevator = input_hash(env, "MechanismIO.java.j2", {"name": "Elevator"})
+
+    assert elevator == input_hash(env, "MechanismIO.java.j2", {"name": "Elevator"})
+    assert elevator != input_hash(env, "MechanismIO.java.j2", {"name": "Wrist"})
+    assert elevator != input_hash(env, "MechanismIOReplay.java.j2", {"name": "Elevator"})
+
+
+def test_regenerating_skips_up_to_date_files(tmp_path, example_config, generate_args):
+    """A second run with nothing changed leaves every file and its mtime alone"""
+    folder = str(tmp_path)
+    targets = [(example_config("exampleconfig.json"), folder)]
+    generate_mechanisms(targets, generate_args(folder=folder), confirm=False)
+
+    io_path = os.path.join(folder, "ElevatorIO.java")
+    os.utime(io_path, (0, 0))
+
+    generate_mechanisms(targets, generate_args(folder=folder), confirm=False)
+
+    assert os.path.getmtime(io_path) == 0
+
+
+def test_watch_mode_keeps_hand_edited_files(tmp_path, example_config, generate_args):
+    """Without a confirmation prompt, files edited by hand are skipped instead of overwritten"""
+    folder = str(tmp_path)
+    generate_mechanisms(
+        [(example_config("exampleconfig.json"), folder)],
+        generate_args(folder=folder),
+        confirm=False,
+    )
+
+    io_path = os.path.join(folder, "ElevatorIO.java")
+    constants_path = os.path.join(folder, "ElevatorConstants.java")
+    edited = read(io_path) + "// edited by hand\n"
+    write(io_path, edited)
+    constants_before = read(constants_path)
+
+    # Changing the config changes every file's inputs, so both would be regenerated
+    generate_mechanisms(
+        [(example_config("exampleconfig.json", encoder="liftEncoder"), folder)],
+        generate_args(folder=folder),
+        confirm=False,
+    )
+
+    assert read(io_path) == edited
+    assert read(constants_path) != constants_before
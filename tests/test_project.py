@@ -0,0 +1,154 @@
+# SPDX-FileCopyrightText: 2025-present team401
+#
+# SPDX-License-Identifier: GPL-3.0-only
+"""
+Tests for loading project files and assigning placeholder CAN IDs across a project
+"""
+
+import json
+import os
+import re
+
+import pytest
+
+from robotvibecoder.subcommands.generate import generate_mechanisms, load_targets
+from robotvibecoder.templating import GlobalTemplateState, hash_can_id
+
+
+def write_project(folder: str, mechanisms: dict[str, dict]) -> None:
+    """Write a robot.json listing a config file for each of mechanisms, by filename"""
+    for filename, data in mechanisms.items():
+        with open(os.path.join(folder, filename), "w", encoding="utf-8") as file:
+            json.dump(data, file)
+
+    with open(os.path.join(folder, "robot.json"), "w", encoding="utf-8") as file:
+        json.dump({"mechanisms": list(mechanisms)}, file)
+
+
+def assigned_ids(targets) -> dict[str, dict[str, int]]:
+    """Assign CAN IDs to every mechanism of a project, from a clean slate"""
+    GlobalTemplateState.reset()
+    GlobalTemplateState.assign_can_ids([config for config, _ in targets])
+
+    return {config.name: GlobalTemplateState.can_ids_for(config) for config, _ in targets}
+
+
+def test_project_loads_every_mechanism(tmp_path, example_data, generate_args):
+    """Every config listed in the project is loaded, in order"""
+    folder = str(tmp_path)
+    write_project(
+        folder,
+        {
+            "elevator.json": example_data("exampleconfig.json"),
+            "wrist.json": example_data("wristconfig.json"),
+        },
+    )
+
+    targets = load_targets(generate_args(folder=folder, project="robot.json"), [])
+
+    assert [config.name for config, _ in targets] == ["Elevator", "Wrist"]
+    assert all(target_folder == folder for _, target_folder in targets)
+
+
+def test_project_rejects_duplicate_names(tmp_path, example_data, generate_args):
+    """Two mechanisms with the same name would generate the same files"""
+    folder = str(tmp_path)
+    write_project(
+        folder,
+        {
+            "elevator.json": example_data("exampleconfig.json"),
+            "elevator2.json": example_data("exampleconfig.json"),
+        },
+    )
+
+    with pytest.raises(SystemExit):
+        load_targets(generate_args(folder=folder, project="robot.json"), [])
+
+
+def test_can_ids_are_unique_across_project(tmp_path, example_data, generate_args):
+    """Devices with the same name in different mechanisms still get different IDs"""
+    folder = str(tmp_path)
+    write_project(
+        folder,
+        {
+            "elevator.json": example_data("exampleconfig.json"),
+            "lift.json": example_data("exampleconfig.json", name="Lift"),
+        },
+    )
+    targets = load_targets(generate_args(folder=folder, project="robot.json"), [])
+
+    ids = assigned_ids(targets)
+
+    all_ids = [can_id for devices in ids.values() for can_id in devices.values()]
+    assert len(all_ids) == 6
+    assert len(set(all_ids)) == len(all_ids)
+
+
+def test_can_ids_are_stable_between_runs(tmp_path, example_data, generate_args):
+    """Loading and assigning the same project again gives every device the same ID"""
+    folder = str(tmp_path)
+    write_project(
+        folder,
+        {
+            "elevator.json": example_data("exampleconfig.json"),
+            "wrist.json": example_data("wristconfig.json"),
+        },
+    )
+    args = generate_args(folder=folder, project="robot.json")
+
+    first = assigned_ids(load_targets(args, []))
+    second = assigned_ids(load_targets(args, []))
+
+    assert first == second
+
+
+def test_can_ids_depend_only_on_project_order(example_config):
+    """IDs are assigned in config order, regardless of which devices templates ask for first"""
+    elevator = example_config("exampleconfig.json")
+    wrist = example_config("wristconfig.json")
+
+    ids = assigned_ids([(elevator, "."), (wrist, ".")])
+
+    assert ids == {
+        "Elevator": {"leadMotor": 1, "followerMotor": 2, "elevatorEncoder": 3},
+        "Wrist": {"wristMotor": 4, "wristEncoder": 5},
+    }
+
+    # Templates render on worker threads in any order, and only look up the assigned IDs
+    assert hash_can_id("wristEncoder", "Wrist") == "5"
+    assert hash_can_id("leadMotor", "Elevator") == "1"
+    assert GlobalTemplateState.can_ids_for(wrist) == ids["Wrist"]
+
+
+def test_generated_can_ids_are_stable_across_project_runs(
+    tmp_path, example_data, generate_args
+):
+    """Regenerating a project writes the same placeholder CAN IDs into every constants file"""
+    folder = str(tmp_path)
+    write_project(
+        folder,
+        {
+            "elevator.json": example_data("exampleconfig.json"),
+            "wrist.json": example_data("wristconfig.json"),
+        },
+    )
+    args = generate_args(folder=folder, project="robot.json")
+
+    def generated_ids() -> dict[str, list[str]]:
+        generate_mechanisms(load_targets(args, []), args, confirm=False)
+
+        ids: dict[str, list[str]] = {}
+        for name in ["Elevator", "Wrist"]:
+            path = os.path.join(folder, f"{name}Constants.java")
+            with open(path, "r", encoding="utf-8") as file:
+                ids[name] = re.findall(r"I[dD] = (\d+);", file.read())
+        return ids
+
+    first = generated_ids()
+    for path in os.listdir(folder):
+        if path.endswith(".java"):
+            os.remove(os.path.join(folder, path))
+    second = generated_ids()
+
+    assert first == second
+    assert first == {"Elevator": ["1", "2", "3"], "Wrist": ["4", "5"]}